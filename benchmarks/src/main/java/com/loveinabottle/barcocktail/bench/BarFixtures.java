@@ -0,0 +1,63 @@
+package com.loveinabottle.barcocktail.bench;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.util.*;
+
+/**
+ * Construit des bars synthétiques (stock, menu, personnel) pour les benchmarks.
+ * Tout est déterministe : même taille = même bar, d'un run à l'autre.
+ */
+final class BarFixtures {
+    static final int RECIPE_SIZE = 4;
+    static final int LARGE_STOCK = 1_000_000_000;
+
+    private BarFixtures() {
+    }
+
+    static String ingredientName(int i) {
+        return "Ingredient-" + i;
+    }
+
+    static String cocktailName(int i) {
+        return "Cocktail-" + i;
+    }
+
+    /**
+     * Bar avec {@code stockSize} ingrédients, {@code menuSize} cocktails de
+     * {@link #RECIPE_SIZE} ingrédients et {@code bartenders} bartenders.
+     */
+    static Bar newBar(int menuSize, int stockSize, int bartenders) {
+        Bar bar = new Bar();
+        Random random = new Random(42);
+
+        List<Ingredient> ingredients = new ArrayList<>(stockSize);
+        for (int i = 0; i < stockSize; i++) {
+            Ingredient ingredient = new Ingredient(ingredientName(i), 10.0, i % 3 == 0, LARGE_STOCK);
+            ingredients.add(ingredient);
+            bar.addIngredient(ingredient);
+        }
+
+        int recipeSize = Math.min(RECIPE_SIZE, stockSize);
+        for (int i = 0; i < menuSize; i++) {
+            Map<Ingredient, Integer> recipe = new HashMap<>();
+            while (recipe.size() < recipeSize) {
+                recipe.put(ingredients.get(random.nextInt(stockSize)), 1 + random.nextInt(2));
+            }
+            bar.addCocktailToMenu(new Cocktail(cocktailName(i), recipe, 5.0 + (i % 10)));
+        }
+
+        for (int i = 0; i < bartenders; i++) {
+            bar.addEmployee(new Bartender("B" + i, "Bartender " + i, 1 + (i % 8)));
+        }
+        return bar;
+    }
+
+    /** Remet chaque ingrédient à un stock élevé pour que les benchmarks ne tombent jamais en rupture. */
+    static void restock(Bar bar) {
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            int missing = LARGE_STOCK - ingredient.getStockUnits();
+            if (missing > 0) ingredient.addUnits(missing);
+        }
+    }
+}
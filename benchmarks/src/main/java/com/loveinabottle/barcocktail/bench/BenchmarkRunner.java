@@ -0,0 +1,38 @@
+package com.loveinabottle.barcocktail.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance toute la campagne : débit, latence (SampleTime) et taux d'allocation
+ * (profiler GC), avec 1 à 64 soumetteurs concurrents pour l'admission.
+ * Aucun toolkit JavaFX n'est démarré.
+ */
+public final class BenchmarkRunner {
+    private static final int[] SUBMITTER_THREADS = {1, 4, 16, 64};
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(baseOptions()
+                .include(CatalogBenchmark.class.getSimpleName())
+                .build()).run();
+
+        for (int threads : SUBMITTER_THREADS) {
+            new Runner(baseOptions()
+                    .include(SubmissionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder baseOptions() {
+        return new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Djava.awt.headless=true");
+    }
+}
@@ -0,0 +1,88 @@
+package com.loveinabottle.barcocktail.bench;
+
+import com.loveinabottle.barcocktail.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des recherches dans le catalogue : {@link Bar#placeOrder},
+ * {@link Cocktail#isPrepareable} et {@link Cocktail#consumeIngredients},
+ * en fonction de la taille du menu et du stock.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CatalogBenchmark {
+    private static final int SAMPLES = 1024;
+
+    @Param({"5", "100", "1000", "10000"})
+    public int menuSize;
+
+    @Param({"10", "100", "1000", "5000"})
+    public int stockSize;
+
+    private Bar bar;
+    private Client client;
+    private List<String>[] orderNames;
+    private Cocktail[] cocktails;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        bar = BarFixtures.newBar(menuSize, stockSize, 1);
+        client = new Client("bench", "Bench");
+
+        Random random = new Random(7);
+        List<Cocktail> menu = bar.getMenu();
+        orderNames = new List[SAMPLES];
+        cocktails = new Cocktail[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            // Noms en minuscules : on passe par la comparaison insensible à la casse
+            orderNames[i] = List.of(
+                    BarFixtures.cocktailName(random.nextInt(menuSize)).toLowerCase(),
+                    BarFixtures.cocktailName(random.nextInt(menuSize)).toLowerCase(),
+                    BarFixtures.cocktailName(random.nextInt(menuSize)).toLowerCase());
+            cocktails[i] = menu.get(random.nextInt(menuSize));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        BarFixtures.restock(bar);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bar.shutdown();
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public Optional<Order> placeOrder() {
+        return bar.placeOrder(client, orderNames[next()]);
+    }
+
+    @Benchmark
+    public boolean isPrepareable() {
+        return cocktails[next()].isPrepareable(bar);
+    }
+
+    @Benchmark
+    public Cocktail consumeIngredients() {
+        Cocktail cocktail = cocktails[next()];
+        cocktail.consumeIngredients(bar);
+        return cocktail;
+    }
+}
@@ -0,0 +1,58 @@
+package com.loveinabottle.barcocktail.bench;
+
+import com.loveinabottle.barcocktail.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission concurrente : {@link Bar#placeOrder} puis {@link Bar#submitOrderForPreparation}
+ * depuis plusieurs threads sur un même bar. Le nombre de soumetteurs se règle avec
+ * {@code -t} (ou via {@link BenchmarkRunner}, qui balaie 1 à 64 threads).
+ *
+ * <p>Chaque commande admise est aussitôt annulée ({@link Bar#cancelOrder}) : la
+ * réservation, la mise en file (ou le départ en préparation) et la remise en
+ * stock sont mesurées, sans que la file ne grossisse d'une itération à l'autre.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Threads(1)
+@State(Scope.Benchmark)
+public class SubmissionBenchmark {
+    private static final int BARTENDERS = 4;
+
+    @Param({"5", "10000"})
+    public int menuSize;
+
+    @Param({"10", "5000"})
+    public int stockSize;
+
+    private Bar bar;
+    private Client client;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bar = BarFixtures.newBar(menuSize, stockSize, BARTENDERS);
+        client = new Client("bench", "Bench");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        bar.shutdown();
+    }
+
+    @Benchmark
+    public Order submitOrder() {
+        String name = BarFixtures.cocktailName(ThreadLocalRandom.current().nextInt(menuSize));
+        Order order = bar.placeOrder(client, List.of(name)).orElseThrow();
+        if (bar.submitOrderForPreparation(order)) {
+            bar.cancelOrder(order);
+        }
+        return order;
+    }
+}
@@ -1,21 +1,46 @@
 package com.loveinabottle.barcocktail;
 
+import com.loveinabottle.barcocktail.http.OrderHttpServer;
+import com.loveinabottle.barcocktail.journal.OrderJournal;
 import com.loveinabottle.barcocktail.model.*;
+import com.loveinabottle.barcocktail.snapshot.CatalogSnapshot;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import javax.management.JMException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
 
 public class HelloApplication extends Application {
+    private static final System.Logger LOG = System.getLogger(HelloApplication.class.getName());
+
+    private Bar bar;
+    private OrderJournal journal;
+    private OrderHttpServer httpServer;
 
     @Override
     public void start(Stage stage) throws IOException {
         // Initialiser le bar avec des données de démo
-        Bar bar = initializeBar();
+        bar = initializeBar();
+
+        // Reprendre l'état du dernier service (stock, caisse, commandes non servies)
+        journal = OrderJournal.open(journalDirectory());
+        journal.recover(bar);
+
+        // Métriques consultables sans l'interface (jconsole, VisualVM...)
+        try {
+            bar.getMetrics().register("Love in a Bottle");
+        } catch (JMException e) {
+            LOG.log(System.Logger.Level.WARNING, "Métriques JMX indisponibles", e);
+        }
+
+        // Prise de commande des tablettes : propriété barcocktail.http.port
+        String httpPort = System.getProperty("barcocktail.http.port");
+        if (httpPort != null) {
+            httpServer = OrderHttpServer.start(bar, Integer.parseInt(httpPort));
+        }
 
         // Charger le FXML
         FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("fxml/main-view.fxml"));
@@ -31,88 +56,39 @@ public class HelloApplication extends Application {
     }
 
     /**
-     * Initialise le bar avec des ingrédients, cocktails et employés de démonstration
+     * Initialise le bar avec le catalogue enregistré à la dernière fermeture,
+     * ou à défaut avec des ingrédients, cocktails et employés de démonstration
      */
-    private Bar initializeBar() {
-        Bar bar = new Bar();
-
-        // ===== Créer des ingrédients =====
-        Ingredient rhum = new Ingredient("Rhum", 50.0, true, 20);
-        Ingredient vodka = new Ingredient("Vodka", 50.0, true, 15);
-        Ingredient gin = new Ingredient("Gin", 50.0, true, 12);
-        Ingredient tequila = new Ingredient("Tequila", 50.0, true, 10);
-        Ingredient citron = new Ingredient("Jus de Citron", 30.0, false, 25);
-        Ingredient sucre = new Ingredient("Sirop de Sucre", 20.0, false, 30);
-        Ingredient menthe = new Ingredient("Menthe", 10.0, false, 15);
-        Ingredient orange = new Ingredient("Jus d'Orange", 30.0, false, 20);
-        Ingredient cranberry = new Ingredient("Jus de Cranberry", 30.0, false, 18);
-        Ingredient soda = new Ingredient("Soda", 200.0, false, 40);
-
-        // Ajouter au stock
-        bar.addIngredient(rhum);
-        bar.addIngredient(vodka);
-        bar.addIngredient(gin);
-        bar.addIngredient(tequila);
-        bar.addIngredient(citron);
-        bar.addIngredient(sucre);
-        bar.addIngredient(menthe);
-        bar.addIngredient(orange);
-        bar.addIngredient(cranberry);
-        bar.addIngredient(soda);
-
-        // ===== Créer des cocktails =====
-
-        // Mojito: Rhum + Citron + Sucre + Menthe + Soda
-        Map<Ingredient, Integer> mojitoRecipe = new HashMap<>();
-        mojitoRecipe.put(rhum, 2);
-        mojitoRecipe.put(citron, 1);
-        mojitoRecipe.put(sucre, 1);
-        mojitoRecipe.put(menthe, 2);
-        mojitoRecipe.put(soda, 1);
-        Cocktail mojito = new Cocktail("Mojito", mojitoRecipe, 8.50);
-        bar.addCocktailToMenu(mojito);
-
-        // Cosmopolitan: Vodka + Cranberry + Citron
-        Map<Ingredient, Integer> cosmoRecipe = new HashMap<>();
-        cosmoRecipe.put(vodka, 2);
-        cosmoRecipe.put(cranberry, 2);
-        cosmoRecipe.put(citron, 1);
-        Cocktail cosmopolitan = new Cocktail("Cosmopolitan", cosmoRecipe, 9.00);
-        bar.addCocktailToMenu(cosmopolitan);
-
-        // Gin Tonic: Gin + Soda + Citron
-        Map<Ingredient, Integer> ginTonicRecipe = new HashMap<>();
-        ginTonicRecipe.put(gin, 2);
-        ginTonicRecipe.put(soda, 2);
-        ginTonicRecipe.put(citron, 1);
-        Cocktail ginTonic = new Cocktail("Gin Tonic", ginTonicRecipe, 7.50);
-        bar.addCocktailToMenu(ginTonic);
-
-        // Tequila Sunrise: Tequila + Orange + Sucre
-        Map<Ingredient, Integer> tequilaSunriseRecipe = new HashMap<>();
-        tequilaSunriseRecipe.put(tequila, 2);
-        tequilaSunriseRecipe.put(orange, 2);
-        tequilaSunriseRecipe.put(sucre, 1);
-        Cocktail tequilaSunrise = new Cocktail("Tequila Sunrise", tequilaSunriseRecipe, 8.00);
-        bar.addCocktailToMenu(tequilaSunrise);
-
-        // Vodka Orange: Vodka + Orange
-        Map<Ingredient, Integer> vodkaOrangeRecipe = new HashMap<>();
-        vodkaOrangeRecipe.put(vodka, 2);
-        vodkaOrangeRecipe.put(orange, 2);
-        Cocktail vodkaOrange = new Cocktail("Vodka Orange", vodkaOrangeRecipe, 6.50);
-        bar.addCocktailToMenu(vodkaOrange);
-
-        // ===== Créer des employés =====
-        Bartender bartender1 = new Bartender("B001", "Jean-Pierre", 1);
-        Bartender bartender2 = new Bartender("B002", "Marie", 7);
-        Bartender bartender3 = new Bartender("B003", "Lucas", 3);
-
-        bar.addEmployee(bartender1);
-        bar.addEmployee(bartender2);
-        bar.addEmployee(bartender3);
-
+    private Bar initializeBar() throws IOException {
+        Bar bar = new Bar(Bar.ExecutionMode.VIRTUAL);
+        // La progression est recalculée à chaque image par le tableau de bord
+        bar.setProgressTickMs(0);
+        Path catalog = dataPath("barcocktail.catalog", "catalog.bin");
+        if (!CatalogSnapshot.load(catalog, bar)) {
+            DemoCatalog.populate(bar);
+        }
         return bar;
     }
+
+    /** Dossier du journal : propriété {@code barcocktail.journal}, sinon {@code ~/.bar-cocktail/journal}. */
+    private static Path journalDirectory() {
+        return dataPath("barcocktail.journal", "journal");
+    }
+
+    private static Path dataPath(String property, String defaultName) {
+        String configured = System.getProperty(property);
+        if (configured != null) return Path.of(configured);
+        return Path.of(System.getProperty("user.home"), ".bar-cocktail", defaultName);
+    }
+
+    @Override
+    public void stop() throws IOException {
+        if (httpServer != null) httpServer.close();
+        if (bar != null) {
+            bar.shutdown();
+            CatalogSnapshot.write(bar, dataPath("barcocktail.catalog", "catalog.bin"));
+        }
+        if (journal != null) journal.close();
+    }
 }
 
@@ -1,20 +1,24 @@
 package com.loveinabottle.barcocktail;
 
+import com.loveinabottle.barcocktail.fx.FxOrderBoard;
+import com.loveinabottle.barcocktail.fx.OrderCardList;
+import com.loveinabottle.barcocktail.fx.OrderView;
 import com.loveinabottle.barcocktail.model.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class HelloController {
 
     // Référence au bar (sera injectée par HelloApplication)
     private Bar bar;
+    private FxOrderBoard orderBoard;
     private Order currentOrder;
 
     // ===== Labels =====
@@ -65,6 +69,10 @@ public class HelloController {
 
     public void setBar(Bar bar) {
         this.bar = bar;
+        this.orderBoard = FxOrderBoard.attach(bar);
+        // Alertes de rupture prévue (thread du bar) -> barre d'état du stock
+        bar.getStockForecast().addRestockListener(forecast -> javafx.application.Platform.runLater(() ->
+                ingredientStatusLabel.setText("⚠ " + forecast)));
         initialize();
     }
 
@@ -141,153 +149,37 @@ public class HelloController {
     // ===== Configuration du Tableau de Bord des Commandes =====
 
     private void setupOrderDashboard() {
-        // Listener pour les commandes en attente
-        bar.getWaitingOrders().addListener((ListChangeListener<Order>) c -> updateDashboard());
-
-        // Listener pour les commandes en cours
-        bar.getInProgressOrders().addListener((ListChangeListener<Order>) c -> updateDashboard());
-
-        // Listener pour les commandes terminées
-        bar.getCompletedOrders().addListener((ListChangeListener<Order>) c -> updateDashboard());
+        // Rendu incrémental : seules les cartes des commandes modifiées sont créées ou retirées
+        new OrderCardList(orderBoard.getInProgressOrders(), inProgressOrdersContainer, true,
+                "Aucune commande en préparation", this::onCancelOrder);
+        new OrderCardList(orderBoard.getWaitingOrders(), waitingOrdersContainer, false,
+                "File d'attente vide", this::onCancelOrder);
+        new OrderCardList(orderBoard.getCompletedOrders(), cashboxOrdersContainer, false,
+                "Aucune commande terminée");
+
+        // Totaux et statistiques
+        orderBoard.getWaitingOrders().addListener((ListChangeListener<OrderView>) c -> updateDashboard());
+        orderBoard.getInProgressOrders().addListener((ListChangeListener<OrderView>) c -> updateDashboard());
+        orderBoard.getCompletedOrders().addListener((ListChangeListener<OrderView>) c -> updateDashboard());
 
         // Initialiser le tableau de bord
         updateDashboard();
     }
 
     private void updateDashboard() {
-        updateInProgressOrders();
-        updateWaitingOrders();
-        updateCashboxOrders();
         updateTotalRevenue();
         updateStats();
     }
 
-    private void updateInProgressOrders() {
-        inProgressOrdersContainer.getChildren().clear();
-
-        for (Order order : bar.getInProgressOrders()) {
-            VBox orderBox = createOrderDisplay(order, true);
-            inProgressOrdersContainer.getChildren().add(orderBox);
-        }
-
-        if (bar.getInProgressOrders().isEmpty()) {
-            Label label = new Label("Aucune commande en préparation");
-            label.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-            inProgressOrdersContainer.getChildren().add(label);
-        }
-    }
-
-    private void updateWaitingOrders() {
-        waitingOrdersContainer.getChildren().clear();
-
-        for (Order order : bar.getWaitingOrders()) {
-            VBox orderBox = createOrderDisplay(order, false);
-            waitingOrdersContainer.getChildren().add(orderBox);
-        }
-
-        if (bar.getWaitingOrders().isEmpty()) {
-            Label label = new Label("File d'attente vide");
-            label.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-            waitingOrdersContainer.getChildren().add(label);
-        }
-    }
-
-    private void updateCashboxOrders() {
-        cashboxOrdersContainer.getChildren().clear();
-
-        // Afficher toutes les commandes terminées
-        bar.getCompletedOrders().forEach(order -> {
-            VBox orderBox = createOrderDisplay(order, false);
-            cashboxOrdersContainer.getChildren().add(orderBox);
-        });
-
-        if (bar.getCompletedOrders().isEmpty()) {
-            Label label = new Label("Aucune commande terminée");
-            label.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-            cashboxOrdersContainer.getChildren().add(label);
-        }
-    }
-
     private void updateTotalRevenue() {
-        double totalRevenue = 0;
-        for (Order order : bar.getCompletedOrders()) {
-            totalRevenue += order.calculateTotal();
-        }
-        totalRevenueLabel.setText(String.format("%.2f €", totalRevenue));
-    }
-
-    private VBox createOrderDisplay(Order order, boolean showProgress) {
-        VBox box = new VBox(5);
-        box.setStyle("-fx-border-color: #bdc3c7; -fx-border-width: 1; -fx-padding: 8; -fx-border-radius: 3;");
-
-        // En-tête avec ID et client
-        HBox header = new HBox(10);
-        Label idLabel = new Label("ID: " + order.getId());
-        idLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #2c3e50;");
-        Label clientLabel = new Label("👤 " + order.getClient().getName());
-        clientLabel.setStyle("-fx-font-weight: bold;");
-        header.getChildren().addAll(idLabel, clientLabel);
-        box.getChildren().add(header);
-
-        // Cocktails
-        StringBuilder cocktails = new StringBuilder("Cocktails: ");
-        for (int i = 0; i < order.getCocktails().size(); i++) {
-            cocktails.append(order.getCocktails().get(i).getName());
-            if (i < order.getCocktails().size() - 1) cocktails.append(", ");
-        }
-        Label cocktailLabel = new Label(cocktails.toString());
-        cocktailLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #34495e;");
-        box.getChildren().add(cocktailLabel);
-
-        // Bartender assigné
-        if (order.getAssignedBartender() != null) {
-            Label bartenderLabel = new Label("🍹 " + order.getAssignedBartender().getName());
-            bartenderLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #27ae60;");
-            box.getChildren().add(bartenderLabel);
-        }
-
-        // Barre de progression
-        if (showProgress) {
-            HBox progressBox = new HBox(5);
-            ProgressBar progressBar = new ProgressBar();
-            progressBar.setPrefWidth(150);
-            progressBar.progressProperty().bind(order.progressProperty().divide(100.0));
-            Label progressLabel = new Label(order.getProgress() + "%");
-            progressLabel.setPrefWidth(35);
-            progressLabel.setStyle("-fx-font-size: 10px;");
-            order.progressProperty().addListener((obs, oldVal, newVal) ->
-                    progressLabel.setText(newVal + "%")
-            );
-            progressBox.getChildren().addAll(progressBar, progressLabel);
-            box.getChildren().add(progressBox);
-        }
-
-        // Statut
-        Label statusLabel = new Label("Statut: " + order.getStatus().getDisplayName());
-        String statusColor = switch (order.getStatus()) {
-            case QUEUED -> "#e67e22";
-            case IN_PROGRESS -> "#3498db";
-            case COMPLETED -> "#27ae60";
-            case FAILED -> "#e74c3c";
-        };
-        statusLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: " + statusColor + "; -fx-font-weight: bold;");
-        order.statusProperty().addListener((obs, oldVal, newVal) ->
-                statusLabel.setText("Statut: " + newVal.getDisplayName())
-        );
-        box.getChildren().add(statusLabel);
-
-        // Prix total de la commande
-        Label priceLabel = new Label("💰 Total: " + String.format("%.2f €", order.calculateTotal()));
-        priceLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
-        box.getChildren().add(priceLabel);
-
-        return box;
+        // Total tenu à jour par le bar à chaque commande terminée
+        totalRevenueLabel.setText(String.format("%.2f €", bar.getOrderHistory().getTotalRevenue()));
     }
 
     private void updateStats() {
-        int inProgress = bar.getInProgressOrders().size();
-        int waiting = bar.getWaitingOrders().size();
-        int completed = bar.getCompletedOrders().size();
+        int inProgress = orderBoard.getInProgressOrders().size();
+        int waiting = orderBoard.getWaitingOrders().size();
+        long completed = bar.getCompletedOrderCount();
         statsLabel.setText("En cours: " + inProgress + " | En attente: " + waiting + " | Terminées: " + completed);
     }
 
@@ -336,8 +228,10 @@ public class HelloController {
                    .append(": ").append(quantity).append(" unités\n");
         });
 
+        int makeable = bar.getMakeableCount(cocktail);
         details.append("\nDisponible: ")
-               .append(cocktail.isPrepareable(bar) ? "✓ Oui" : "✗ Non (stock insuffisant)");
+               .append(makeable > 0 ? "✓ Oui (" + (makeable == Integer.MAX_VALUE ? "∞" : makeable) + " possibles)"
+                                    : "✗ Non (stock insuffisant)");
 
         cocktailDetailsArea.setText(details.toString());
     }
@@ -352,8 +246,11 @@ public class HelloController {
             return;
         }
 
-        selected.addUnits(10);
-        ingredientStatusLabel.setText("✓ " + selected.getName() + " réapprovisionné (+10 unités)");
+        // De quoi tenir jusqu'à l'horizon d'alerte au rythme actuel, au moins 10 unités
+        StockForecast forecast = bar.getStockForecast();
+        int units = Math.max(10, forecast.suggestRestockUnits(selected, forecast.getAlertHorizonMs()));
+        selected.addUnits(units);
+        ingredientStatusLabel.setText("✓ " + selected.getName() + " réapprovisionné (+" + units + " unités)");
         refreshAllData();
     }
 
@@ -396,33 +293,26 @@ public class HelloController {
             return;
         }
 
-        // Vérifier si la commande peut être préparée
-        boolean canPrepare = true;
-        StringBuilder issues = new StringBuilder();
-
-        for (Cocktail cocktail : currentOrder.getCocktails()) {
-            if (!cocktail.isPrepareable(bar)) {
-                canPrepare = false;
-                issues.append("- ").append(cocktail.getName())
-                      .append(" (stock insuffisant)\n");
-            }
-        }
-
-        if (!canPrepare) {
-            showAlert("Stock Insuffisant",
-                     "Impossible de préparer la commande:\n\n" + issues.toString());
+        // Soumettre la commande à la file d'attente : la réservation, en tout-ou-rien
+        // sur les quantités cumulées de la commande, dit à elle seule si le stock suffit
+        SubmissionResult result = bar.submit(currentOrder);
+        if (!result.isAccepted()) {
+            showAlert(result.getStatus() == SubmissionResult.Status.OUT_OF_STOCK ? "Stock Insuffisant" : "Commande refusée",
+                     "Impossible d'accepter la commande : " + result + ".");
             return;
         }
 
-        // Soumettre la commande à la file d'attente
-        bar.submitOrderForPreparation(currentOrder);
-
         double total = bar.billOrder(currentOrder);
 
         // Déterminer le message selon si la commande démarre immédiatement ou non
         String statusMessage;
-        if (bar.getWaitingOrders().contains(currentOrder)) {
-            statusMessage = "Commande en file d'attente.\nPosition: " + (bar.getWaitingOrders().indexOf(currentOrder) + 1);
+        Optional<OrderEta> eta = bar.estimate(currentOrder);
+        if (currentOrder.getStatus() == Order.OrderStatus.QUEUED && eta.isPresent()) {
+            long now = bar.getClock().millis();
+            statusMessage = "Commande en file d'attente.\n" +
+                    eta.get().getOrdersAhead() + " commande(s) avant elle, début dans " +
+                    formatDuration(eta.get().getWaitMs(now)) + ",\nprête dans " +
+                    formatDuration(eta.get().getRemainingMs(now)) + " environ.";
         } else {
             statusMessage = "Commande démarrée immédiatement !";
         }
@@ -445,6 +335,16 @@ public class HelloController {
         statusLabel.setText("Commande en file d'attente !");
     }
 
+    /** Client parti : la commande quitte la file ou le bartender, ses ingrédients retournent en stock. */
+    private void onCancelOrder(Order order) {
+        if (bar.cancelOrder(order)) {
+            statusLabel.setText("Commande " + order.getId() + " annulée");
+            refreshAllData();
+        } else {
+            statusLabel.setText("Commande " + order.getId() + " déjà terminée");
+        }
+    }
+
     private void displayOrderDetails() {
         if (currentOrder == null) {
             orderDetailsArea.clear();
@@ -479,4 +379,11 @@ public class HelloController {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    /** Durée en horloge du bar, arrondie à la minute (ou aux secondes sous la minute). */
+    private static String formatDuration(long ms) {
+        long seconds = (ms + 999) / 1000;
+        if (seconds < 60) return seconds + " s";
+        return (seconds + 30) / 60 + " min";
+    }
 }
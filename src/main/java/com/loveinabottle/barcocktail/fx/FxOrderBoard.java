@@ -0,0 +1,179 @@
+package com.loveinabottle.barcocktail.fx;
+
+import com.loveinabottle.barcocktail.model.Bar;
+import com.loveinabottle.barcocktail.model.BarClock;
+import com.loveinabottle.barcocktail.model.Order;
+import com.loveinabottle.barcocktail.model.OrderListener;
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Adaptateur JavaFX du cycle de vie des commandes.
+ * Les événements du bar arrivent sur n'importe quel thread ; ils sont mis en
+ * file et appliqués en un seul lot par image (pulse JavaFX). La progression
+ * n'est pas poussée par le bar : elle est recalculée à chaque image pour les
+ * commandes en cours, à partir de leur début et de leur durée prévue.
+ */
+public class FxOrderBoard implements OrderListener {
+
+    private enum Kind { QUEUED, STARTED, COMPLETED, FAILED, CANCELLED }
+
+    private static final class Event {
+        final Kind kind;
+        final Order order;
+
+        Event(Kind kind, Order order) {
+            this.kind = kind;
+            this.order = order;
+        }
+    }
+
+    private final Bar bar;
+    private final BarClock clock;
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AnimationTimer frames = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onFrame();
+        }
+    };
+
+    // Thread FX uniquement
+    private final ObservableList<OrderView> waiting = FXCollections.observableArrayList();
+    private final ObservableList<OrderView> inProgress = FXCollections.observableArrayList();
+    private final ObservableList<OrderView> completed = FXCollections.observableArrayList();
+    private final Map<Order, OrderView> activeViews = new IdentityHashMap<>();
+    private final ObservableList<OrderView> waitingView = FXCollections.unmodifiableObservableList(waiting);
+    private final ObservableList<OrderView> inProgressView = FXCollections.unmodifiableObservableList(inProgress);
+    private final ObservableList<OrderView> completedView = FXCollections.unmodifiableObservableList(completed);
+
+    private FxOrderBoard(Bar bar) {
+        this.bar = bar;
+        this.clock = bar.getClock();
+    }
+
+    /** Branche un tableau sur le bar et le remplit avec l'état courant (à appeler sur le thread FX). */
+    public static FxOrderBoard attach(Bar bar) {
+        FxOrderBoard board = new FxOrderBoard(bar);
+        bar.addOrderListener(board);
+        bar.getWaitingOrders().forEach(o -> board.apply(new Event(Kind.QUEUED, o)));
+        bar.getInProgressOrders().forEach(o -> board.apply(new Event(Kind.STARTED, o)));
+        bar.getCompletedOrders().forEach(o -> board.apply(new Event(Kind.COMPLETED, o)));
+        board.frames.start();
+        return board;
+    }
+
+    /** Débranche le tableau du bar et arrête les mises à jour par image (thread FX). */
+    public void detach() {
+        frames.stop();
+        bar.removeOrderListener(this);
+        pending.clear();
+    }
+
+    public ObservableList<OrderView> getWaitingOrders() {
+        return waitingView;
+    }
+
+    public ObservableList<OrderView> getInProgressOrders() {
+        return inProgressView;
+    }
+
+    public ObservableList<OrderView> getCompletedOrders() {
+        return completedView;
+    }
+
+    // ===== Réception des événements (tout thread) =====
+
+    @Override
+    public void onQueued(Order order) {
+        post(new Event(Kind.QUEUED, order));
+    }
+
+    @Override
+    public void onStarted(Order order) {
+        post(new Event(Kind.STARTED, order));
+    }
+
+    @Override
+    public void onCompleted(Order order) {
+        post(new Event(Kind.COMPLETED, order));
+    }
+
+    @Override
+    public void onFailed(Order order) {
+        post(new Event(Kind.FAILED, order));
+    }
+
+    @Override
+    public void onCancelled(Order order) {
+        post(new Event(Kind.CANCELLED, order));
+    }
+
+    private void post(Event event) {
+        pending.add(event);
+    }
+
+    // ===== Application par image (thread FX) =====
+
+    private void onFrame() {
+        Event event;
+        while ((event = pending.poll()) != null) {
+            apply(event);
+        }
+        // Une lecture d'horloge par image, quel que soit le nombre de commandes en cours
+        long nowMs = clock.millis();
+        for (OrderView view : inProgress) {
+            view.setProgress(view.getOrder().progressAt(nowMs));
+        }
+    }
+
+    private void apply(Event event) {
+        Order order = event.order;
+        switch (event.kind) {
+            case QUEUED -> {
+                if (activeViews.containsKey(order)) return;
+                OrderView view = new OrderView(order);
+                view.setStatus(Order.OrderStatus.QUEUED);
+                activeViews.put(order, view);
+                waiting.add(view);
+            }
+            case STARTED -> {
+                OrderView view = activeViews.computeIfAbsent(order, OrderView::new);
+                waiting.remove(view);
+                if (!inProgress.contains(view)) inProgress.add(view);
+                view.setAssignedBartender(order.getAssignedBartender());
+                view.setStatus(Order.OrderStatus.IN_PROGRESS);
+            }
+            case COMPLETED -> {
+                OrderView view = activeViews.remove(order);
+                if (view == null) {
+                    // Cas rare (attach pendant le service) : ne pas compter deux fois
+                    if (completed.stream().anyMatch(v -> v.getOrder() == order)) return;
+                    view = new OrderView(order);
+                }
+                waiting.remove(view);
+                inProgress.remove(view);
+                view.setAssignedBartender(order.getAssignedBartender());
+                view.setProgress(100);
+                view.setStatus(Order.OrderStatus.COMPLETED);
+                completed.add(view);
+                // Même rétention que l'historique du bar
+                int excess = completed.size() - bar.getOrderHistory().getCapacity();
+                if (excess > 0) completed.remove(0, excess);
+            }
+            case FAILED, CANCELLED -> {
+                OrderView view = activeViews.remove(order);
+                if (view == null) return;
+                waiting.remove(view);
+                inProgress.remove(view);
+                view.setStatus(order.getStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.loveinabottle.barcocktail.fx;
+
+import com.loveinabottle.barcocktail.model.Cocktail;
+import com.loveinabottle.barcocktail.model.Employee;
+import com.loveinabottle.barcocktail.model.Order;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Carte d'une commande dans le tableau de bord.
+ * Les écouteurs posés sur l'{@link OrderView} sont retirés par {@link #dispose()}
+ * quand la carte quitte l'écran.
+ */
+public class OrderCard extends VBox {
+    private final OrderView view;
+    private final Label bartenderLabel = new Label();
+    private final Label statusLabel = new Label();
+    private final ProgressBar progressBar;
+    private final Label progressLabel;
+
+    private final ChangeListener<Employee> bartenderListener = (obs, oldVal, newVal) -> showBartender(newVal);
+    private final ChangeListener<Order.OrderStatus> statusListener = (obs, oldVal, newVal) -> showStatus(newVal);
+    private final ChangeListener<Number> progressListener = (obs, oldVal, newVal) -> showProgress(newVal.intValue());
+
+    public OrderCard(OrderView view, boolean showProgress) {
+        this(view, showProgress, null);
+    }
+
+    /** @param onCancel appelé par le bouton « Annuler » ; null pour ne pas l'afficher */
+    public OrderCard(OrderView view, boolean showProgress, Consumer<Order> onCancel) {
+        super(5);
+        this.view = view;
+        Order order = view.getOrder();
+        setStyle("-fx-border-color: #bdc3c7; -fx-border-width: 1; -fx-padding: 8; -fx-border-radius: 3;");
+
+        // En-tête avec ID et client
+        HBox header = new HBox(10);
+        Label idLabel = new Label("ID: " + order.getId());
+        idLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+        Label clientLabel = new Label("👤 " + order.getClient().getName());
+        clientLabel.setStyle("-fx-font-weight: bold;");
+        header.getChildren().addAll(idLabel, clientLabel);
+        if (onCancel != null) {
+            Button cancelButton = new Button("Annuler");
+            cancelButton.setStyle("-fx-font-size: 9px; -fx-padding: 1 6 1 6;");
+            cancelButton.setOnAction(e -> onCancel.accept(order));
+            header.getChildren().add(cancelButton);
+        }
+        getChildren().add(header);
+
+        // Cocktails
+        Label cocktailLabel = new Label("Cocktails: " + order.getCocktails().stream()
+                .map(Cocktail::getName).collect(Collectors.joining(", ")));
+        cocktailLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #34495e;");
+        getChildren().add(cocktailLabel);
+
+        // Bartender assigné (masqué tant qu'il n'y en a pas)
+        bartenderLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #27ae60;");
+        bartenderLabel.managedProperty().bind(bartenderLabel.visibleProperty());
+        getChildren().add(bartenderLabel);
+        showBartender(view.getAssignedBartender());
+        view.assignedBartenderProperty().addListener(bartenderListener);
+
+        // Barre de progression
+        if (showProgress) {
+            HBox progressBox = new HBox(5);
+            progressBar = new ProgressBar();
+            progressBar.setPrefWidth(150);
+            progressLabel = new Label();
+            progressLabel.setPrefWidth(35);
+            progressLabel.setStyle("-fx-font-size: 10px;");
+            progressBox.getChildren().addAll(progressBar, progressLabel);
+            getChildren().add(progressBox);
+            showProgress(view.getProgress());
+            view.progressProperty().addListener(progressListener);
+        } else {
+            progressBar = null;
+            progressLabel = null;
+        }
+
+        // Statut
+        getChildren().add(statusLabel);
+        showStatus(view.getStatus());
+        view.statusProperty().addListener(statusListener);
+
+        // Prix total de la commande
+        Label priceLabel = new Label("💰 Total: " + String.format("%.2f €", order.calculateTotal()));
+        priceLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
+        getChildren().add(priceLabel);
+    }
+
+    public OrderView getView() {
+        return view;
+    }
+
+    /** Détache la carte de sa commande ; elle ne doit plus être affichée ensuite. */
+    public void dispose() {
+        view.assignedBartenderProperty().removeListener(bartenderListener);
+        view.statusProperty().removeListener(statusListener);
+        if (progressBar != null) view.progressProperty().removeListener(progressListener);
+    }
+
+    private void showBartender(Employee bartender) {
+        bartenderLabel.setVisible(bartender != null);
+        bartenderLabel.setText(bartender == null ? "" : "🍹 " + bartender.getName());
+    }
+
+    private void showProgress(int progress) {
+        progressBar.setProgress(progress / 100.0);
+        progressLabel.setText(progress + "%");
+    }
+
+    private void showStatus(Order.OrderStatus status) {
+        String statusColor = switch (status) {
+            case QUEUED -> "#e67e22";
+            case IN_PROGRESS -> "#3498db";
+            case COMPLETED -> "#27ae60";
+            case FAILED -> "#e74c3c";
+            case CANCELLED -> "#95a5a6";
+        };
+        statusLabel.setText("Statut: " + status.getDisplayName());
+        statusLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: " + statusColor + "; -fx-font-weight: bold;");
+    }
+}
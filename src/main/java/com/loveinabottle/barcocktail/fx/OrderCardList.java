@@ -0,0 +1,111 @@
+package com.loveinabottle.barcocktail.fx;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+
+import com.loveinabottle.barcocktail.model.Order;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Affiche une liste de commandes dans un conteneur en ne touchant qu'aux
+ * cartes concernées par chaque changement : les cartes sont indexées par
+ * identifiant de commande, réutilisées si la commande réapparaît dans le même
+ * lot, et libérées ({@link OrderCard#dispose()}) quand elle disparaît.
+ */
+public class OrderCardList {
+    private final ObservableList<OrderView> orders;
+    private final Pane container;
+    private final boolean showProgress;
+    private final Consumer<Order> onCancel;
+    private final Label placeholder;
+    private final Map<String, OrderCard> cards = new HashMap<>();
+    private final ListChangeListener<OrderView> changeListener = this::onChanged;
+
+    public OrderCardList(ObservableList<OrderView> orders, Pane container, boolean showProgress, String emptyText) {
+        this(orders, container, showProgress, emptyText, null);
+    }
+
+    /** @param onCancel action du bouton « Annuler » de chaque carte ; null pour ne pas l'afficher */
+    public OrderCardList(ObservableList<OrderView> orders, Pane container, boolean showProgress, String emptyText,
+                         Consumer<Order> onCancel) {
+        this.orders = orders;
+        this.container = container;
+        this.showProgress = showProgress;
+        this.onCancel = onCancel;
+        this.placeholder = new Label(emptyText);
+        placeholder.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
+
+        container.getChildren().clear();
+        for (OrderView view : orders) {
+            container.getChildren().add(cardFor(view));
+        }
+        updatePlaceholder();
+        orders.addListener(changeListener);
+    }
+
+    /** Arrête le suivi de la liste et libère toutes les cartes. */
+    public void dispose() {
+        orders.removeListener(changeListener);
+        cards.values().forEach(OrderCard::dispose);
+        cards.clear();
+        container.getChildren().clear();
+    }
+
+    private void onChanged(ListChangeListener.Change<? extends OrderView> change) {
+        // La carte de remplacement n'est créée qu'après avoir vu tous les retraits du lot
+        Map<String, OrderCard> detached = new HashMap<>();
+        ObservableList<Node> children = container.getChildren();
+        children.remove(placeholder);
+
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                children.remove(change.getFrom(), change.getTo());
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    children.add(i, cards.get(orders.get(i).getId()));
+                }
+                continue;
+            }
+            if (change.wasRemoved()) {
+                children.remove(change.getFrom(), change.getFrom() + change.getRemovedSize());
+                for (OrderView view : change.getRemoved()) {
+                    OrderCard card = cards.remove(view.getId());
+                    if (card != null) detached.put(view.getId(), card);
+                }
+            }
+            if (change.wasAdded()) {
+                int index = change.getFrom();
+                for (OrderView view : change.getAddedSubList()) {
+                    OrderCard card = detached.remove(view.getId());
+                    if (card != null && card.getView() == view) {
+                        cards.put(view.getId(), card);
+                    } else {
+                        if (card != null) card.dispose();
+                        card = cardFor(view);
+                    }
+                    children.add(index++, card);
+                }
+            }
+        }
+
+        detached.values().forEach(OrderCard::dispose);
+        updatePlaceholder();
+    }
+
+    private OrderCard cardFor(OrderView view) {
+        OrderCard card = new OrderCard(view, showProgress, onCancel);
+        cards.put(view.getId(), card);
+        return card;
+    }
+
+    private void updatePlaceholder() {
+        if (orders.isEmpty() && !container.getChildren().contains(placeholder)) {
+            container.getChildren().add(placeholder);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.loveinabottle.barcocktail.fx;
+
+import com.loveinabottle.barcocktail.model.Employee;
+import com.loveinabottle.barcocktail.model.Order;
+import javafx.beans.property.*;
+
+/**
+ * Vue JavaFX d'une commande : propriétés observables, modifiées uniquement
+ * sur le thread FX par {@link FxOrderBoard}.
+ */
+public class OrderView {
+    private final Order order;
+    private final ObjectProperty<Order.OrderStatus> status;
+    private final IntegerProperty progress;
+    private final ObjectProperty<Employee> assignedBartender;
+
+    OrderView(Order order) {
+        this.order = order;
+        this.status = new SimpleObjectProperty<>(order.getStatus());
+        this.progress = new SimpleIntegerProperty(order.getProgress());
+        this.assignedBartender = new SimpleObjectProperty<>(order.getAssignedBartender());
+    }
+
+    public Order getOrder() { return order; }
+    public String getId() { return order.getId(); }
+
+    public Order.OrderStatus getStatus() { return status.get(); }
+    public ReadOnlyObjectProperty<Order.OrderStatus> statusProperty() { return status; }
+
+    public int getProgress() { return progress.get(); }
+    public ReadOnlyIntegerProperty progressProperty() { return progress; }
+
+    public Employee getAssignedBartender() { return assignedBartender.get(); }
+    public ReadOnlyObjectProperty<Employee> assignedBartenderProperty() { return assignedBartender; }
+
+    void setStatus(Order.OrderStatus value) { status.set(value); }
+    void setProgress(int value) { progress.set(value); }
+    void setAssignedBartender(Employee value) { assignedBartender.set(value); }
+}
@@ -0,0 +1,126 @@
+package com.loveinabottle.barcocktail.host;
+
+import com.loveinabottle.barcocktail.model.Bar;
+import com.loveinabottle.barcocktail.model.BarClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Héberge plusieurs bars (établissements) dans la même JVM.
+ *
+ * <p>Tous partagent une horloge (un seul thread de minuterie) et un pool de
+ * threads de taille fixe, servi à tour de rôle : chaque bar garde son stock,
+ * son menu et sa file, mais le nombre de threads ne dépend pas du nombre de
+ * bars. Un bar ne peut occuper qu'une part du pool ({@code maxConcurrentTasks}),
+ * de sorte que le coup de feu d'un établissement n'affame pas les autres ;
+ * ses propres limites d'admission ({@link Bar#setAdmissionLimits}) bornent sa file.</p>
+ *
+ * <pre>
+ * try (BarHost host = new BarHost(4)) {
+ *     Bar paris = host.openBar("Paris");
+ *     Bar lyon = host.openBar("Lyon", 1);
+ *     ...
+ * }
+ * </pre>
+ */
+public class BarHost implements AutoCloseable {
+
+    /** Un bar hébergé et l'état de sa part du pool. */
+    public static class Tenant {
+        private final Bar bar;
+        private final FairWorkerPool.Tenant executor;
+
+        Tenant(Bar bar, FairWorkerPool.Tenant executor) {
+            this.bar = bar;
+            this.executor = executor;
+        }
+
+        public String getName() { return executor.getName(); }
+        public Bar getBar() { return bar; }
+        public int getMaxConcurrentTasks() { return executor.getMaxConcurrent(); }
+        public int getQueuedTasks() { return executor.getQueuedTasks(); }
+        public int getRunningTasks() { return executor.getRunningTasks(); }
+        public long getCompletedTasks() { return executor.getCompletedTasks(); }
+    }
+
+    private final BarClock clock;
+    private final boolean ownsClock;
+    private final FairWorkerPool pool;
+    private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    /** Hôte temps réel de {@code workerThreads} threads. */
+    public BarHost(int workerThreads) {
+        this(workerThreads, BarClock.realTime(), true);
+    }
+
+    /** L'horloge fournie reste à la charge de l'appelant. */
+    public BarHost(int workerThreads, BarClock clock) {
+        this(workerThreads, clock, false);
+    }
+
+    private BarHost(int workerThreads, BarClock clock, boolean ownsClock) {
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.pool = new FairWorkerPool(workerThreads, "bar-host-");
+    }
+
+    public BarClock getClock() {
+        return clock;
+    }
+
+    public int getWorkerThreadCount() {
+        return pool.getThreadCount();
+    }
+
+    /** Ouvre un bar qui peut occuper jusqu'à la moitié du pool. */
+    public Bar openBar(String name) {
+        return openBar(name, Math.max(1, pool.getThreadCount() / 2));
+    }
+
+    /**
+     * Ouvre un bar vide (stock, menu et employés à ajouter).
+     * @param maxConcurrentTasks threads du pool que ce bar peut occuper en même temps
+     */
+    public synchronized Bar openBar(String name, int maxConcurrentTasks) {
+        if (tenants.containsKey(name)) throw new IllegalArgumentException("Bar déjà ouvert: " + name);
+        FairWorkerPool.Tenant executor = pool.newTenant(name, maxConcurrentTasks);
+        Bar bar = new Bar(clock, executor);
+        tenants.put(name, new Tenant(bar, executor));
+        return bar;
+    }
+
+    public synchronized Bar getBar(String name) {
+        Tenant tenant = tenants.get(name);
+        return tenant == null ? null : tenant.bar;
+    }
+
+    public synchronized List<Tenant> getTenants() {
+        return Collections.unmodifiableList(new ArrayList<>(tenants.values()));
+    }
+
+    /** Ferme le bar ; ses préparations en cours se terminent sur le pool. */
+    public synchronized void closeBar(String name) {
+        Tenant tenant = tenants.remove(name);
+        if (tenant != null) tenant.bar.shutdown();
+    }
+
+    @Override
+    public void close() {
+        List<Tenant> all;
+        synchronized (this) {
+            all = new ArrayList<>(tenants.values());
+            tenants.clear();
+        }
+        all.forEach(t -> t.bar.shutdown());
+        try {
+            pool.shutdown(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsClock) clock.shutdown();
+    }
+}
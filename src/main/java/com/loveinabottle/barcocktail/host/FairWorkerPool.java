@@ -0,0 +1,148 @@
+package com.loveinabottle.barcocktail.host;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de threads de taille fixe partagé entre plusieurs locataires.
+ * Chaque locataire a sa propre file de tâches ; les threads servent les
+ * locataires à tour de rôle (une tâche chacun), et un locataire n'occupe
+ * jamais plus de {@code maxConcurrent} threads à la fois.
+ */
+final class FairWorkerPool {
+    private static final System.Logger LOG = System.getLogger(FairWorkerPool.class.getName());
+
+    final class Tenant implements Executor {
+        private final String name;
+        private final int maxConcurrent;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final AtomicLong completed = new AtomicLong();
+        private int running;
+        private boolean ready; // dans la file des locataires à servir
+
+        Tenant(String name, int maxConcurrent) {
+            this.name = name;
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            lock.lock();
+            try {
+                if (shutdown) throw new RejectedExecutionException("Pool arrêté");
+                tasks.addLast(task);
+                markReady(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String getName() { return name; }
+        int getMaxConcurrent() { return maxConcurrent; }
+        long getCompletedTasks() { return completed.get(); }
+
+        int getQueuedTasks() {
+            lock.lock();
+            try {
+                return tasks.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getRunningTasks() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final ArrayDeque<Tenant> readyTenants = new ArrayDeque<>();
+    private final Thread[] workers;
+    private boolean shutdown;
+
+    FairWorkerPool(int threads, String namePrefix) {
+        workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::work, namePrefix + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    Tenant newTenant(String name, int maxConcurrent) {
+        return new Tenant(name, maxConcurrent);
+    }
+
+    int getThreadCount() {
+        return workers.length;
+    }
+
+    /** À appeler sous verrou : remet le locataire dans la ronde s'il a du travail et de la marge. */
+    private void markReady(Tenant tenant) {
+        if (tenant.ready || tenant.tasks.isEmpty() || tenant.running >= tenant.maxConcurrent) return;
+        tenant.ready = true;
+        readyTenants.addLast(tenant);
+        workAvailable.signal();
+    }
+
+    private void work() {
+        while (true) {
+            Tenant tenant;
+            Runnable task;
+            lock.lock();
+            try {
+                while (readyTenants.isEmpty()) {
+                    if (shutdown) return;
+                    workAvailable.awaitUninterruptibly();
+                }
+                tenant = readyTenants.pollFirst();
+                tenant.ready = false;
+                task = tenant.tasks.pollFirst();
+                tenant.running++;
+                markReady(tenant); // en fin de ronde, derrière les autres locataires
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOG.log(System.Logger.Level.ERROR, "Tâche en échec (" + tenant.name + ")", t);
+            }
+
+            lock.lock();
+            try {
+                tenant.running--;
+                tenant.completed.incrementAndGet();
+                markReady(tenant);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Refuse les nouvelles tâches, termine celles en file puis arrête les threads. */
+    void shutdown(long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.loveinabottle.barcocktail.http;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écriture JSON compacte (sans espaces) dans un tampon réutilisable.
+ * Les virgules entre membres sont posées automatiquement.
+ */
+final class JsonOutput {
+    private final StringBuilder out = new StringBuilder(256);
+    private boolean needsComma;
+
+    JsonOutput beginObject() {
+        separator();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput endObject() {
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput beginArray() {
+        separator();
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput endArray() {
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    /** Nom du prochain membre de l'objet ouvert. */
+    JsonOutput name(String name) {
+        separator();
+        quote(name);
+        out.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput value(String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            quote(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput value(long value) {
+        separator();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput value(double value) {
+        separator();
+        if (Double.isFinite(value)) {
+            out.append(value);
+        } else {
+            out.append("null");
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput value(boolean value) {
+        separator();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void separator() {
+        if (needsComma) out.append(',');
+    }
+
+    private void quote(String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
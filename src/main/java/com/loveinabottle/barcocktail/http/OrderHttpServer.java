@@ -0,0 +1,433 @@
+package com.loveinabottle.barcocktail.http;
+
+import com.loveinabottle.barcocktail.importer.JsonReader;
+import com.loveinabottle.barcocktail.model.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prise de commande HTTP pour les tablettes de salle, sans interface graphique.
+ * Serveur HTTP du JDK, un thread virtuel par requête ; réponses JSON compactes.
+ *
+ * <pre>
+ * GET  /menu                 menu (nom, prix, recette), pré-sérialisé
+ * GET  /menu/availability    exemplaires réalisables de chaque cocktail
+ * POST /orders               {"client": "Table 4", "cocktails": ["Mojito"], "priority": "VIP",
+ *                             "targetServeAtMs": 0, "submit": true}
+ * POST /orders/{id}/submit   soumet une commande passée avec "submit": false
+ * POST /orders/{id}/cancel   annule une commande passée, en file ou en préparation
+ * GET  /orders/{id}          état, progression et estimation de service
+ * </pre>
+ *
+ * Une commande passée est soumise aussitôt sauf {@code "submit": false}
+ * ({@link Bar#placeOrder} puis {@link Bar#submit}). Codes : 201 commande
+ * créée ou admise, 409 refusée par le bar (raison dans {@code "reason"}),
+ * 400 requête invalide, 404 commande ou route inconnue. Une annulation
+ * répond 200, ou 409 si la commande est déjà terminée.
+ *
+ * <p>Le menu est sérialisé une fois et resservi tel quel tant que sa taille ne
+ * change pas (le menu ne fait que grandir). Les commandes du bar en file ou en
+ * préparation sont suivies par un écouteur ; les commandes passées, terminées
+ * ou refusées ne sont gardées que dans la limite de {@link #RETAINED_ORDERS}.</p>
+ *
+ * <p>Le serveur du JDK écrit en-têtes et corps séparément : sans TCP_NODELAY,
+ * un client qui retarde ses acquittements peut ajouter ~40 ms par réponse.
+ * Si c'est gênant, la JVM peut être lancée avec l'option facultative
+ * {@code -Dsun.net.httpserver.nodelay=true} : propriété interne au JDK, non
+ * garantie et valable pour toute la JVM ; rien ne la pose dans le code.</p>
+ */
+public class OrderHttpServer implements AutoCloseable {
+    public static final int RETAINED_ORDERS = 10_000;
+
+    private static final System.Logger LOG = System.getLogger(OrderHttpServer.class.getName());
+    private static final String JSON = "application/json; charset=utf-8";
+
+    /** Menu sérialisé, daté par la taille du menu au moment de la sérialisation. */
+    private static final class CachedMenu {
+        final int menuSize;
+        final byte[] body;
+
+        CachedMenu(int menuSize, byte[] body) {
+            this.menuSize = menuSize;
+            this.body = body;
+        }
+    }
+
+    /** Code HTTP et corps JSON d'une réponse. */
+    private static final class Response {
+        final int status;
+        final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /** Erreur de requête : renvoyée au client avec son code HTTP. */
+    private static final class RequestException extends RuntimeException {
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final Bar bar;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile CachedMenu menuCache;
+
+    // Commandes chez un bartender (en file ou en préparation)
+    private final Map<String, Order> activeOrders = new ConcurrentHashMap<>();
+    // Passées mais pas encore soumises
+    private final Map<String, Order> placedOrders = boundedMap();
+    // Terminées, échouées ou refusées
+    private final Map<String, Order> finishedOrders = boundedMap();
+
+    private final OrderListener tracker = new OrderListener() {
+        @Override
+        public void onQueued(Order order) {
+            activeOrders.put(order.getId(), order);
+        }
+
+        @Override
+        public void onCompleted(Order order) {
+            finished(order);
+        }
+
+        @Override
+        public void onFailed(Order order) {
+            finished(order);
+        }
+
+        @Override
+        public void onCancelled(Order order) {
+            finished(order);
+        }
+    };
+
+    /** Serveur sur {@code port} (0 : port libre choisi par le système), démarré. */
+    public static OrderHttpServer start(Bar bar, int port) throws IOException {
+        return start(bar, new InetSocketAddress(port));
+    }
+
+    public static OrderHttpServer start(Bar bar, InetSocketAddress address) throws IOException {
+        OrderHttpServer server = new OrderHttpServer(bar, address);
+        server.server.start();
+        return server;
+    }
+
+    private OrderHttpServer(Bar bar, InetSocketAddress address) throws IOException {
+        this.bar = bar;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/menu", this::handleMenu);
+        server.createContext("/orders", this::handleOrders);
+        bar.addOrderListener(tracker);
+    }
+
+    /** Port effectivement écouté. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Arrête le serveur ; les requêtes en cours disposent d'une seconde pour se terminer. */
+    @Override
+    public void close() {
+        bar.removeOrderListener(tracker);
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    // ===== Menu =====
+
+    private void handleMenu(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            requireMethod(exchange, "GET");
+            return switch (exchange.getRequestURI().getPath()) {
+                case "/menu", "/menu/" -> new Response(200, menuBody());
+                case "/menu/availability" -> new Response(200, availabilityBody());
+                default -> throw new RequestException(404, "route inconnue");
+            };
+        });
+    }
+
+    private byte[] menuBody() {
+        int size = bar.getMenuSize();
+        CachedMenu cached = menuCache;
+        if (cached == null || cached.menuSize != size) {
+            // Deux requêtes concurrentes peuvent sérialiser chacune : le résultat est le même
+            List<Cocktail> menu = bar.getMenu();
+            cached = new CachedMenu(menu.size(), writeMenu(menu));
+            menuCache = cached;
+        }
+        return cached.body;
+    }
+
+    private static byte[] writeMenu(List<Cocktail> menu) {
+        JsonOutput json = new JsonOutput().beginArray();
+        for (Cocktail cocktail : menu) {
+            json.beginObject()
+                    .name("name").value(cocktail.getName())
+                    .name("price").value(cocktail.getBasePrice())
+                    .name("recipe").beginObject();
+            for (Map.Entry<Ingredient, Integer> e : cocktail.getRecipe().entrySet()) {
+                json.name(e.getKey().getName()).value(e.getValue());
+            }
+            json.endObject().endObject();
+        }
+        return json.endArray().toBytes();
+    }
+
+    private byte[] availabilityBody() {
+        JsonOutput json = new JsonOutput().beginObject();
+        for (Cocktail cocktail : bar.getMenu()) {
+            json.name(cocktail.getName()).value(bar.getMakeableCount(cocktail));
+        }
+        return json.endObject().toBytes();
+    }
+
+    // ===== Commandes =====
+
+    private void handleOrders(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // "", "orders", id, action
+            if (path.length == 2) {
+                requireMethod(exchange, "POST");
+                return placeOrder(readObject(exchange));
+            }
+            if (path.length == 3) {
+                requireMethod(exchange, "GET");
+                return new Response(200, writeOrder(lookup(path[2]), null));
+            }
+            if (path.length == 4 && path[3].equals("submit")) {
+                requireMethod(exchange, "POST");
+                return submit(path[2]);
+            }
+            if (path.length == 4 && path[3].equals("cancel")) {
+                requireMethod(exchange, "POST");
+                return cancel(path[2]);
+            }
+            throw new RequestException(404, "route inconnue");
+        });
+    }
+
+    private Response placeOrder(Map<String, Object> request) {
+        if (!(request.get("client") instanceof String clientName) || clientName.isBlank()) {
+            throw new RequestException(400, "champ 'client' attendu");
+        }
+        if (!(request.get("cocktails") instanceof List<?> names) || names.isEmpty()) {
+            throw new RequestException(400, "champ 'cocktails' attendu");
+        }
+        List<String> cocktailNames = new ArrayList<>(names.size());
+        for (Object name : names) {
+            if (!(name instanceof String s)) throw new RequestException(400, "nom de cocktail invalide");
+            cocktailNames.add(s);
+        }
+        Order order = bar.placeOrder(new Client(clientName.trim()), cocktailNames)
+                .orElseThrow(() -> new RequestException(400, "cocktail absent du menu"));
+        if (request.get("priority") instanceof String priority) {
+            try {
+                order.setPriority(Order.Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new RequestException(400, "priorité inconnue '" + priority + "'");
+            }
+        }
+        if (request.get("targetServeAtMs") instanceof Number target) {
+            order.setTargetServeAtMs(target.longValue());
+        }
+
+        if (Boolean.FALSE.equals(request.get("submit"))) {
+            synchronized (placedOrders) {
+                placedOrders.put(order.getId(), order);
+            }
+            return new Response(201, writeOrder(order, null));
+        }
+        return submit(order);
+    }
+
+    private Response submit(String id) {
+        Order order;
+        synchronized (placedOrders) {
+            order = placedOrders.remove(id);
+        }
+        if (order == null) {
+            if (activeOrders.containsKey(id) || finishedOrder(id) != null) {
+                throw new RequestException(409, "commande déjà soumise");
+            }
+            throw new RequestException(404, "commande inconnue");
+        }
+        return submit(order);
+    }
+
+    private Response submit(Order order) {
+        SubmissionResult result = bar.submit(order);
+        if (!result.isAccepted()) finished(order);
+        return new Response(result.isAccepted() ? 201 : 409, writeOrder(order, result));
+    }
+
+    private Response cancel(String id) {
+        Order placed;
+        synchronized (placedOrders) {
+            placed = placedOrders.remove(id);
+        }
+        if (placed != null) {
+            // Jamais soumise : rien n'est réservé au bar
+            placed.setStatus(Order.OrderStatus.CANCELLED);
+            finished(placed);
+            return new Response(200, writeOrder(placed, null));
+        }
+        Order order = lookup(id);
+        if (!bar.cancelOrder(order)) {
+            throw new RequestException(409, "commande déjà terminée");
+        }
+        return new Response(200, writeOrder(order, null));
+    }
+
+    private Order lookup(String id) {
+        Order order = activeOrders.get(id);
+        if (order != null) return order;
+        order = finishedOrder(id);
+        if (order != null) return order;
+        synchronized (placedOrders) {
+            order = placedOrders.get(id);
+        }
+        if (order == null) throw new RequestException(404, "commande inconnue");
+        return order;
+    }
+
+    private Order finishedOrder(String id) {
+        synchronized (finishedOrders) {
+            return finishedOrders.get(id);
+        }
+    }
+
+    private void finished(Order order) {
+        activeOrders.remove(order.getId());
+        synchronized (finishedOrders) {
+            finishedOrders.put(order.getId(), order);
+        }
+    }
+
+    private byte[] writeOrder(Order order, SubmissionResult result) {
+        boolean placed;
+        synchronized (placedOrders) {
+            placed = placedOrders.get(order.getId()) == order;
+        }
+        JsonOutput json = new JsonOutput().beginObject()
+                .name("id").value(order.getId())
+                .name("client").value(order.getClient().getName())
+                .name("status").value(placed ? "PLACED" : order.getStatus().name())
+                .name("priority").value(order.getPriority().name())
+                .name("progress").value(order.getProgress())
+                .name("total").value(order.calculateTotal())
+                .name("cocktails").beginArray();
+        for (Cocktail cocktail : order.getCocktails()) {
+            json.value(cocktail.getName());
+        }
+        json.endArray();
+        if (result != null) {
+            json.name("accepted").value(result.isAccepted())
+                    .name("reason").value(result.getStatus().name())
+                    .name("estimatedWaitMs").value(result.getEstimatedWaitMs());
+        }
+        Optional<OrderEta> eta = placed ? Optional.empty() : bar.estimate(order);
+        if (eta.isPresent()) {
+            long now = bar.getClock().millis();
+            json.name("eta").beginObject()
+                    .name("ordersAhead").value(eta.get().getOrdersAhead())
+                    .name("waitMs").value(eta.get().getWaitMs(now))
+                    .name("remainingMs").value(eta.get().getRemainingMs(now))
+                    .endObject();
+        }
+        return json.endObject().toBytes();
+    }
+
+    // ===== Échanges =====
+
+    private interface Handler {
+        Response respond() throws IOException;
+    }
+
+    /** Envoie la réponse produite, ou l'erreur en JSON ({@code {"error": "..."}}). */
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.respond();
+        } catch (RequestException e) {
+            response = error(e.status, e.getMessage());
+        } catch (IOException e) {
+            // JSON illisible
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // Le détail reste dans le journal du serveur, pas chez les tablettes
+            LOG.log(System.Logger.Level.ERROR, "Erreur sur " + exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+            response = error(500, "erreur interne");
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(response.status, response.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body);
+        }
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new JsonOutput().beginObject()
+                .name("error").value(message)
+                .endObject().toBytes());
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new RequestException(405, "méthode " + method + " attendue");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readObject(HttpExchange exchange) throws IOException {
+        JsonReader json = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        Object value = json.readValue();
+        json.endDocument();
+        if (!(value instanceof Map)) throw new RequestException(400, "objet JSON attendu");
+        return (Map<String, Object>) value;
+    }
+
+    private static <V> Map<String, V> boundedMap() {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > RETAINED_ORDERS;
+            }
+        };
+    }
+
+    // ===== Lancement autonome =====
+
+    /** {@code OrderHttpServer [port]} : bar de démonstration servi en HTTP (port 8080 par défaut). */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Bar bar = new Bar(Bar.ExecutionMode.VIRTUAL);
+        DemoCatalog.populate(bar);
+        OrderHttpServer server = start(bar, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            bar.shutdown();
+        }));
+        System.out.println("Prise de commande HTTP sur le port " + server.getPort());
+    }
+}
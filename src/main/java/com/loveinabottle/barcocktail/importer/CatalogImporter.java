@@ -0,0 +1,267 @@
+package com.loveinabottle.barcocktail.importer;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Import en masse d'ingrédients puis de cocktails dans un {@link Bar}.
+ * Le format dépend de l'extension du fichier.
+ *
+ * <pre>
+ * .csv            ingrédients : nom,volumeParUnité,alcool,stock
+ *                 cocktails   : nom,prix,Ingrédient A:2|Ingrédient B:1
+ * .jsonl, .ndjson un objet par ligne
+ * .json           un tableau d'objets
+ *
+ * ingrédient JSON : {"name": "Rhum", "volumePerUnit": 50, "alcoholic": true, "stock": 20}
+ * cocktail JSON   : {"name": "Mojito", "price": 8.5, "recipe": {"Rhum": 2, "Menthe": 2}}
+ * </pre>
+ *
+ * Le fichier n'est lu qu'une fois et jamais chargé en entier. Les CSV et JSON
+ * par ligne sont découpés en tranches lues en parallèle ; un tableau JSON est
+ * lu séquentiellement, élément par élément. Les ingrédients des recettes sont
+ * résolus par un index des noms normalisés. Les ingrédients doivent être
+ * importés avant les cocktails qui les utilisent ; l'ordre des entrées dans le
+ * menu n'est pas garanti en lecture parallèle.
+ */
+public class CatalogImporter {
+    private static final int MAX_LINE_IN_ERROR = 80;
+
+    private enum Format { CSV, JSON_LINES, JSON }
+
+    private interface Entry {
+        void fromCsv(List<String> fields, ImportReport report);
+        void fromJson(Map<String, Object> object, ImportReport report);
+    }
+
+    private final Bar bar;
+    private final int parallelism;
+    private final long chunkSize;
+    private final Map<String, Ingredient> ingredientIndex = new ConcurrentHashMap<>();
+    private final Set<String> cocktailKeys = ConcurrentHashMap.newKeySet();
+
+    public CatalogImporter(Bar bar) {
+        this(bar, Runtime.getRuntime().availableProcessors(), LineChunks.DEFAULT_CHUNK_SIZE);
+    }
+
+    public CatalogImporter(Bar bar, int parallelism, long chunkSize) {
+        this.bar = bar;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            ingredientIndex.put(Catalog.normalize(ingredient.getName()), ingredient);
+        }
+        for (Cocktail cocktail : bar.getMenu()) {
+            cocktailKeys.add(Catalog.normalize(cocktail.getName()));
+        }
+    }
+
+    public ImportReport importIngredients(Path file) throws IOException {
+        return importFile(file, new Entry() {
+            @Override
+            public void fromCsv(List<String> fields, ImportReport report) {
+                if (fields.size() < 4) throw new IllegalArgumentException("4 colonnes attendues");
+                addIngredient(fields.get(0), Double.parseDouble(fields.get(1)), parseBoolean(fields.get(2)),
+                        Integer.parseInt(fields.get(3)), report);
+            }
+
+            @Override
+            public void fromJson(Map<String, Object> object, ImportReport report) {
+                addIngredient(string(object, "name"), number(object, "volumePerUnit").doubleValue(),
+                        Boolean.TRUE.equals(object.get("alcoholic")), number(object, "stock").intValue(), report);
+            }
+        });
+    }
+
+    public ImportReport importCocktails(Path file) throws IOException {
+        return importFile(file, new Entry() {
+            @Override
+            public void fromCsv(List<String> fields, ImportReport report) {
+                if (fields.size() < 3) throw new IllegalArgumentException("3 colonnes attendues");
+                Map<String, Integer> recipe = new LinkedHashMap<>();
+                for (String part : fields.get(2).split("\\|")) {
+                    int colon = part.lastIndexOf(':');
+                    if (colon < 0) throw new IllegalArgumentException("quantité manquante pour '" + part.trim() + "'");
+                    recipe.merge(part.substring(0, colon).trim(), Integer.parseInt(part.substring(colon + 1).trim()),
+                            Integer::sum);
+                }
+                addCocktail(fields.get(0), Double.parseDouble(fields.get(1)), recipe, report);
+            }
+
+            @Override
+            public void fromJson(Map<String, Object> object, ImportReport report) {
+                if (!(object.get("recipe") instanceof Map<?, ?> entries)) {
+                    throw new IllegalArgumentException("champ 'recipe' attendu");
+                }
+                Map<String, Integer> recipe = new LinkedHashMap<>();
+                entries.forEach((name, quantity) -> {
+                    if (!(quantity instanceof Number n)) throw new IllegalArgumentException("quantité invalide");
+                    recipe.merge(String.valueOf(name), n.intValue(), Integer::sum);
+                });
+                addCocktail(string(object, "name"), number(object, "price").doubleValue(), recipe, report);
+            }
+        });
+    }
+
+    // ===== Ajout au bar (plusieurs threads) =====
+
+    private void addIngredient(String name, double volumePerUnit, boolean alcoholic, int stock, ImportReport report) {
+        if (name.isBlank()) throw new IllegalArgumentException("nom vide");
+        Ingredient ingredient = new Ingredient(name.trim(), volumePerUnit, alcoholic, stock);
+        if (ingredientIndex.putIfAbsent(Catalog.normalize(ingredient.getName()), ingredient) != null) {
+            report.duplicate();
+            return;
+        }
+        bar.addIngredient(ingredient);
+        report.imported();
+    }
+
+    private void addCocktail(String name, double price, Map<String, Integer> recipeByName, ImportReport report) {
+        if (name.isBlank()) throw new IllegalArgumentException("nom vide");
+        Map<Ingredient, Integer> recipe = new HashMap<>();
+        for (Map.Entry<String, Integer> e : recipeByName.entrySet()) {
+            Ingredient ingredient = ingredientIndex.get(Catalog.normalize(e.getKey()));
+            if (ingredient == null) throw new IllegalArgumentException("ingrédient inconnu '" + e.getKey() + "'");
+            if (e.getValue() <= 0) throw new IllegalArgumentException("quantité invalide pour '" + e.getKey() + "'");
+            recipe.merge(ingredient, e.getValue(), Integer::sum);
+        }
+        if (!cocktailKeys.add(Catalog.normalize(name))) {
+            report.duplicate();
+            return;
+        }
+        bar.addCocktailToMenu(new Cocktail(name.trim(), recipe, price));
+        report.imported();
+    }
+
+    // ===== Lecture =====
+
+    private ImportReport importFile(Path file, Entry entry) throws IOException {
+        ImportReport report = new ImportReport(file.getFileName().toString());
+        long start = System.nanoTime();
+        Format format = formatOf(file);
+        if (format == Format.JSON) {
+            readJsonArray(file, entry, report);
+        } else {
+            LineChunks.forEachLine(file, parallelism, chunkSize, (line, firstOfFile) -> {
+                if (line.isBlank() || line.startsWith("#")) return;
+                if (format == Format.CSV) {
+                    List<String> fields = splitCsv(line);
+                    if (firstOfFile && isHeader(fields)) return;
+                    apply(report, line, () -> entry.fromCsv(fields, report));
+                } else {
+                    apply(report, line, () -> entry.fromJson(parseObject(line), report));
+                }
+            });
+        }
+        report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    private void readJsonArray(Path file, Entry entry, ImportReport report) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            JsonReader json = new JsonReader(in);
+            json.beginArray();
+            while (json.hasNextElement()) {
+                Object value = json.readValue();
+                apply(report, value, () -> entry.fromJson(asObject(value), report));
+            }
+            json.endDocument();
+        }
+    }
+
+    /** Une entrée invalide est comptée et rejetée sans interrompre l'import. */
+    private static void apply(ImportReport report, Object entry, Runnable action) {
+        report.record();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            String source = String.valueOf(entry);
+            String excerpt = source.length() > MAX_LINE_IN_ERROR ? source.substring(0, MAX_LINE_IN_ERROR) + "…" : source;
+            report.rejected(e.getMessage() + " : " + excerpt);
+        }
+    }
+
+    private static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return Format.CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return Format.JSON_LINES;
+        if (name.endsWith(".json")) return Format.JSON;
+        throw new IllegalArgumentException("Format non reconnu (csv, json, jsonl): " + file);
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        String first = fields.get(0).trim();
+        return first.equalsIgnoreCase("name") || first.equalsIgnoreCase("nom");
+    }
+
+    /** Découpe une ligne CSV ; un champ entre guillemets peut contenir des virgules ({@code ""} pour un guillemet). */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static Map<String, Object> parseObject(String line) {
+        try {
+            JsonReader json = new JsonReader(new StringReader(line));
+            Object value = json.readValue();
+            json.endDocument();
+            return asObject(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        if (!(value instanceof Map)) throw new IllegalArgumentException("objet JSON attendu");
+        return (Map<String, Object>) value;
+    }
+
+    private static String string(Map<String, Object> object, String field) {
+        if (!(object.get(field) instanceof String s)) throw new IllegalArgumentException("champ '" + field + "' attendu");
+        return s;
+    }
+
+    private static Number number(Map<String, Object> object, String field) {
+        if (!(object.get(field) instanceof Number n)) throw new IllegalArgumentException("champ '" + field + "' attendu");
+        return n;
+    }
+
+    private static boolean parseBoolean(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "oui", "yes", "o", "y" -> true;
+            case "false", "0", "non", "no", "n", "" -> false;
+            default -> throw new IllegalArgumentException("booléen invalide '" + value + "'");
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.loveinabottle.barcocktail.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Bilan d'un import : lignes lues, entrées ajoutées, doublons et lignes rejetées. */
+public class ImportReport {
+    private static final int MAX_ERRORS_KEPT = 20;
+
+    private final String source;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger errorsKept = new AtomicInteger();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile long elapsedMs;
+
+    ImportReport(String source) {
+        this.source = source;
+    }
+
+    // Alimenté par les lecteurs, depuis plusieurs threads
+    void record() { records.incrementAndGet(); }
+    void imported() { imported.incrementAndGet(); }
+    void duplicate() { duplicates.incrementAndGet(); }
+
+    void rejected(String reason) {
+        rejected.incrementAndGet();
+        if (errorsKept.incrementAndGet() <= MAX_ERRORS_KEPT) errors.add(reason);
+    }
+
+    void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public String getSource() { return source; }
+    public long getRecords() { return records.get(); }
+    public long getImported() { return imported.get(); }
+    public long getDuplicates() { return duplicates.get(); }
+    public long getRejected() { return rejected.get(); }
+    public long getElapsedMs() { return elapsedMs; }
+
+    /** Les premières erreurs rencontrées (au plus {@value #MAX_ERRORS_KEPT}). */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Import ").append(source).append(" : ")
+          .append(getRecords()).append(" entrées lues, ")
+          .append(getImported()).append(" ajoutées, ")
+          .append(getDuplicates()).append(" doublons, ")
+          .append(getRejected()).append(" rejetées en ")
+          .append(elapsedMs).append(" ms");
+        for (String error : getErrors()) {
+            sb.append("\n  - ").append(error);
+        }
+        return sb.toString();
+    }
+}
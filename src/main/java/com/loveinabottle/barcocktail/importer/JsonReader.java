@@ -0,0 +1,197 @@
+package com.loveinabottle.barcocktail.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecteur JSON minimal, sans dépendance, qui lit un tableau élément par
+ * élément : seul l'objet courant est en mémoire.
+ * Objets en {@code Map}, tableaux en {@code List}, nombres en {@code Double}.
+ * Sert aussi à lire les requêtes du serveur HTTP.
+ */
+public final class JsonReader {
+    private final Reader in;
+    private int peeked = -2; // -2 : rien de lu d'avance
+    private long offset;
+    private boolean firstElement; // rien encore lu dans le dernier tableau ouvert
+
+    public JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Consomme le {@code [} d'ouverture d'un tableau. */
+    public void beginArray() throws IOException {
+        expect('[');
+        firstElement = true;
+    }
+
+    /** Vrai s'il reste un élément dans le tableau ouvert ; consomme les virgules et le {@code ]}. */
+    public boolean hasNextElement() throws IOException {
+        boolean first = firstElement;
+        firstElement = false;
+        int c = skipWhitespace();
+        if (c == ']') {
+            next();
+            return false;
+        }
+        if (c == -1) throw error("tableau non terminé");
+        if (!first) {
+            if (c != ',') throw error("',' ou ']' attendu");
+            next();
+            if (skipWhitespace() == -1) throw error("tableau non terminé");
+        }
+        return true;
+    }
+
+    public Object readValue() throws IOException {
+        int c = skipWhitespace();
+        switch (c) {
+            case '{' -> {
+                return readObject();
+            }
+            case '[' -> {
+                return readArray();
+            }
+            case '"' -> {
+                return readString();
+            }
+            case 't' -> {
+                literal("true");
+                return Boolean.TRUE;
+            }
+            case 'f' -> {
+                literal("false");
+                return Boolean.FALSE;
+            }
+            case 'n' -> {
+                literal("null");
+                return null;
+            }
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+                throw error(c == -1 ? "fin de fichier inattendue" : "caractère inattendu '" + (char) c + "'");
+            }
+        }
+    }
+
+    /** Vérifie qu'il ne reste que des blancs après la valeur de premier niveau. */
+    public void endDocument() throws IOException {
+        int c = skipWhitespace();
+        if (c != -1) throw error("texte inattendu après la valeur '" + (char) c + "'");
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        expect('{');
+        Map<String, Object> object = new LinkedHashMap<>();
+        if (skipWhitespace() == '}') {
+            next();
+            return object;
+        }
+        while (true) {
+            if (skipWhitespace() != '"') throw error("nom de champ attendu");
+            String key = readString();
+            expect(':');
+            object.put(key, readValue());
+            int c = skipWhitespace();
+            next();
+            if (c == '}') return object;
+            if (c != ',') throw error("',' ou '}' attendu");
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        beginArray();
+        List<Object> array = new ArrayList<>();
+        while (hasNextElement()) {
+            array.add(readValue());
+        }
+        return array;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = next();
+            if (c == -1) throw error("texte non terminé");
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            int escaped = next();
+            switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) hex[i] = (char) next();
+                    try {
+                        sb.append((char) Integer.parseInt(new String(hex), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("échappement \\u invalide");
+                    }
+                }
+                case -1 -> throw error("texte non terminé");
+                default -> sb.append((char) escaped); // \" \\ \/
+            }
+        }
+    }
+
+    private Double readNumber() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c = peek();
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            sb.append((char) next());
+            c = peek();
+        }
+        try {
+            return Double.valueOf(sb.toString());
+        } catch (NumberFormatException e) {
+            throw error("nombre invalide '" + sb + "'");
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (next() != word.charAt(i)) throw error(word + " attendu");
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (skipWhitespace() != expected) throw error("'" + expected + "' attendu");
+        next();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\uFEFF') {
+            next();
+            c = peek();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) peeked = in.read();
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        peeked = -2;
+        if (c != -1) offset++;
+        return c;
+    }
+
+    private IOException error(String message) {
+        return new IOException("JSON invalide (caractère " + offset + "): " + message);
+    }
+}
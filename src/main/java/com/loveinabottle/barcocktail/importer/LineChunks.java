@@ -0,0 +1,128 @@
+package com.loveinabottle.barcocktail.importer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Découpe un fichier texte en tranches d'octets alignées sur les fins de ligne
+ * et les lit en parallèle. Chaque ligne appartient à la tranche où elle
+ * commence ; une tranche lit donc au-delà de sa fin pour terminer sa dernière
+ * ligne. La mémoire reste bornée par le nombre de lecteurs et la taille de leur tampon,
+ * quelle que soit la taille du fichier.
+ */
+final class LineChunks {
+    static final long DEFAULT_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final int READ_BUFFER = 64 * 1024;
+
+    /** Reçoit une ligne ; {@code firstOfFile} permet de reconnaître un en-tête. */
+    interface LineHandler {
+        void line(String text, boolean firstOfFile);
+    }
+
+    private LineChunks() {
+    }
+
+    /**
+     * Passe chaque ligne non vide (sans fin de ligne ni BOM) au gestionnaire,
+     * depuis plusieurs threads ; l'ordre entre tranches n'est pas garanti.
+     * @return le nombre de lignes lues
+     */
+    static long forEachLine(Path file, int parallelism, long chunkSize, LineHandler handler)
+            throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+        }
+        List<Callable<Long>> chunks = new ArrayList<>();
+        for (long start = 0; start < size; start += chunkSize) {
+            long from = start;
+            long to = Math.min(size, start + chunkSize);
+            chunks.add(() -> readChunk(file, from, to, handler));
+        }
+        if (chunks.size() <= 1 || parallelism <= 1) {
+            long lines = 0;
+            for (Callable<Long> chunk : chunks) lines += call(chunk);
+            return lines;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+        try {
+            long lines = 0;
+            for (Future<Long> result : pool.invokeAll(chunks)) {
+                lines += result.get();
+            }
+            return lines;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long call(Callable<Long> chunk) throws IOException {
+        try {
+            return chunk.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static long readChunk(Path file, long from, long to, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // On démarre un octet avant la tranche : si c'est une fin de ligne, la première ligne nous appartient
+            long position = Math.max(0, from - 1);
+            channel.position(position);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER);
+
+            if (from > 0) {
+                int b;
+                while ((b = in.read()) != -1) {
+                    position++;
+                    if (b == '\n') break;
+                }
+            }
+
+            long lines = 0;
+            byte[] line = new byte[256];
+            while (position < to) {
+                int length = 0;
+                int b;
+                while ((b = in.read()) != -1 && b != '\n') {
+                    if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                    line[length++] = (byte) b;
+                }
+                position += length + (b == '\n' ? 1 : 0);
+                if (length > 0 && line[length - 1] == '\r') length--;
+                int offset = 0;
+                if (lines == 0 && from == 0 && length >= 3
+                        && (line[0] & 0xFF) == 0xEF && (line[1] & 0xFF) == 0xBB && (line[2] & 0xFF) == 0xBF) {
+                    offset = 3; // BOM UTF-8
+                }
+                if (length > offset) {
+                    handler.line(new String(line, offset, length - offset, StandardCharsets.UTF_8),
+                            from == 0 && lines == 0);
+                }
+                lines++;
+                if (b == -1) break;
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.loveinabottle.barcocktail.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Fichier de journal de taille fixe, projeté en mémoire, où les
+ * enregistrements sont seulement ajoutés à la suite.
+ *
+ * <pre>
+ * en-tête : int MAGIC, int VERSION
+ * enregistrement : int longueur, byte type, contenu, int CRC32C(type + contenu)
+ * </pre>
+ *
+ * Une longueur nulle marque la fin ; un enregistrement tronqué ou dont le CRC
+ * est faux (arrêt brutal en pleine écriture) termine la lecture.
+ */
+final class JournalSegment implements AutoCloseable {
+    static final int MAGIC = 0x4241524A; // "BARJ"
+    static final int VERSION = 3; // 2 : réservation dans SUBMITTED ; 3 : bartenders par identifiant
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 9; // longueur + type + CRC
+
+    /** Reçoit chaque enregistrement valide ; le contenu est positionné sur les données. */
+    interface RecordVisitor {
+        void visit(byte type, ByteBuffer payload);
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C(); // écriture seulement : la lecture peut être concurrente
+    private int position;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, int position) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    /** Crée (ou écrase) un segment vide de {@code capacity} octets. */
+    static JournalSegment create(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        return new JournalSegment(path, channel, buffer, HEADER_SIZE);
+    }
+
+    /** Ouvre un segment existant en lecture ; null si l'en-tête n'est pas reconnu. */
+    static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            channel.close();
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            return null;
+        }
+        JournalSegment segment = new JournalSegment(path, channel, buffer, HEADER_SIZE);
+        segment.position = segment.scan(null);
+        return segment;
+    }
+
+    Path getPath() { return path; }
+    int getCapacity() { return buffer.capacity(); }
+    int getPosition() { return position; }
+
+    /**
+     * Ajoute un enregistrement ({@code payload} lu de sa position à sa limite).
+     * @return false s'il ne tient plus dans le segment
+     */
+    boolean append(byte type, ByteBuffer payload) {
+        int length = 1 + payload.remaining();
+        if (position + 4 + length + 4 > buffer.capacity()) return false;
+
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.duplicate());
+
+        buffer.putInt(position + 4 + length, (int) crc.getValue());
+        buffer.put(position + 5, payload, payload.position(), payload.remaining());
+        buffer.put(position + 4, type);
+        // La longueur en dernier : un lecteur ne voit jamais un enregistrement à moitié écrit
+        buffer.putInt(position, length);
+        position += 4 + length + 4;
+        return true;
+    }
+
+    /** Relit les enregistrements valides dans l'ordre ; retourne la position de fin. */
+    int scan(RecordVisitor visitor) {
+        return scan(HEADER_SIZE, buffer.capacity(), visitor);
+    }
+
+    /**
+     * Relit les enregistrements valides entre {@code from} (début d'un
+     * enregistrement) et {@code to}. Sans verrou pendant les ajouts, tant que
+     * {@code to} ne dépasse pas une position déjà écrite.
+     * @return la position atteinte
+     */
+    int scan(int from, int to, RecordVisitor visitor) {
+        CRC32C check = new CRC32C();
+        int pos = from;
+        int limit = Math.min(to, buffer.capacity());
+        while (pos + 4 <= limit) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || (long) pos + 4 + length + 4 > limit) break;
+            ByteBuffer record = buffer.slice(pos + 4, length);
+            check.reset();
+            check.update(record.duplicate());
+            if ((int) check.getValue() != buffer.getInt(pos + 4 + length)) break;
+            if (visitor != null) {
+                byte type = record.get();
+                visitor.visit(type, record.slice());
+            }
+            pos += 4 + length + 4;
+        }
+        return pos;
+    }
+
+    /** Écrit sur disque les pages modifiées (appelé par lots, jamais par commande). */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,194 @@
+package com.loveinabottle.barcocktail.journal;
+
+import com.loveinabottle.barcocktail.model.Bar;
+import com.loveinabottle.barcocktail.model.Ingredient;
+import com.loveinabottle.barcocktail.model.OrderHistory;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * État du bar reconstruit en rejouant un segment : niveaux de stock, totaux
+ * de ventes et commandes admises mais pas encore terminées.
+ * Sert à la reprise au démarrage et à la compaction, qui réécrit cet état
+ * comme point de reprise en tête d'un segment neuf.
+ *
+ * <p>Les niveaux de stock tiennent compte des réservations : une commande
+ * admise retire ses unités, une commande échouée ou annulée les rend.</p>
+ */
+final class JournalState {
+
+    static final class PendingOrder {
+        final String id;
+        final String clientName;
+        final List<String> cocktailNames = new ArrayList<>();
+        final List<Double> prices = new ArrayList<>();
+        final Map<String, Integer> reserved = new LinkedHashMap<>(); // ingrédient -> unités
+        String bartenderId;
+
+        PendingOrder(String id, String clientName) {
+            this.id = id;
+            this.clientName = clientName;
+        }
+    }
+
+    private static final class CocktailRef {
+        final String name;
+        final double price;
+
+        CocktailRef(String name, double price) {
+            this.name = name;
+            this.price = price;
+        }
+    }
+
+    final Map<String, Integer> stockLevels = new LinkedHashMap<>();
+    final Map<String, Double> cocktailPrices = new HashMap<>();
+    final Map<String, OrderHistory.Totals> byCocktail = new LinkedHashMap<>();
+    final Map<String, OrderHistory.Totals> byBartender = new LinkedHashMap<>();
+    final Map<String, PendingOrder> inFlight = new LinkedHashMap<>();
+    long completedCount;
+    double totalRevenue;
+    boolean checkpointComplete;
+
+    // Dictionnaire du segment en cours de lecture
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Map<Integer, CocktailRef> cocktails = new HashMap<>();
+
+    /** Rejoue un segment ; {@link #checkpointComplete} indique si son point de reprise est entier. */
+    static JournalState read(JournalSegment segment) {
+        JournalState state = new JournalState();
+        segment.scan(state::apply);
+        return state;
+    }
+
+    /** Rejoue la suite d'un segment, de {@code from} à {@code to} ; retourne la position atteinte. */
+    int replay(JournalSegment segment, int from, int to) {
+        return segment.scan(from, to, this::apply);
+    }
+
+    /** État courant d'un bar (stock et totaux), sans commandes en cours. */
+    static JournalState capture(Bar bar) {
+        JournalState state = new JournalState();
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            state.stockLevels.put(ingredient.getName(), ingredient.getStockUnits());
+        }
+        OrderHistory history = bar.getOrderHistory();
+        state.completedCount = history.getCompletedCount();
+        state.totalRevenue = history.getTotalRevenue();
+        state.byCocktail.putAll(history.getTotalsByCocktail());
+        state.byBartender.putAll(history.getTotalsByBartender());
+        bar.getMenu().forEach(c -> state.cocktailPrices.put(c.getName(), c.getBasePrice()));
+        state.checkpointComplete = true;
+        return state;
+    }
+
+    private void apply(byte type, ByteBuffer b) {
+        switch (type) {
+            case JournalWriter.NAME -> names.put(b.getInt(), JournalWriter.getString(b));
+            case JournalWriter.COCKTAIL -> {
+                int id = b.getInt();
+                CocktailRef ref = new CocktailRef(JournalWriter.getString(b), b.getDouble());
+                cocktails.put(id, ref);
+                cocktailPrices.put(ref.name, ref.price);
+            }
+            case JournalWriter.SUBMITTED -> {
+                PendingOrder order = new PendingOrder(JournalWriter.getString(b), JournalWriter.getString(b));
+                int count = Short.toUnsignedInt(b.getShort());
+                for (int i = 0; i < count; i++) {
+                    CocktailRef ref = cocktails.get(b.getInt());
+                    order.cocktailNames.add(ref.name);
+                    order.prices.add(ref.price);
+                }
+                int reservedCount = Short.toUnsignedInt(b.getShort());
+                for (int i = 0; i < reservedCount; i++) {
+                    String ingredient = names.get(b.getInt());
+                    int units = b.getInt();
+                    order.reserved.merge(ingredient, units, Integer::sum);
+                    stockLevels.merge(ingredient, -units, Integer::sum);
+                }
+                inFlight.put(order.id, order);
+            }
+            case JournalWriter.STARTED -> {
+                PendingOrder order = inFlight.get(JournalWriter.getString(b));
+                if (order != null) order.bartenderId = names.get(b.getInt());
+            }
+            case JournalWriter.COMPLETED -> {
+                PendingOrder order = inFlight.remove(JournalWriter.getString(b));
+                if (order != null) complete(order);
+            }
+            case JournalWriter.FAILED, JournalWriter.CANCELLED -> {
+                // Réservation rendue au stock
+                PendingOrder order = inFlight.remove(JournalWriter.getString(b));
+                if (order != null) order.reserved.forEach((name, units) -> stockLevels.merge(name, units, Integer::sum));
+            }
+            case JournalWriter.HISTORY_CLEARED -> {
+                completedCount = 0;
+                totalRevenue = 0;
+                byCocktail.clear();
+                byBartender.clear();
+            }
+            case JournalWriter.STOCK -> stockLevels.merge(names.get(b.getInt()), b.getInt(), Integer::sum);
+            case JournalWriter.STOCK_LEVEL -> stockLevels.put(names.get(b.getInt()), b.getInt());
+            case JournalWriter.TOTALS -> {
+                completedCount = b.getLong();
+                totalRevenue = b.getDouble();
+            }
+            case JournalWriter.COCKTAIL_TOTALS ->
+                    byCocktail.put(cocktails.get(b.getInt()).name, new OrderHistory.Totals(b.getLong(), b.getDouble()));
+            case JournalWriter.BARTENDER_TOTALS ->
+                    byBartender.put(names.get(b.getInt()), new OrderHistory.Totals(b.getLong(), b.getDouble()));
+            case JournalWriter.CHECKPOINT_END -> checkpointComplete = true;
+            default -> {
+                // CHECKPOINT_BEGIN, ou type inconnu d'une version future : ignoré
+            }
+        }
+    }
+
+    private void complete(PendingOrder order) {
+        double total = 0;
+        for (int i = 0; i < order.cocktailNames.size(); i++) {
+            double price = order.prices.get(i);
+            total += price;
+            add(byCocktail, order.cocktailNames.get(i), price);
+        }
+        completedCount++;
+        totalRevenue += total;
+        if (order.bartenderId != null) add(byBartender, order.bartenderId, total);
+    }
+
+    private static void add(Map<String, OrderHistory.Totals> totals, String name, double revenue) {
+        OrderHistory.Totals t = totals.getOrDefault(name, new OrderHistory.Totals(0, 0));
+        totals.put(name, new OrderHistory.Totals(t.getCount() + 1, t.getRevenue() + revenue));
+    }
+
+    /** Réécrit cet état comme point de reprise ; false si le segment est trop petit. */
+    boolean writeCheckpoint(JournalWriter writer, long timeMillis) {
+        if (!writer.checkpointBegin(timeMillis)) return false;
+        // Niveaux avant les réservations des commandes en cours : leurs SUBMITTED, plus bas, les retirent
+        Map<String, Integer> levels = new LinkedHashMap<>(stockLevels);
+        for (PendingOrder order : inFlight.values()) {
+            order.reserved.forEach((name, units) -> levels.merge(name, units, Integer::sum));
+        }
+        for (Map.Entry<String, Integer> e : levels.entrySet()) {
+            if (!writer.stockLevel(e.getKey(), e.getValue())) return false;
+        }
+        if (!writer.totals(completedCount, totalRevenue)) return false;
+        for (Map.Entry<String, OrderHistory.Totals> e : byCocktail.entrySet()) {
+            double price = cocktailPrices.getOrDefault(e.getKey(), 0.0);
+            if (!writer.cocktailTotals(e.getKey(), price, e.getValue().getCount(), e.getValue().getRevenue())) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, OrderHistory.Totals> e : byBartender.entrySet()) {
+            if (!writer.bartenderTotals(e.getKey(), e.getValue().getCount(), e.getValue().getRevenue())) return false;
+        }
+        for (PendingOrder order : inFlight.values()) {
+            if (!writer.submitted(order.id, order.clientName, order.cocktailNames, order.prices, order.reserved)) {
+                return false;
+            }
+            if (order.bartenderId != null && !writer.started(order.id, order.bartenderId)) return false;
+        }
+        return writer.checkpointEnd();
+    }
+}
@@ -0,0 +1,224 @@
+package com.loveinabottle.barcocktail.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encode les enregistrements binaires dans un segment.
+ * Les noms (ingrédients, cocktails, identifiants de bartender) sont écrits une seule fois par
+ * segment puis désignés par un entier. Chaque méthode retourne false si le
+ * segment est plein ; l'appelant compacte puis recommence sur un segment neuf.
+ * Non thread-safe : {@link OrderJournal} sérialise les appels.
+ */
+final class JournalWriter {
+    // Dictionnaire
+    static final byte NAME = 1;
+    static final byte COCKTAIL = 2;
+    // Cycle de vie des commandes
+    static final byte SUBMITTED = 3;
+    static final byte STARTED = 4;
+    static final byte COMPLETED = 5;
+    static final byte FAILED = 6;
+    static final byte CANCELLED = 8;
+    // Clôture de caisse : totaux remis à zéro
+    static final byte HISTORY_CLEARED = 9;
+    // Stock (hors réservations, portées par SUBMITTED)
+    static final byte STOCK = 7;
+    // Point de reprise (compaction)
+    static final byte CHECKPOINT_BEGIN = 10;
+    static final byte STOCK_LEVEL = 11;
+    static final byte TOTALS = 12;
+    static final byte COCKTAIL_TOTALS = 13;
+    static final byte BARTENDER_TOTALS = 14;
+    static final byte CHECKPOINT_END = 15;
+
+    private final JournalSegment segment;
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final Map<String, Integer> cocktailIds = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    JournalWriter(JournalSegment segment) {
+        this.segment = segment;
+    }
+
+    JournalSegment getSegment() {
+        return segment;
+    }
+
+    // ===== Dictionnaire =====
+
+    /** Identifiant du nom dans ce segment, ou -1 si le segment est plein. */
+    int nameId(String name) {
+        Integer id = nameIds.get(name);
+        if (id != null) return id;
+        int newId = nameIds.size() + cocktailIds.size();
+        ByteBuffer b = begin(6 + utf8Length(name));
+        b.putInt(newId);
+        putString(b, name);
+        if (!append(NAME)) return -1;
+        nameIds.put(name, newId);
+        return newId;
+    }
+
+    int cocktailId(String name, double price) {
+        Integer id = cocktailIds.get(name);
+        if (id != null) return id;
+        int newId = nameIds.size() + cocktailIds.size();
+        ByteBuffer b = begin(14 + utf8Length(name));
+        b.putInt(newId);
+        putString(b, name);
+        b.putDouble(price);
+        if (!append(COCKTAIL)) return -1;
+        cocktailIds.put(name, newId);
+        return newId;
+    }
+
+    // ===== Commandes =====
+
+    /**
+     * Commande admise et unités réservées pour elle, en un seul enregistrement :
+     * un arrêt brutal ne peut pas séparer la réservation de la commande.
+     */
+    boolean submitted(String orderId, String clientName, List<String> cocktailNames, List<Double> prices,
+                      Map<String, Integer> reserved) {
+        int[] ids = new int[cocktailNames.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cocktailId(cocktailNames.get(i), prices.get(i));
+            if (ids[i] < 0) return false;
+        }
+        int[] ingredients = new int[reserved.size()];
+        int[] units = new int[reserved.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> e : reserved.entrySet()) {
+            ingredients[n] = nameId(e.getKey());
+            if (ingredients[n] < 0) return false;
+            units[n++] = e.getValue();
+        }
+        ByteBuffer b = begin(8 + utf8Length(orderId) + utf8Length(clientName) + 4 * ids.length + 8 * n);
+        putString(b, orderId);
+        putString(b, clientName);
+        b.putShort((short) ids.length);
+        for (int id : ids) b.putInt(id);
+        b.putShort((short) n);
+        for (int i = 0; i < n; i++) {
+            b.putInt(ingredients[i]);
+            b.putInt(units[i]);
+        }
+        return append(SUBMITTED);
+    }
+
+    boolean started(String orderId, String bartenderId) {
+        int bartender = nameId(bartenderId);
+        if (bartender < 0) return false;
+        ByteBuffer b = begin(6 + utf8Length(orderId));
+        putString(b, orderId);
+        b.putInt(bartender);
+        return append(STARTED);
+    }
+
+    boolean finished(String orderId, boolean completed) {
+        ByteBuffer b = begin(2 + utf8Length(orderId));
+        putString(b, orderId);
+        return append(completed ? COMPLETED : FAILED);
+    }
+
+    boolean cancelled(String orderId) {
+        ByteBuffer b = begin(2 + utf8Length(orderId));
+        putString(b, orderId);
+        return append(CANCELLED);
+    }
+
+    boolean historyCleared() {
+        begin(0);
+        return append(HISTORY_CLEARED);
+    }
+
+    // ===== Stock =====
+
+    boolean stock(String ingredientName, int delta) {
+        return ingredientRecord(STOCK, ingredientName, delta);
+    }
+
+    boolean stockLevel(String ingredientName, int units) {
+        return ingredientRecord(STOCK_LEVEL, ingredientName, units);
+    }
+
+    private boolean ingredientRecord(byte type, String ingredientName, int value) {
+        int ingredient = nameId(ingredientName);
+        if (ingredient < 0) return false;
+        ByteBuffer b = begin(8);
+        b.putInt(ingredient);
+        b.putInt(value);
+        return append(type);
+    }
+
+    // ===== Point de reprise =====
+
+    boolean checkpointBegin(long timeMillis) {
+        begin(8).putLong(timeMillis);
+        return append(CHECKPOINT_BEGIN);
+    }
+
+    boolean checkpointEnd() {
+        begin(0);
+        return append(CHECKPOINT_END);
+    }
+
+    boolean totals(long count, double revenue) {
+        ByteBuffer b = begin(16);
+        b.putLong(count);
+        b.putDouble(revenue);
+        return append(TOTALS);
+    }
+
+    boolean cocktailTotals(String cocktailName, double price, long count, double revenue) {
+        int id = cocktailId(cocktailName, price);
+        return id >= 0 && totalsRecord(COCKTAIL_TOTALS, id, count, revenue);
+    }
+
+    boolean bartenderTotals(String bartenderId, long count, double revenue) {
+        int id = nameId(bartenderId);
+        return id >= 0 && totalsRecord(BARTENDER_TOTALS, id, count, revenue);
+    }
+
+    private boolean totalsRecord(byte type, int id, long count, double revenue) {
+        ByteBuffer b = begin(20);
+        b.putInt(id);
+        b.putLong(count);
+        b.putDouble(revenue);
+        return append(type);
+    }
+
+    // ===== Encodage =====
+
+    private ByteBuffer begin(int size) {
+        if (scratch.capacity() < size) scratch = ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        scratch.clear();
+        return scratch;
+    }
+
+    private boolean append(byte type) {
+        scratch.flip();
+        return segment.append(type, scratch);
+    }
+
+    private static int utf8Length(String s) {
+        return s.length() * 3; // majorant, suffisant pour dimensionner le tampon
+    }
+
+    private static void putString(ByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        b.putShort((short) length);
+        b.put(bytes, 0, length);
+    }
+
+    static String getString(ByteBuffer b) {
+        byte[] bytes = new byte[Short.toUnsignedInt(b.getShort())];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,474 @@
+package com.loveinabottle.barcocktail.journal;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Journal d'écriture anticipée d'un {@link Bar} : commandes admises, débuts
+ * et fins de préparation, variations de stock.
+ *
+ * <p>Les enregistrements sont copiés dans un segment projeté en mémoire : un
+ * arrêt brutal du processus ne perd rien, le noyau détenant déjà les pages.
+ * Leur écriture sur disque ({@code force}) est regroupée toutes les
+ * {@code flushIntervalMs} par un thread dédié, jamais faite par commande.</p>
+ *
+ * <p>Quand le segment se remplit aux trois quarts, le thread du journal le
+ * compacte : son état (stock, totaux, commandes en cours) est réécrit comme
+ * point de reprise en tête d'un segment neuf, puis l'ancien est supprimé. La
+ * relecture, la création du fichier et sa synchronisation se font hors du
+ * verrou du journal. Les écouteurs ne bloquent jamais : si le segment est
+ * plein malgré tout (rafale de plus d'un quart de segment entre deux
+ * passages), les enregistrements attendent en mémoire, dans l'ordre, que le
+ * thread du journal les recopie dans le segment neuf. Un arrêt brutal pendant
+ * cette bascule les perd ; {@link #sync()} attend qu'ils soient écrits.</p>
+ *
+ * <p>Une commande admise et les unités réservées pour elle forment un seul
+ * enregistrement ; les réservations ne sont donc pas journalisées comme
+ * variations de stock.</p>
+ *
+ * <pre>
+ * OrderJournal journal = OrderJournal.open(dossier);
+ * journal.recover(bar);   // avant toute commande
+ * ...
+ * journal.close();
+ * </pre>
+ */
+public class OrderJournal implements OrderListener, StockListener, AutoCloseable {
+    private static final System.Logger LOG = System.getLogger(OrderJournal.class.getName());
+    public static final int DEFAULT_SEGMENT_CAPACITY = 16 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 50;
+    /** Enregistrements gardés en mémoire pendant une bascule ; au-delà, ils sont perdus. */
+    static final int MAX_PENDING_RECORDS = 100_000;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final ScheduledExecutorService flusher;
+
+    // Protégés par le verrou du journal
+    private JournalSegment recoveredSegment;
+    private long generation;
+    private JournalWriter writer;
+    private boolean dirty;
+    private boolean compactionRequested;
+    private final Deque<BooleanSupplier> pending = new ArrayDeque<>(); // segment plein : en attente de bascule
+    private boolean pendingOverflowLogged;
+    private Bar bar;
+
+    private OrderJournal(Path directory, int segmentCapacity, long flushIntervalMs) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bar-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static OrderJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Ouvre le journal du dossier (créé au besoin) sur son dernier segment
+     * valide, c'est-à-dire dont le point de reprise a été écrit en entier.
+     */
+    public static OrderJournal open(Path directory, int segmentCapacity, long flushIntervalMs) throws IOException {
+        Files.createDirectories(directory);
+        OrderJournal journal = new OrderJournal(directory, segmentCapacity, flushIntervalMs);
+        List<Long> generations = journal.listGenerations();
+        for (int i = generations.size() - 1; i >= 0; i--) {
+            JournalSegment segment = JournalSegment.open(journal.segmentPath(generations.get(i)));
+            if (segment != null && JournalState.read(segment).checkpointComplete) {
+                journal.recoveredSegment = segment;
+                break;
+            }
+            if (segment != null) segment.close();
+        }
+        // Le prochain segment passe après tous ceux présents, y compris les invalides
+        if (!generations.isEmpty()) journal.generation = generations.get(generations.size() - 1);
+        return journal;
+    }
+
+    /**
+     * Restaure l'état journalisé dans le bar, qui doit déjà avoir son stock et
+     * son menu et n'avoir encore reçu aucune commande : niveaux de stock,
+     * totaux de ventes, puis remise en file des commandes qui n'étaient pas
+     * terminées (une préparation interrompue recommence du début).
+     * Le bar est ensuite journalisé jusqu'à {@link #close()}.
+     *
+     * @return les commandes remises en file
+     */
+    public synchronized List<Order> recover(Bar bar) throws IOException {
+        if (this.bar != null) throw new IllegalStateException("Journal déjà rattaché à un bar");
+        List<Order> resumed = new ArrayList<>();
+        if (recoveredSegment != null) {
+            JournalState state = JournalState.read(recoveredSegment);
+            state.stockLevels.forEach((name, units) -> {
+                Ingredient ingredient = bar.findIngredientByName(name);
+                if (ingredient != null) ingredient.addUnits(units - ingredient.getStockUnits());
+            });
+            bar.getOrderHistory().restoreTotals(state.completedCount, state.totalRevenue,
+                    state.byCocktail, state.byBartender);
+            for (JournalState.PendingOrder pending : state.inFlight.values()) {
+                Order order = restoreOrder(bar, pending);
+                if (order != null) resumed.add(order);
+            }
+            recoveredSegment.close();
+            recoveredSegment = null;
+        }
+
+        // Nouveau segment à partir de l'état restauré ; les commandes reprises y seront journalisées à leur soumission
+        roll(JournalState.capture(bar));
+        this.bar = bar;
+        bar.addStockListener(this);
+        bar.addOrderListener(this);
+
+        for (Order order : resumed) {
+            bar.submitOrderForPreparation(order);
+        }
+        return resumed;
+    }
+
+    /**
+     * Recrée une commande en cours et rend au stock les unités qu'elle avait
+     * réservées : elle les réservera de nouveau à sa remise en file.
+     */
+    private static Order restoreOrder(Bar bar, JournalState.PendingOrder pending) {
+        pending.reserved.forEach((name, units) -> {
+            Ingredient inStock = bar.findIngredientByName(name);
+            if (inStock != null) inStock.addUnits(units);
+        });
+        List<Cocktail> cocktails = new ArrayList<>();
+        for (String name : pending.cocktailNames) {
+            Cocktail cocktail = bar.findCocktailByName(name);
+            if (cocktail == null) return null; // retiré du menu depuis
+            cocktails.add(cocktail);
+        }
+        return new Order(pending.id, new Client(pending.clientName), cocktails);
+    }
+
+    // ===== Enregistrement (threads du bar) =====
+
+    @Override
+    public void onQueued(Order order) {
+        List<String> names = new ArrayList<>(order.getCocktails().size());
+        List<Double> prices = new ArrayList<>(order.getCocktails().size());
+        for (Cocktail cocktail : order.getCocktails()) {
+            names.add(cocktail.getName());
+            prices.add(cocktail.getBasePrice());
+        }
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        order.getReservation().getUnits().forEach((ingredient, units) -> reserved.put(ingredient.getName(), units));
+        String clientName = order.getClient().getName();
+        write(() -> writer.submitted(order.getId(), clientName, names, prices, reserved));
+    }
+
+    @Override
+    public void onStarted(Order order) {
+        String bartender = order.getAssignedBartender().getId();
+        write(() -> writer.started(order.getId(), bartender));
+    }
+
+    @Override
+    public void onCompleted(Order order) {
+        write(() -> writer.finished(order.getId(), true));
+    }
+
+    @Override
+    public void onFailed(Order order) {
+        write(() -> writer.finished(order.getId(), false));
+    }
+
+    @Override
+    public void onCancelled(Order order) {
+        write(() -> writer.cancelled(order.getId()));
+    }
+
+    @Override
+    public void onHistoryCleared() {
+        write(() -> writer.historyCleared());
+    }
+
+    @Override
+    public void onStockChanged(Ingredient ingredient, int delta, int unitsAfter) {
+        write(() -> writer.stock(ingredient.getName(), delta));
+    }
+
+    /** Réservations et remises en stock sont portées par SUBMITTED, FAILED et CANCELLED. */
+    @Override
+    public void onReservationChanged(StockReservation reservation, boolean taken) {
+    }
+
+    /**
+     * Ajoute un enregistrement, sans jamais attendre : appelé par les écouteurs,
+     * parfois sous le verrou du bar. Si le segment est plein, ou si des
+     * enregistrements attendent déjà, il passe en file derrière eux et la
+     * compaction est demandée au thread du journal.
+     */
+    private synchronized void write(BooleanSupplier record) {
+        if (writer == null) return; // fermé
+        try {
+            if (pending.isEmpty() && record.getAsBoolean()) {
+                dirty = true;
+                return;
+            }
+            if (pending.size() >= MAX_PENDING_RECORDS) {
+                if (!pendingOverflowLogged) {
+                    LOG.log(System.Logger.Level.ERROR, "Compaction du journal en retard, enregistrements perdus");
+                    pendingOverflowLogged = true;
+                }
+                return;
+            }
+            pending.addLast(record);
+            requestCompaction();
+        } catch (RejectedExecutionException e) {
+            LOG.log(System.Logger.Level.WARNING, "Journal en cours de fermeture, enregistrement perdu");
+        } catch (UncheckedIOException e) {
+            LOG.log(System.Logger.Level.ERROR, "Écriture du journal impossible", e);
+        }
+    }
+
+    /**
+     * Recopie dans le segment courant les enregistrements en attente, dans
+     * l'ordre ; redemande une compaction si le segment se remplit de nouveau.
+     * Sous le verrou du journal, juste après une bascule.
+     */
+    private void drainPending() {
+        boolean freshSegment = true;
+        while (!pending.isEmpty()) {
+            if (!pending.peekFirst().getAsBoolean()) {
+                if (freshSegment) {
+                    // Ne tient pas même dans un segment neuf
+                    LOG.log(System.Logger.Level.WARNING, "Enregistrement trop grand pour un segment, ignoré");
+                    pending.removeFirst();
+                    continue;
+                }
+                requestCompaction();
+                return;
+            }
+            pending.removeFirst();
+            freshSegment = false;
+            dirty = true;
+        }
+        pendingOverflowLogged = false;
+    }
+
+    // ===== Écriture groupée et compaction (thread du journal) =====
+
+    private void requestCompaction() {
+        if (compactionRequested) return;
+        flusher.execute(this::compactIfNeeded);
+        compactionRequested = true;
+    }
+
+    private void flush() {
+        compactIfNeeded();
+        JournalSegment toForce;
+        synchronized (this) {
+            if (writer == null || !dirty) return;
+            dirty = false;
+            toForce = writer.getSegment();
+        }
+        // Hors verrou : les écritures continuent pendant la synchronisation disque
+        toForce.force();
+    }
+
+    /**
+     * Écrit tout de suite sur disque ce qui a été journalisé, y compris les
+     * enregistrements en attente d'une bascule. Bloquant : jamais depuis un
+     * écouteur du bar.
+     */
+    public void sync() {
+        try {
+            flusher.submit(() -> {
+                int before;
+                do {
+                    before = pendingCount();
+                    compactIfNeeded();
+                } while (pendingCount() > 0 && pendingCount() < before);
+                forceCurrent();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            LOG.log(System.Logger.Level.WARNING, "Synchronisation du journal impossible", e);
+        }
+    }
+
+    private synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private void forceCurrent() {
+        JournalSegment segment;
+        synchronized (this) {
+            if (writer == null) return;
+            dirty = false;
+            segment = writer.getSegment();
+        }
+        segment.force();
+    }
+
+    /**
+     * Replie le segment courant en un point de reprise dans un segment neuf, s'il
+     * est rempli aux trois quarts ou si des enregistrements attendent. Thread du journal
+     * seulement. Les enregistrements déjà écrits ne bougent plus : ils sont
+     * relus sans verrou ; le verrou ne couvre que la relecture de la fin du
+     * segment, l'écriture du point de reprise et la bascule. La synchronisation
+     * disque et la suppression de l'ancien segment suivent, hors verrou.
+     */
+    private void compactIfNeeded() {
+        JournalWriter current;
+        int replayed;
+        long next;
+        synchronized (this) {
+            current = writer;
+            if (current == null) return;
+            JournalSegment segment = current.getSegment();
+            if (!compactionRequested && segment.getPosition() <= segment.getCapacity() / 4 * 3) return;
+            replayed = segment.getPosition();
+            next = generation + 1;
+        }
+        JournalWriter nextWriter = null;
+        try {
+            JournalState state = new JournalState();
+            int position = state.replay(current.getSegment(), JournalSegment.HEADER_SIZE, replayed);
+            int capacity = segmentCapacity;
+            while (nextWriter == null) {
+                JournalSegment segment = JournalSegment.create(segmentPath(next), capacity);
+                JournalWriter candidate = new JournalWriter(segment);
+                synchronized (this) {
+                    if (writer != current) { // fermé entre-temps
+                        segment.close();
+                        Files.deleteIfExists(segmentPath(next));
+                        return;
+                    }
+                    position = state.replay(current.getSegment(), position, current.getSegment().getPosition());
+                    // Le point de reprise doit laisser au moins la moitié du segment aux nouveaux enregistrements
+                    if (state.writeCheckpoint(candidate, System.currentTimeMillis())
+                            && segment.getPosition() <= capacity / 2) {
+                        writer = candidate;
+                        generation = next;
+                        dirty = true;
+                        nextWriter = candidate;
+                        compactionRequested = false;
+                        drainPending();
+                    }
+                }
+                if (nextWriter == null) {
+                    segment.close();
+                    capacity *= 2;
+                }
+            }
+            // Le point de reprise est sur disque avant que l'ancien segment ne disparaisse
+            nextWriter.getSegment().force();
+            current.getSegment().close();
+            deleteGenerationsBefore(next);
+        } catch (IOException | UncheckedIOException e) {
+            LOG.log(System.Logger.Level.ERROR, "Compaction du journal impossible", e);
+            if (nextWriter == null) {
+                synchronized (this) {
+                    // Pas de bascule : les enregistrements en attente patientent jusqu'au prochain passage
+                    compactionRequested = false;
+                }
+            }
+        }
+    }
+
+    /** Premier segment, écrit depuis l'état du bar à la reprise (avant tout enregistrement). */
+    private void roll(JournalState state) throws IOException {
+        long next = generation + 1;
+        int capacity = segmentCapacity;
+        JournalSegment segment;
+        JournalWriter nextWriter;
+        while (true) {
+            segment = JournalSegment.create(segmentPath(next), capacity);
+            nextWriter = new JournalWriter(segment);
+            // Le point de reprise doit laisser au moins la moitié du segment aux nouveaux enregistrements
+            if (state.writeCheckpoint(nextWriter, System.currentTimeMillis())
+                    && segment.getPosition() <= capacity / 2) {
+                break;
+            }
+            segment.close();
+            capacity *= 2;
+        }
+        segment.force();
+
+        writer = nextWriter;
+        generation = next;
+        dirty = false;
+        deleteGenerationsBefore(next);
+    }
+
+    private void deleteGenerationsBefore(long gen) throws IOException {
+        for (long old : listGenerations()) {
+            if (old < gen) Files.deleteIfExists(segmentPath(old));
+        }
+    }
+
+    private Path segmentPath(long gen) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, gen, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .forEach(n -> {
+                        try {
+                            generations.add(Long.parseLong(
+                                    n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException ignored) {
+                            // fichier étranger au journal
+                        }
+                    });
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    // ===== Fermeture =====
+
+    @Override
+    public void close() throws IOException {
+        // Une compaction en cours se termine (bascule, suppression de l'ancien segment)
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (bar != null) {
+                bar.removeOrderListener(this);
+                bar.removeStockListener(this);
+            }
+            if (recoveredSegment != null) recoveredSegment.close();
+            if (writer != null) {
+                writer.getSegment().force();
+                writer.getSegment().close();
+                writer = null;
+            }
+            if (!pending.isEmpty()) {
+                LOG.log(System.Logger.Level.WARNING, pending.size() + " enregistrements du journal perdus à la fermeture");
+                pending.clear();
+            }
+        }
+    }
+}
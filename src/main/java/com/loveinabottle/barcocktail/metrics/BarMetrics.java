@@ -0,0 +1,240 @@
+package com.loveinabottle.barcocktail.metrics;
+
+import com.loveinabottle.barcocktail.model.Bar;
+import com.loveinabottle.barcocktail.model.Employee;
+import com.loveinabottle.barcocktail.model.Order;
+import com.loveinabottle.barcocktail.model.SubmissionResult;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques du cycle de vie des commandes d'un {@link Bar} : compteurs,
+ * histogrammes de latence et occupation des bartenders.
+ *
+ * <p>Le bar appelle les méthodes {@code record…} / {@code order…} depuis ses
+ * propres chemins ; l'enregistrement se limite à quelques additions atomiques,
+ * sans verrou ni allocation (hors premier passage d'un bartender).</p>
+ *
+ * <p>{@link #register(String)} publie ces métriques dans le serveur MBean de
+ * la plateforme (jconsole, VisualVM, exportateur JMX...).</p>
+ */
+public class BarMetrics implements BarMetricsMXBean {
+    public static final String DOMAIN = "com.loveinabottle.barcocktail";
+    private static final System.Logger LOG = System.getLogger(BarMetrics.class.getName());
+
+    private static final class Usage {
+        final LongAdder busyMs = new LongAdder();
+        volatile long activeSince = -1; // -1 : libre
+    }
+
+    private final Bar bar;
+    private final Map<SubmissionResult.Status, LongAdder> submissions = new EnumMap<>(SubmissionResult.Status.class);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram preparation = new LatencyHistogram();
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+    private final LatencyHistogram submitCost = new LatencyHistogram();
+    private final LatencyHistogram dispatchCost = new LatencyHistogram();
+    private final Map<Employee, Usage> usage = new ConcurrentHashMap<>();
+    private volatile long sinceMs;
+    private volatile ObjectName objectName;
+
+    public BarMetrics(Bar bar) {
+        this.bar = bar;
+        this.sinceMs = bar.getClock().millis();
+        for (SubmissionResult.Status status : SubmissionResult.Status.values()) {
+            submissions.put(status, new LongAdder());
+        }
+    }
+
+    // ===== Enregistrement (appelé par le bar) =====
+
+    public void recordSubmission(long elapsedNanos, SubmissionResult.Status status) {
+        submissions.get(status).increment();
+        submitCost.record(elapsedNanos);
+    }
+
+    public void recordDispatch(long elapsedNanos) {
+        dispatchCost.record(elapsedNanos);
+    }
+
+    public void orderStarted(Order order) {
+        queueWait.record(order.getStartedAtMs() - order.getQueuedAtMs());
+        Employee bartender = order.getAssignedBartender();
+        if (bartender != null) {
+            usage.computeIfAbsent(bartender, b -> new Usage()).activeSince = order.getStartedAtMs();
+        }
+    }
+
+    public void orderFinished(Order order, long nowMs, boolean success) {
+        (success ? completed : failed).increment();
+        preparation.record(nowMs - order.getStartedAtMs());
+        if (success) endToEnd.record(nowMs - order.getQueuedAtMs());
+        idle(order.getAssignedBartender(), nowMs);
+    }
+
+    /** Commande annulée ; {@code bartenderFreed} si sa tournée s'arrête avec elle. */
+    public void orderCancelled(Order order, long nowMs, boolean bartenderFreed) {
+        cancelled.increment();
+        if (bartenderFreed) idle(order.getAssignedBartender(), nowMs);
+    }
+
+    private void idle(Employee bartender, long nowMs) {
+        Usage u = bartender == null ? null : usage.get(bartender);
+        if (u != null) {
+            long since = u.activeSince;
+            u.activeSince = -1;
+            if (since >= 0) u.busyMs.add(nowMs - Math.max(since, sinceMs));
+        }
+    }
+
+    // ===== Lecture =====
+
+    public LatencyHistogram getQueueWaitHistogram() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getPreparationHistogram() {
+        return preparation;
+    }
+
+    public LatencyHistogram getEndToEndHistogram() {
+        return endToEnd;
+    }
+
+    @Override
+    public long getSubmittedOrders() {
+        return submissions.get(SubmissionResult.Status.ACCEPTED).sum();
+    }
+
+    @Override
+    public long getRejectedOrders() {
+        long rejected = 0;
+        for (Map.Entry<SubmissionResult.Status, LongAdder> e : submissions.entrySet()) {
+            if (e.getKey() != SubmissionResult.Status.ACCEPTED) rejected += e.getValue().sum();
+        }
+        return rejected;
+    }
+
+    @Override
+    public Map<String, Long> getRejectionsByReason() {
+        Map<String, Long> rejections = new LinkedHashMap<>();
+        submissions.forEach((status, count) -> {
+            if (status != SubmissionResult.Status.ACCEPTED) rejections.put(status.name(), count.sum());
+        });
+        return rejections;
+    }
+
+    @Override
+    public long getCompletedOrders() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getFailedOrders() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getCancelledOrders() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public int getWaitingOrders() {
+        return bar.getWaitingOrderCount();
+    }
+
+    @Override
+    public int getInProgressOrders() {
+        return bar.getInProgressOrderCount();
+    }
+
+    @Override
+    public Map<String, Long> getQueueWaitMs() {
+        return queueWait.summary();
+    }
+
+    @Override
+    public Map<String, Long> getPreparationMs() {
+        return preparation.summary();
+    }
+
+    @Override
+    public Map<String, Long> getEndToEndMs() {
+        return endToEnd.summary();
+    }
+
+    @Override
+    public Map<String, Long> getSubmitNanos() {
+        return submitCost.summary();
+    }
+
+    @Override
+    public Map<String, Long> getDispatchNanos() {
+        return dispatchCost.summary();
+    }
+
+    @Override
+    public Map<String, Double> getBartenderUtilization() {
+        long now = bar.getClock().millis();
+        long window = Math.max(1, now - sinceMs);
+        Map<String, Double> utilization = new TreeMap<>();
+        usage.forEach((bartender, u) -> {
+            long busy = u.busyMs.sum();
+            long since = u.activeSince;
+            if (since >= 0) busy += now - Math.max(since, sinceMs);
+            utilization.put(bartender.getName(), Math.min(1.0, (double) busy / window));
+        });
+        return utilization;
+    }
+
+    /** Remet compteurs et histogrammes à zéro ; l'occupation repart de maintenant. */
+    @Override
+    public void reset() {
+        submissions.values().forEach(LongAdder::reset);
+        completed.reset();
+        failed.reset();
+        cancelled.reset();
+        queueWait.reset();
+        preparation.reset();
+        endToEnd.reset();
+        submitCost.reset();
+        dispatchCost.reset();
+        sinceMs = bar.getClock().millis();
+        usage.values().forEach(u -> u.busyMs.reset());
+    }
+
+    // ===== JMX =====
+
+    /** Publie ces métriques sous {@code com.loveinabottle.barcocktail:type=Bar,name=<nom>}. */
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName on = new ObjectName(DOMAIN + ":type=Bar,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+        objectName = on;
+        return on;
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOG.log(System.Logger.Level.WARNING, "Désenregistrement JMX impossible", e);
+        }
+        objectName = null;
+    }
+}
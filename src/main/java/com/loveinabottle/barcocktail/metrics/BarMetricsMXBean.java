@@ -0,0 +1,47 @@
+package com.loveinabottle.barcocktail.metrics;
+
+import java.util.Map;
+
+/**
+ * Vue JMX des métriques d'un bar ({@link BarMetrics}).
+ * Les histogrammes sont résumés en {@code count, mean, p50, p90, p99, p99.9, max}.
+ */
+public interface BarMetricsMXBean {
+
+    long getSubmittedOrders();
+
+    long getRejectedOrders();
+
+    /** Refus par raison ({@link com.loveinabottle.barcocktail.model.SubmissionResult.Status}). */
+    Map<String, Long> getRejectionsByReason();
+
+    long getCompletedOrders();
+
+    long getFailedOrders();
+
+    long getCancelledOrders();
+
+    int getWaitingOrders();
+
+    int getInProgressOrders();
+
+    /** Attente en file, de l'admission au début de la préparation (ms, horloge du bar). */
+    Map<String, Long> getQueueWaitMs();
+
+    /** Durée de préparation (ms, horloge du bar). */
+    Map<String, Long> getPreparationMs();
+
+    /** De l'admission à la fin de la préparation (ms, horloge du bar). */
+    Map<String, Long> getEndToEndMs();
+
+    /** Coût d'un appel à {@code submitOrderForPreparation} (ns, temps réel). */
+    Map<String, Long> getSubmitNanos();
+
+    /** Coût d'une distribution des commandes aux bartenders libres (ns, temps réel). */
+    Map<String, Long> getDispatchNanos();
+
+    /** Part du temps passée à préparer, par bartender (0 à 1) depuis la dernière remise à zéro. */
+    Map<String, Double> getBartenderUtilization();
+
+    void reset();
+}
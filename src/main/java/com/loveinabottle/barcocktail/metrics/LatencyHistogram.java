@@ -0,0 +1,98 @@
+package com.loveinabottle.barcocktail.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à la manière de HdrHistogram : chaque puissance de
+ * deux est découpée en 64 sous-intervalles égaux, soit une précision relative
+ * d'environ 1,6 % sur toute la plage des {@code long} positifs.
+ * L'enregistrement est sans verrou (un incrément atomique par valeur) ;
+ * la lecture des percentiles parcourt les intervalles et peut voir des
+ * enregistrements en cours, ce qui est sans conséquence pour du monitoring.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return SUB_COUNT + (exponent - SUB_BITS) * SUB_COUNT + mantissa;
+    }
+
+    /** Milieu de l'intervalle {@code index}. */
+    static long valueAt(int index) {
+        if (index < SUB_COUNT) return index;
+        int exponent = (index - SUB_COUNT) / SUB_COUNT + SUB_BITS;
+        long mantissa = (index - SUB_COUNT) % SUB_COUNT;
+        int shift = exponent - SUB_BITS;
+        long lower = (SUB_COUNT + mantissa) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /** Valeur sous laquelle se trouvent {@code percentile} % des enregistrements. */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(valueAt(i), getMax());
+        }
+        return getMax();
+    }
+
+    /** Résumé : nombre, moyenne, p50, p90, p99, p99.9 et maximum. */
+    public Map<String, Long> summary() {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("mean", Math.round(getMean()));
+        summary.put("p50", getPercentile(50));
+        summary.put("p90", getPercentile(90));
+        summary.put("p99", getPercentile(99));
+        summary.put("p99.9", getPercentile(99.9));
+        summary.put("max", getMax());
+        return summary;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
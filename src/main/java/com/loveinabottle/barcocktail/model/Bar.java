@@ -1,111 +1,410 @@
 package com.loveinabottle.barcocktail.model;
 
-import javafx.application.Platform;
-import javafx.beans.property.ListProperty;
-import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.loveinabottle.barcocktail.metrics.BarMetrics;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class Bar {
-    private static final int BASE_TIME_PER_INGREDIENT_MS = 20000;
+    /**
+     * PLATFORM : pool de threads classique, agrandi à chaud quand on embauche.
+     * VIRTUAL : un thread virtuel par tâche de fin de préparation, la concurrence
+     * étant bornée par les jetons de préparation et non par le nombre de threads.
+     * DIRECT : aucune thread, les tâches s'exécutent sur le thread qui déclenche
+     * l'événement (simulation à événements discrets).
+     * HOSTED : tâches confiées à un exécuteur fourni, partagé entre plusieurs bars
+     * (voir {@code BarHost}).
+     */
+    public enum ExecutionMode { PLATFORM, VIRTUAL, DIRECT, HOSTED }
+
+    /**
+     * Ordre de service des commandes en file.
+     * FIFO : ordre d'arrivée.
+     * PRIORITY : par classe de service ({@link Order.Priority}), puis ordre d'arrivée.
+     * DEADLINE : échéance la plus proche d'abord ({@link Order#getDeadlineMs()}).
+     */
+    public enum QueuePolicy { FIFO, PRIORITY, DEADLINE }
+
+    private static final System.Logger LOG = System.getLogger(Bar.class.getName());
+
+    public static final int BASE_TIME_PER_INGREDIENT_MS = 20000;
+    private static final long PROGRESS_TICK_MS = 200; // en temps réel
+    public static final int DEFAULT_BATCH_WINDOW = 6;
+
+    /**
+     * Tournée en cours chez un bartender. Sa fin est un événement de l'horloge,
+     * replanifié quand une commande en est retirée ; une fin dont la version
+     * n'est plus la bonne est ignorée.
+     */
+    private static final class Preparation {
+        final Bartender bartender;
+        final long startMs;
+        volatile List<Order> orders; // copie immuable, lue par les mises à jour de progression
+        BarClock.Scheduled completion;
+        BarClock.Scheduled progressTicks;
+        int version;
+        boolean closed;              // terminée ou entièrement annulée
+
+        Preparation(Bartender bartender, List<Order> orders, long startMs) {
+            this.bartender = bartender;
+            this.orders = List.copyOf(orders);
+            this.startMs = startMs;
+        }
+    }
 
-    private final List<Ingredient> stock = new ArrayList<>();
-    private final List<Cocktail> menu = new ArrayList<>();
+    private final Catalog<Ingredient> stock = new Catalog<>(Ingredient::getName);
+    private final Catalog<Cocktail> menu = new Catalog<>(Cocktail::getName);
     private final List<Employee> employees = new ArrayList<>();
 
-    private final ListProperty<Order> waitingQueue = new SimpleListProperty<>(
-            FXCollections.observableArrayList()
-    );
-    private final ListProperty<Order> inProgressOrders = new SimpleListProperty<>(
-            FXCollections.observableArrayList()
-    );
-    private final ListProperty<Order> completedOrders = new SimpleListProperty<>(
-            FXCollections.observableArrayList()
-    );
-    private ExecutorService executorService;
+    // État des commandes, protégé par le verrou du bar
+    private final Set<Order> waitingQueue = new LinkedHashSet<>();
+    private final Set<Order> inProgressOrders = new LinkedHashSet<>();
+    private final Map<Order, Preparation> preparations = new HashMap<>(); // commandes encore annulables
+    private final OrderHistory completedOrders = new OrderHistory();
+    private final List<OrderListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<StockListener> stockListeners = new CopyOnWriteArrayList<>();
+    private final MenuAvailability availability = new MenuAvailability(this);
+    private final StockForecast stockForecast = new StockForecast(this);
+
+    private final BartenderScheduler scheduler = new BartenderScheduler(BASE_TIME_PER_INGREDIENT_MS);
+    private final PermitPool preparationPermits = new PermitPool(0);
+    private final ExecutionMode executionMode;
+    private final Executor executor;
+    private final BarClock clock;
+    private final boolean ownsClock;
+    private final BarMetrics metrics;
+    private volatile long progressTickMs;
+    private int maxConcurrentOrders;          // 0 : une préparation par bartender
+    private volatile int batchWindow = DEFAULT_BATCH_WINDOW;
+    private volatile int maxQueueDepth;       // 0 : illimitée
+    private volatile long maxPredictedWaitMs; // 0 : illimitée
 
     public Bar() {
-        // Initialiser avec au moins 1 thread
-        int bartenderCount = Math.max(1, countBartenders());
-        executorService = Executors.newFixedThreadPool(bartenderCount);
+        this(ExecutionMode.PLATFORM);
+    }
+
+    public Bar(ExecutionMode executionMode) {
+        this(executionMode, BarClock.realTime(), true, null);
+    }
+
+    /** L'horloge fournie reste à la charge de l'appelant (non arrêtée par {@link #shutdown()}). */
+    public Bar(ExecutionMode executionMode, BarClock clock) {
+        this(executionMode, clock, false, null);
+    }
+
+    /**
+     * Bar hébergé : ses tâches passent par l'exécuteur donné, que ni le bar ni
+     * {@link #shutdown()} ne gèrent. L'horloge reste aussi à la charge de l'appelant.
+     */
+    public Bar(BarClock clock, Executor executor) {
+        this(ExecutionMode.HOSTED, clock, false, Objects.requireNonNull(executor));
+    }
+
+    private Bar(ExecutionMode executionMode, BarClock clock, boolean ownsClock, Executor hostExecutor) {
+        this.executionMode = executionMode;
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.progressTickMs = Math.round(PROGRESS_TICK_MS * clock.speed());
+        this.metrics = new BarMetrics(this);
+        if (executionMode == ExecutionMode.HOSTED) {
+            if (hostExecutor == null) {
+                throw new IllegalArgumentException("Un bar hébergé reçoit son exécuteur: new Bar(clock, executor)");
+            }
+            executor = hostExecutor;
+        } else if (executionMode == ExecutionMode.VIRTUAL) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else if (executionMode == ExecutionMode.DIRECT) {
+            executor = Runnable::run;
+        } else {
+            // Initialiser avec au moins 1 thread
+            executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        }
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public BarClock getClock() {
+        return clock;
+    }
+
+    /** Latences et compteurs du service ; publiables en JMX via {@link BarMetrics#register}. */
+    public BarMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void addOrderListener(OrderListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeOrderListener(OrderListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addStockListener(StockListener listener) {
+        stockListeners.add(listener);
+    }
+
+    public void removeStockListener(StockListener listener) {
+        stockListeners.remove(listener);
+    }
+
+    private void fireStockChanged(Ingredient ingredient, int delta, int unitsAfter) {
+        availability.stockChanged(ingredient);
+        stockForecast.stockChanged(ingredient, unitsAfter);
+        for (StockListener listener : stockListeners) {
+            listener.onStockChanged(ingredient, delta, unitsAfter);
+        }
+    }
+
+    /** Réservation prise ou rendue : un seul avis par commande, quel que soit le nombre d'ingrédients. */
+    void fireReservationChanged(StockReservation reservation, boolean taken) {
+        availability.stockChanged(reservation.getUnits().keySet());
+        stockForecast.reservationChanged(reservation);
+        for (StockListener listener : stockListeners) {
+            listener.onReservationChanged(reservation, taken);
+        }
+    }
+
+    /** Période (temps simulé) des mises à jour de progression ; 0 pour les désactiver. */
+    public void setProgressTickMs(long progressTickMs) {
+        this.progressTickMs = Math.max(0, progressTickMs);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.millis()), ZoneId.systemDefault());
     }
 
     private int countBartenders() {
         return (int) employees.stream().filter(e -> e instanceof Bartender).count();
     }
 
-    private int getMaxConcurrentOrders() {
-        return Math.max(1, countBartenders());
+    /**
+     * Nombre maximal de commandes préparées en même temps (modifiable en plein
+     * service). Fixé ici, il ne suit plus les embauches ; 0 pour revenir à une
+     * préparation par bartender.
+     */
+    public synchronized void setMaxConcurrentOrders(int maxConcurrentOrders) {
+        this.maxConcurrentOrders = Math.max(0, maxConcurrentOrders);
+        preparationPermits.resize(this.maxConcurrentOrders > 0 ? this.maxConcurrentOrders : countBartenders());
+        processNextOrder();
+    }
+
+    public int getMaxConcurrentOrders() {
+        return preparationPermits.getCapacity();
+    }
+
+    public int getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Nombre de commandes en tête de file examinées pour former une tournée,
+     * et taille maximale d'une tournée ; 0 ou 1 pour préparer une commande à la fois.
+     */
+    public void setBatchWindow(int batchWindow) {
+        this.batchWindow = Math.max(0, batchWindow);
+    }
+
+    /**
+     * Limites d'admission (0 pour aucune) : nombre de commandes en file et
+     * attente prévue avant préparation. Chaque classe de service n'en a qu'une
+     * part ({@link Order.Priority#getAdmissionShare()}), les VIP la totalité.
+     */
+    public void setAdmissionLimits(int maxQueueDepth, long maxPredictedWaitMs) {
+        this.maxQueueDepth = Math.max(0, maxQueueDepth);
+        this.maxPredictedWaitMs = Math.max(0, maxPredictedWaitMs);
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getMaxPredictedWaitMs() {
+        return maxPredictedWaitMs;
+    }
+
+    public QueuePolicy getQueuePolicy() {
+        return scheduler.getPolicy();
+    }
+
+    /** Change l'ordre de service, y compris pour les commandes déjà en file. */
+    public synchronized void setQueuePolicy(QueuePolicy policy) {
+        scheduler.setPolicy(policy);
     }
 
     // ===== Gestion du stock =====
     public void addIngredient(Ingredient ingredient) {
         stock.add(ingredient);
+        // Seul l'ingrédient retenu par le catalogue (le premier de ce nom) est suivi
+        if (stock.find(ingredient.getName()) == ingredient) {
+            ingredient.setStockListener(this::fireStockChanged);
+            availability.addIngredient(ingredient);
+        }
+    }
+
+    /** Débits de consommation, ruptures prévues et réapprovisionnement automatique. */
+    public StockForecast getStockForecast() {
+        return stockForecast;
     }
 
     public List<Ingredient> getAllIngredients() {
-        return new ArrayList<>(stock);
+        return stock.all();
     }
 
     public Ingredient findIngredientByName(String name) {
-        return stock.stream()
-                .filter(i -> i.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        return stock.find(name);
+    }
+
+    // ===== Réservation du stock =====
+
+    /**
+     * Réserve en tout-ou-rien les ingrédients de tous les cocktails donnés.
+     * Pas de verrou global : chaque ingrédient est décrémenté par CAS, dans un
+     * ordre fixe (nom normalisé), et ce qui a été pris est rendu en cas d'échec.
+     * Les écouteurs de stock ne sont prévenus qu'une fois, pour la réservation
+     * entière ; une réservation avortée ne leur est pas signalée.
+     */
+    public Optional<StockReservation> reserve(List<Cocktail> cocktails) {
+        Map<String, Ingredient> byKey = new TreeMap<>();
+        Map<String, Integer> needed = new TreeMap<>();
+        for (Cocktail cocktail : cocktails) {
+            for (Map.Entry<Ingredient, Integer> e : cocktail.getRecipe().entrySet()) {
+                Ingredient ingredient = findIngredientByName(e.getKey().getName());
+                if (ingredient == null) return Optional.empty();
+                String key = Catalog.normalize(ingredient.getName());
+                byKey.put(key, ingredient);
+                needed.merge(key, e.getValue(), Integer::sum);
+            }
+        }
+
+        Map<Ingredient, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> e : needed.entrySet()) {
+            Ingredient ingredient = byKey.get(e.getKey());
+            if (ingredient.take(e.getValue()) < 0) {
+                taken.forEach(Ingredient::giveBack);
+                return Optional.empty();
+            }
+            taken.put(ingredient, e.getValue());
+        }
+        StockReservation reservation = new StockReservation(this, taken);
+        fireReservationChanged(reservation, true);
+        return Optional.of(reservation);
+    }
+
+    public Optional<StockReservation> reserve(Order order) {
+        return reserve(order.getCocktails());
     }
 
     // ===== Gestion du menu =====
     public void addCocktailToMenu(Cocktail cocktail) {
         menu.add(cocktail);
+        if (menu.find(cocktail.getName()) == cocktail) availability.addCocktail(cocktail);
+    }
+
+    /**
+     * Nombre d'exemplaires du cocktail réalisables avec le stock actuel, tenu à
+     * jour à chaque variation de stock : simple lecture. -1 s'il n'est pas au menu.
+     */
+    public int getMakeableCount(Cocktail cocktail) {
+        return availability.getMakeableCount(cocktail);
     }
 
     public List<Cocktail> getMenu() {
-        return new ArrayList<>(menu);
+        return menu.all();
+    }
+
+    /** Nombre de cocktails au menu ; le menu ne fait que grandir, sa taille en date le contenu. */
+    public int getMenuSize() {
+        return menu.size();
+    }
+
+    public Cocktail findCocktailByName(String name) {
+        return menu.find(name);
     }
 
     // ===== Gestion des employés =====
-    public void addEmployee(Employee employee) {
+    public synchronized void addEmployee(Employee employee) {
         employees.add(employee);
-        // Recréer le thread pool si c'est un bartender
-        if (employee instanceof Bartender) {
-            executorService.shutdown();
+        // Un bartender de plus : un jeton de préparation de plus, sans recréer l'exécuteur
+        if (employee instanceof Bartender bartender) {
+            scheduler.addBartender(bartender);
             int bartenderCount = countBartenders();
-            executorService = Executors.newFixedThreadPool(bartenderCount);
+            if (executor instanceof ThreadPoolExecutor pool && pool.getMaximumPoolSize() < bartenderCount) {
+                pool.setMaximumPoolSize(bartenderCount);
+                pool.setCorePoolSize(bartenderCount);
+            }
+            // Une limite fixée par setMaxConcurrentOrders n'est pas relevée
+            if (maxConcurrentOrders == 0) preparationPermits.resize(bartenderCount);
+            processNextOrder();
         }
     }
 
-    public List<Employee> getEmployees() {
+    public synchronized List<Employee> getEmployees() {
         return new ArrayList<>(employees);
     }
 
     // ===== Gestion des commandes =====
-    public ObservableList<Order> getInProgressOrders() {
-        return inProgressOrders;
+    // Copies instantanées : pour suivre les changements, voir addOrderListener
+    public synchronized List<Order> getInProgressOrders() {
+        return new ArrayList<>(inProgressOrders);
+    }
+
+    public synchronized List<Order> getWaitingOrders() {
+        return new ArrayList<>(waitingQueue);
     }
 
-    public ObservableList<Order> getWaitingOrders() {
-        return waitingQueue;
+    /** Dernières commandes terminées (voir {@link #getOrderHistory()} pour la rétention). */
+    public List<Order> getCompletedOrders() {
+        return completedOrders.recent();
     }
 
-    public ObservableList<Order> getCompletedOrders() {
+    /** Historique borné et totaux du service (chiffre d'affaires, par cocktail, par bartender). */
+    public OrderHistory getOrderHistory() {
         return completedOrders;
     }
 
-    public int getWaitingOrderCount() {
+    public synchronized int getWaitingOrderCount() {
         return waitingQueue.size();
     }
 
+    public synchronized int getInProgressOrderCount() {
+        return inProgressOrders.size();
+    }
+
+    /**
+     * Début et fin estimés d'une commande en file ou en préparation, en
+     * O(log n) ; vide si elle n'est pas (ou plus) chez un bartender.
+     */
+    public synchronized Optional<OrderEta> estimate(Order order) {
+        return Optional.ofNullable(scheduler.estimate(order, clock.millis()));
+    }
+
+    /** Commandes terminées depuis l'ouverture (ou la dernière clôture), y compris celles sorties de l'historique. */
+    public long getCompletedOrderCount() {
+        return completedOrders.getCompletedCount();
+    }
+
+    /**
+     * Vide l'historique des commandes terminées et remet les totaux à zéro
+     * (clôture de caisse). Sous le verrou du bar : aucune commande ne se
+     * termine pendant la remise à zéro, et les écouteurs (journal) la voient à
+     * sa place parmi les fins de commande.
+     */
+    public synchronized void clearCompletedOrders() {
+        completedOrders.clear();
+        listeners.forEach(OrderListener::onHistoryCleared);
+    }
+
     // ===== Passage de commande =====
     public Optional<Order> placeOrder(Client client, List<String> cocktailNames) {
         List<Cocktail> selected = new ArrayList<>();
         for (String name : cocktailNames) {
-            Cocktail c = menu.stream()
-                    .filter(m -> m.getName().equalsIgnoreCase(name))
-                    .findFirst()
-                    .orElse(null);
+            Cocktail c = menu.find(name);
             if (c == null) return Optional.empty();
             selected.add(c);
         }
@@ -113,117 +412,290 @@ public class Bar {
     }
 
     // ===== Soumission de commande à la file d'attente =====
-    public void submitOrderForPreparation(Order order) {
+
+    /**
+     * Réserve les ingrédients puis place la commande dans la file du bartender
+     * qui la terminera le plus tôt, à son rang selon la politique de service.
+     * @return false (commande FAILED, non mise en file) si elle n'est pas admise
+     * @see #submit(Order)
+     */
+    public boolean submitOrderForPreparation(Order order) {
+        return submit(order).isAccepted();
+    }
+
+    /**
+     * Comme {@link #submitOrderForPreparation}, en précisant la raison d'un refus
+     * et l'attente estimée. Une commande refusée passe à FAILED et n'est pas mise en file.
+     *
+     * <p>La réservation du stock se fait hors du verrou du bar : il n'est pris
+     * que pour vérifier les limites d'admission, puis pour la mise en file, où
+     * elles sont revérifiées.</p>
+     */
+    public SubmissionResult submit(Order order) {
+        long start = System.nanoTime();
+        SubmissionResult result = admit(order);
+        metrics.recordSubmission(System.nanoTime() - start, result.getStatus());
+        return result;
+    }
+
+    private SubmissionResult admit(Order order) {
+        SubmissionResult admission = checkAdmission(order);
+        if (!admission.isAccepted()) return admission;
+
+        // Sans verrou : les soumissions concurrentes ne se croisent que sur leurs ingrédients communs
+        Optional<StockReservation> reservation = reserve(order);
+        if (reservation.isEmpty()) {
+            return reject(order, SubmissionResult.Status.OUT_OF_STOCK, admission.getEstimatedWaitMs());
+        }
+        return enqueue(order, reservation.get());
+    }
+
+    /** Limites d'admission ; une réponse ACCEPTED n'est ici qu'un feu vert provisoire. */
+    private synchronized SubmissionResult checkAdmission(Order order) {
+        long now = clock.millis();
+        order.setQueuedAtMs(now); // échéance de la politique DEADLINE
+        long waitMs = scheduler.estimateWaitMs(order, now);
+        if (waitMs < 0) return reject(order, SubmissionResult.Status.NO_BARTENDER, waitMs);
+
+        // Limites réduites pour les classes basses : elles sont délestées les premières
+        double share = order.getPriority().getAdmissionShare();
+        int depthLimit = maxQueueDepth;
+        if (depthLimit > 0 && waitingQueue.size() >= Math.max(1, Math.round(depthLimit * share))) {
+            return reject(order, SubmissionResult.Status.QUEUE_FULL, waitMs);
+        }
+        long waitLimit = maxPredictedWaitMs;
+        if (waitLimit > 0 && waitMs > waitLimit * share) {
+            return reject(order, SubmissionResult.Status.WAIT_TOO_LONG, waitMs);
+        }
+        return new SubmissionResult(order, SubmissionResult.Status.ACCEPTED, waitMs);
+    }
+
+    private synchronized SubmissionResult enqueue(Order order, StockReservation reservation) {
+        // La file a pu bouger pendant la réservation
+        SubmissionResult admission = checkAdmission(order);
+        if (!admission.isAccepted()) {
+            reservation.release();
+            return admission;
+        }
+        if (scheduler.assign(order, order.getQueuedAtMs()) == null) {
+            reservation.release();
+            return reject(order, SubmissionResult.Status.NO_BARTENDER, -1);
+        }
+        order.setReservation(reservation);
+        stockForecast.reserved(reservation);
         order.setStatus(Order.OrderStatus.QUEUED);
         waitingQueue.add(order);
+        listeners.forEach(l -> l.onQueued(order));
         processNextOrder();
+        return admission;
+    }
+
+    private static SubmissionResult reject(Order order, SubmissionResult.Status status, long waitMs) {
+        order.setStatus(Order.OrderStatus.FAILED);
+        return new SubmissionResult(order, status, waitMs);
     }
 
     // ===== Traitement des commandes en file d'attente =====
+
+    /**
+     * Donne du travail à chaque bartender libre (sa file, sinon vol de travail),
+     * dans la limite des jetons de préparation disponibles. Une tournée
+     * regroupant plusieurs commandes n'occupe qu'un bartender et un jeton.
+     */
     private synchronized void processNextOrder() {
-        // Vérifier qu'on a de la place
-        int maxOrders = getMaxConcurrentOrders();
-        if (inProgressOrders.size() >= maxOrders) {
-            return; // Pas de place, les commandes restent en attente
+        if (!scheduler.hasQueuedOrders()) return;
+        long start = System.nanoTime();
+        for (Bartender bartender : scheduler.getIdleBartenders()) {
+            if (!scheduler.hasQueuedOrders() || !preparationPermits.tryAcquire()) break;
+            List<Order> batch = scheduler.nextBatch(bartender, clock.millis(), batchWindow);
+            if (batch.isEmpty()) {
+                preparationPermits.release();
+                continue;
+            }
+            batch.forEach(waitingQueue::remove);
+            startPreparation(batch, bartender);
         }
+        metrics.recordDispatch(System.nanoTime() - start);
+    }
 
-        // Prendre la prochaine commande en attente
-        if (!waitingQueue.isEmpty()) {
-            Order nextOrder = waitingQueue.remove(0); // Retirer la première commande (FIFO)
-            startOrderPreparation(nextOrder);
+    /**
+     * Démarre la préparation sans occuper de thread : la fin et les mises à jour
+     * de progression sont des événements planifiés sur l'horloge du bar.
+     * Toutes les commandes de la tournée partagent la même fenêtre de préparation.
+     */
+    private void startPreparation(List<Order> batch, Bartender bartender) {
+        long durationMs = scheduler.estimateDurationMs(batch, bartender);
+        long startMs = clock.millis();
+        LocalDateTime started = now();
+        for (Order order : batch) {
+            inProgressOrders.add(order);
+            order.setAssignedBartender(bartender);
+            order.setTimeStarted(started);
+            order.setPreparationWindow(startMs, durationMs);
+            order.setStatus(Order.OrderStatus.IN_PROGRESS);
+            metrics.orderStarted(order);
+            listeners.forEach(l -> l.onStarted(order));
         }
+
+        Preparation preparation = new Preparation(bartender, batch, startMs);
+        for (Order order : batch) {
+            preparations.put(order, preparation);
+        }
+        preparation.progressTicks = scheduleProgressTicks(preparation);
+        scheduleCompletion(preparation, durationMs);
     }
 
-    private void startOrderPreparation(Order order) {
-        inProgressOrders.add(order);
+    private void scheduleCompletion(Preparation preparation, long delayMs) {
+        int version = ++preparation.version;
+        preparation.completion = clock.schedule(
+                () -> executor.execute(() -> completePreparation(preparation, version)), delayMs);
+    }
 
-        executorService.submit(() -> {
+    private void completePreparation(Preparation preparation, int version) {
+        List<Order> batch;
+        synchronized (this) {
+            // Annulée entre-temps, ou replanifiée : un autre événement la terminera
+            if (preparation.closed || preparation.version != version) return;
+            preparation.closed = true;
+            batch = preparation.orders;
+            // À partir d'ici, plus d'annulation possible
+            batch.forEach(preparations::remove);
+        }
+        if (preparation.progressTicks != null) preparation.progressTicks.cancel();
+        boolean[] completed = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
             try {
-                prepareOrderAsync(order);
+                completeOrder(batch.get(i));
+                completed[i] = true;
             } catch (Exception e) {
-                order.setStatus(Order.OrderStatus.FAILED);
-                System.err.println("Erreur: " + e.getMessage());
-            } finally {
-                inProgressOrders.remove(order);
-                if (order.getStatus() == Order.OrderStatus.COMPLETED) {
-                    completedOrders.add(order);
-                }
-                processNextOrder();
+                failOrder(batch.get(i), e);
             }
-        });
-    }
-
-    private void prepareOrderAsync(Order order) throws InterruptedException {
-        // Assigner le bartender le plus rapide
-        Employee fastestBartender = employees.stream()
-                .filter(e -> e instanceof Bartender)
-                .max(Comparator.comparingInt(Employee::getSpeed))
-                .orElse(null);
-
-        if (fastestBartender == null) {
-            order.setStatus(Order.OrderStatus.FAILED);
-            return;
         }
+        finishPreparation(batch, completed, preparation.bartender);
+    }
 
-        // Vérifier la disponibilité des ingrédients
-        boolean canPrepare = order.getCocktails().stream()
-                .allMatch(c -> c.isPrepareable(this));
+    /**
+     * Mises à jour de progression poussées aux écouteurs. Inutile pour l'UI, qui
+     * calcule elle-même la progression à chaque image via {@link Order#progressAt}.
+     * Les écouteurs tournent sur l'exécuteur du bar, pas sur le thread de
+     * l'horloge, partagé par tous les bars d'un hôte.
+     */
+    private BarClock.Scheduled scheduleProgressTicks(Preparation preparation) {
+        long tick = progressTickMs;
+        if (tick <= 0) return null;
+        return clock.scheduleAtFixedRate(() -> executor.execute(() -> {
+            for (Order order : preparation.orders) {
+                // Tick exécuté après la fin ou l'annulation : ne pas revenir en arrière
+                if (order.getStatus() != Order.OrderStatus.IN_PROGRESS) continue;
+                int progress = order.progressAt(clock.millis());
+                order.setProgress(progress);
+                listeners.forEach(l -> l.onProgress(order, progress));
+            }
+        }), tick, tick);
+    }
 
-        if (!canPrepare) {
-            order.setStatus(Order.OrderStatus.FAILED);
-            return;
-        }
+    private void completeOrder(Order order) {
+        // Consommer les ingrédients réservés à l'admission ; seule une consommation alimente la prévision
+        if (order.getReservation().commit()) stockForecast.committed(order.getReservation());
 
-        // Démarrer la préparation
-        Platform.runLater(() -> {
-            order.setStatus(Order.OrderStatus.IN_PROGRESS);
-            order.setTimeStarted(LocalDateTime.now());
-            order.setAssignedBartender(fastestBartender);
-        });
-
-        // Calculer la durée totale
-        int totalIngredients = order.getCocktails().stream()
-                .mapToInt(c -> c.getRecipe().size())
-                .sum();
+        // Marquer comme terminée
+        order.setProgress(100);
+        order.setTimeCompleted(now());
+        order.setStatus(Order.OrderStatus.COMPLETED);
+    }
 
-        long estimatedDurationMs = Math.round((double) totalIngredients * BASE_TIME_PER_INGREDIENT_MS / fastestBartender.getSpeed());
-        long startTime = System.currentTimeMillis();
+    private void failOrder(Order order, Exception e) {
+        order.setStatus(Order.OrderStatus.FAILED);
+        LOG.log(System.Logger.Level.WARNING, "Commande " + order.getId() + " en échec", e);
+        // Commande non aboutie : les ingrédients retournent en stock
+        order.getReservation().release();
+    }
 
-        // Simuler la préparation
-        while (System.currentTimeMillis() - startTime < estimatedDurationMs) {
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            int progress = (int) ((elapsedTime * 100) / estimatedDurationMs);
-            final int progressToSet = Math.min(progress, 99);
-            Platform.runLater(() -> order.setProgress(progressToSet));
-            Thread.sleep(200);
+    private synchronized void finishPreparation(List<Order> batch, boolean[] completed, Bartender bartender) {
+        long nowMs = clock.millis();
+        for (int i = 0; i < batch.size(); i++) {
+            Order order = batch.get(i);
+            inProgressOrders.remove(order);
+            stockForecast.settled(order.getReservation());
+            metrics.orderFinished(order, nowMs, completed[i]);
+            if (completed[i]) {
+                completedOrders.add(order);
+                listeners.forEach(l -> l.onCompleted(order));
+            } else {
+                listeners.forEach(l -> l.onFailed(order));
+            }
         }
+        scheduler.finished(bartender);
+        preparationPermits.release();
+        processNextOrder();
+    }
 
-        // Consommer les ingrédients
-        for (Cocktail cocktail : order.getCocktails()) {
-            cocktail.consumeIngredients(this);
+    // ===== Annulation =====
+
+    /**
+     * Annule une commande en file (retirée de sa file en O(log n)) ou en cours
+     * de préparation : sa tournée est replanifiée sans elle, ou arrêtée si elle
+     * était seule, et le bartender passe aussitôt à la suite. Les ingrédients
+     * réservés retournent en stock ; la commande passe à CANCELLED.
+     * @return false si la commande n'est ni en file ni en préparation (déjà terminée...)
+     */
+    public synchronized boolean cancelOrder(Order order) {
+        long nowMs = clock.millis();
+        if (waitingQueue.remove(order)) {
+            scheduler.remove(order);
+            cancelled(order, nowMs, false);
+            return true;
+        }
+        Preparation preparation = preparations.remove(order);
+        if (preparation == null) return false;
+
+        inProgressOrders.remove(order);
+        List<Order> remaining = new ArrayList<>(preparation.orders);
+        remaining.remove(order);
+        preparation.orders = List.copyOf(remaining);
+        preparation.completion.cancel();
+        if (remaining.isEmpty()) {
+            preparation.closed = true;
+            if (preparation.progressTicks != null) preparation.progressTicks.cancel();
+            cancelled(order, nowMs, true);
+            scheduler.finished(preparation.bartender);
+            preparationPermits.release();
+            processNextOrder();
+        } else {
+            // Le reste de la tournée se termine plus tôt sans cette commande
+            long durationMs = scheduler.estimateDurationMs(remaining, preparation.bartender);
+            for (Order other : remaining) {
+                other.setPreparationWindow(preparation.startMs, durationMs);
+            }
+            scheduler.replan(preparation.bartender, preparation.startMs + durationMs);
+            scheduleCompletion(preparation, preparation.startMs + durationMs - nowMs);
+            cancelled(order, nowMs, false);
         }
+        return true;
+    }
 
-        // Marquer comme terminée
-        Platform.runLater(() -> {
-            order.setProgress(100);
-            order.setStatus(Order.OrderStatus.COMPLETED);
-            order.setTimeCompleted(LocalDateTime.now());
-        });
+    private void cancelled(Order order, long nowMs, boolean bartenderFreed) {
+        order.getReservation().release();
+        stockForecast.settled(order.getReservation());
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        metrics.orderCancelled(order, nowMs, bartenderFreed);
+        listeners.forEach(l -> l.onCancelled(order));
     }
 
     // ===== Préparation de commande (ancienne méthode, conservée pour compatibilité) =====
-    public boolean prepareOrder(Order order) {
-        if (employees.isEmpty()) return false;
-
-        for (Cocktail c : order.getCocktails()) {
-            if (!c.isPrepareable(this)) return false;
 
-            Employee fastest = employees.stream()
-                    .max((e1, e2) -> e1.getSpeed() - e2.getSpeed())
-                    .orElse(employees.get(0));
-
-            if (!fastest.prepare(c, this)) return false;
+    /**
+     * Prépare la commande sur-le-champ, hors file. Tout ou rien : les quantités
+     * cumulées de tous ses cocktails sont réservées d'un coup, puis consommées.
+     */
+    public boolean prepareOrder(Order order) {
+        synchronized (this) {
+            if (employees.isEmpty()) return false;
         }
+        Optional<StockReservation> reservation = reserve(order);
+        if (reservation.isEmpty()) return false;
+        reservation.get().commit();
+        stockForecast.committed(reservation.get());
         return true;
     }
 
@@ -234,13 +706,16 @@ public class Bar {
 
     // ===== Arrêt du bar =====
     public void shutdown() {
-        executorService.shutdown();
+        metrics.unregister();
+        if (ownsClock) clock.shutdown();
+        if (!(executor instanceof ExecutorService pool)) return;
+        pool.shutdown();
         try {
-            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executorService.shutdownNow();
+            pool.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
@@ -0,0 +1,37 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Horloge du bar : donne l'heure simulée et déclenche des événements planifiés.
+ * Tous les délais sont exprimés en millisecondes de temps simulé.
+ */
+public interface BarClock {
+
+    /** Événement planifié, annulable tant qu'il ne s'est pas produit. */
+    interface Scheduled {
+        boolean cancel();
+    }
+
+    /** Heure simulée courante (ms depuis l'epoch). */
+    long millis();
+
+    Scheduled schedule(Runnable task, long delayMs);
+
+    Scheduled scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs);
+
+    /** Combien de millisecondes simulées s'écoulent par milliseconde réelle. */
+    default double speed() {
+        return 1.0;
+    }
+
+    default void shutdown() {
+    }
+
+    static BarClock realTime() {
+        return new RealTimeClock();
+    }
+
+    /** Horloge accélérée : {@code scaled(1000)} fait passer 1000 ms simulées par ms réelle. */
+    static BarClock scaled(double speed) {
+        return new ScaledClock(speed);
+    }
+}
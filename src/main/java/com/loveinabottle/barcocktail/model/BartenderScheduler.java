@@ -0,0 +1,282 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+
+/**
+ * Répartit les commandes entre les bartenders.
+ * Chaque bartender a sa propre file, triée selon la politique du bar
+ * ({@link Bar.QueuePolicy}) ; une nouvelle commande va au bartender qui la
+ * terminerait le plus tôt compte tenu de sa vitesse. Un bartender libre prend
+ * la commande la plus urgente entre la tête de sa file et celles des
+ * bartenders occupés, sinon vole la tête de la file la plus chargée ; il ne
+ * prend jamais à un autre une commande que celui-ci terminerait avant lui.
+ * Il peut y ajouter les commandes proches en file qui demandent les mêmes
+ * cocktails, préparées ensemble en une seule tournée ({@link #nextBatch}).
+ */
+public class BartenderScheduler {
+    /** Part du temps d'un cocktail payée par chaque exemplaire venant d'une autre commande de la même tournée. */
+    public static final double BATCH_EXTRA_SHARE = 0.35;
+
+    private static final class Lane {
+        final Bartender bartender;
+        final OrderQueue queue = new OrderQueue();
+        long busyUntil;         // fin estimée de la commande en cours (ms)
+        boolean busy;
+
+        Lane(Bartender bartender) {
+            this.bartender = bartender;
+        }
+
+        long workMs(long ingredients, long msPerIngredient) {
+            return ingredients * msPerIngredient / bartender.getSpeed();
+        }
+
+        long queuedWorkMs(long msPerIngredient) {
+            return workMs(queue.totalIngredients(), msPerIngredient);
+        }
+
+        /** Début estimé d'une commande précédée de {@code ingredientsAhead} ingrédients dans cette file. */
+        long startAfter(long ingredientsAhead, long now, long msPerIngredient) {
+            return Math.max(busyUntil, now) + workMs(ingredientsAhead, msPerIngredient);
+        }
+    }
+
+    private final long msPerIngredient;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Map<Bartender, Lane> laneByBartender = new HashMap<>();
+    private final Map<Order, Lane> laneByOrder = new HashMap<>();
+    private long arrivals;
+    private Bar.QueuePolicy policy = Bar.QueuePolicy.FIFO;
+
+    public BartenderScheduler(long msPerIngredient) {
+        this.msPerIngredient = msPerIngredient;
+    }
+
+    public synchronized void addBartender(Bartender bartender) {
+        if (laneByBartender.containsKey(bartender)) return;
+        Lane lane = new Lane(bartender);
+        lanes.add(lane);
+        laneByBartender.put(bartender, lane);
+    }
+
+    public synchronized Bar.QueuePolicy getPolicy() {
+        return policy;
+    }
+
+    /** Change la politique ; les commandes déjà en file sont reclassées. */
+    public synchronized void setPolicy(Bar.QueuePolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+        for (Lane lane : lanes) {
+            lane.queue.rekey(this::keyOf);
+        }
+    }
+
+    /** Clé de service : plus petite, plus tôt servie ; à clé égale, ordre d'arrivée. */
+    private long keyOf(Order order) {
+        return switch (policy) {
+            case FIFO -> 0;
+            case PRIORITY -> order.getPriority().ordinal();
+            case DEADLINE -> order.getDeadlineMs();
+        };
+    }
+
+    public synchronized boolean hasQueuedOrders() {
+        return !laneByOrder.isEmpty();
+    }
+
+    /** Durée estimée d'une commande pour un bartender donné. */
+    public long estimateDurationMs(Order order, Employee bartender) {
+        return estimateDurationMs(List.of(order), bartender);
+    }
+
+    /**
+     * Durée estimée d'une tournée : chaque cocktail coûte son nombre
+     * d'ingrédients en entier dans la première commande qui le demande, puis
+     * {@link #BATCH_EXTRA_SHARE} de ce coût par exemplaire venant d'une autre
+     * commande (verres alignés, doses versées d'affilée). Les exemplaires d'une
+     * même commande sont tous comptés en entier, une commande seule coûte donc
+     * la même chose préparée seule ou en tête de tournée.
+     */
+    public long estimateDurationMs(List<Order> batch, Employee bartender) {
+        if (batch.size() == 1) {
+            return Math.round((double) batch.get(0).getTotalIngredients() * msPerIngredient / bartender.getSpeed());
+        }
+        Set<Cocktail> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        double ingredients = 0;
+        for (Order order : batch) {
+            for (Cocktail cocktail : order.getCocktails()) {
+                ingredients += cocktail.getRecipe().size() * (seen.contains(cocktail) ? BATCH_EXTRA_SHARE : 1);
+            }
+            seen.addAll(order.getCocktails());
+        }
+        return Math.round(ingredients * msPerIngredient / bartender.getSpeed());
+    }
+
+    /**
+     * Attente avant le début de la commande si elle était placée maintenant,
+     * chez le bartender qui la terminerait le plus tôt ; -1 s'il n'y a aucun bartender.
+     * Seules comptent les commandes qu'elle ne doublerait pas selon la politique.
+     */
+    public synchronized long estimateWaitMs(Order order, long now) {
+        Lane best = bestLane(order, now);
+        if (best == null) return -1;
+        return best.startAfter(best.queue.ingredientsAhead(keyOf(order)), now, msPerIngredient) - now;
+    }
+
+    /**
+     * Place la commande dans la file du bartender qui la terminerait le plus tôt.
+     * @return le bartender choisi, ou null s'il n'y en a aucun
+     */
+    public synchronized Bartender assign(Order order, long now) {
+        Lane best = bestLane(order, now);
+        if (best == null) return null;
+
+        best.queue.add(order, keyOf(order), arrivals++);
+        laneByOrder.put(order, best);
+        return best.bartender;
+    }
+
+    private Lane bestLane(Order order, long now) {
+        long key = keyOf(order);
+        Lane best = null;
+        long bestCompletion = Long.MAX_VALUE;
+        for (Lane lane : lanes) {
+            long completion = lane.startAfter(lane.queue.ingredientsAhead(key), now, msPerIngredient)
+                    + estimateDurationMs(order, lane.bartender);
+            if (completion < bestCompletion) {
+                best = lane;
+                bestCompletion = completion;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Début et fin estimés d'une commande en file ou en préparation, d'après
+     * les ingrédients des commandes qui la précèdent dans sa file (sommes
+     * partielles tenues à jour dans l'arbre de la file) : O(log n).
+     * @return null si la commande n'est ni en file ni en préparation
+     */
+    public synchronized OrderEta estimate(Order order, long now) {
+        Lane lane = laneByOrder.get(order);
+        if (lane == null) {
+            if (order.getStatus() != Order.OrderStatus.IN_PROGRESS) return null;
+            long start = order.getStartedAtMs();
+            return new OrderEta(order, 0, start, start + order.getPlannedDurationMs());
+        }
+        long start = lane.startAfter(lane.queue.ingredientsBefore(order), now, msPerIngredient);
+        return new OrderEta(order, lane.queue.countBefore(order), start,
+                start + estimateDurationMs(order, lane.bartender));
+    }
+
+    /**
+     * Prochaine tournée pour un bartender libre. Sa première commande est la
+     * plus urgente entre la tête de sa file et celles des bartenders occupés
+     * (qui ne pourraient pas la servir avant longtemps), sinon la tête de la
+     * file la plus chargée ; une tête d'une autre file n'est prise que s'il la
+     * termine au plus tard quand son bartender l'aurait terminée, si bien
+     * qu'un vol n'allonge jamais l'estimation d'une commande. Lui sont adjointes celles qui, parmi les
+     * {@code window} premières de chaque file, ne contiennent que des
+     * cocktails déjà dans la tournée et sont au moins aussi urgentes qu'elle
+     * selon la politique (au plus {@code window} commandes en tout) : toute la
+     * tournée se termine ensemble, une commande moins urgente la retarderait.
+     * Le bartender est marqué occupé si la tournée n'est pas vide.
+     * @return la tournée, vide si rien n'est en file ; la première commande est la plus urgente
+     */
+    public synchronized List<Order> nextBatch(Bartender bartender, long now, int window) {
+        Lane lane = laneByBartender.get(bartender);
+        if (lane == null || lane.busy) return List.of();
+
+        Lane source = lane;
+        for (Lane other : lanes) {
+            if (other.busy && other.queue.headBefore(source.queue) && finishesNoLater(lane, other, now)) source = other;
+        }
+        if (source.queue.isEmpty()) {
+            source = busiestOtherLane(lane, now);
+            if (source == null) return List.of();
+        }
+        Order first = source.queue.pollFirst();
+        laneByOrder.remove(first);
+
+        List<Order> batch = new ArrayList<>();
+        batch.add(first);
+        if (window > 1) collectBatch(batch, lane, window);
+
+        lane.busy = true;
+        lane.busyUntil = now + estimateDurationMs(batch, bartender);
+        return batch;
+    }
+
+    private void collectBatch(List<Order> batch, Lane own, int window) {
+        Set<Cocktail> cocktails = Collections.newSetFromMap(new IdentityHashMap<>());
+        cocktails.addAll(batch.get(0).getCocktails());
+        long headKey = keyOf(batch.get(0));
+        // Sa propre file d'abord, puis celles des autres
+        List<Lane> scanOrder = new ArrayList<>(lanes.size());
+        scanOrder.add(own);
+        for (Lane other : lanes) {
+            if (other != own) scanOrder.add(other);
+        }
+        for (Lane lane : scanOrder) {
+            List<Order> joining = new ArrayList<>();
+            int scanned = 0;
+            for (Order candidate : lane.queue) {
+                if (scanned++ >= window || batch.size() + joining.size() >= window) break;
+                if (keyOf(candidate) > headKey) break; // file triée : les suivantes sont moins urgentes encore
+                if (cocktails.containsAll(candidate.getCocktails())) joining.add(candidate);
+            }
+            for (Order joined : joining) {
+                lane.queue.remove(joined);
+                laneByOrder.remove(joined);
+                batch.add(joined);
+            }
+            if (batch.size() >= window) return;
+        }
+    }
+
+    /** Le bartender libre {@code thief} terminerait la tête de {@code owner} au plus tard quand {@code owner} l'aurait terminée. */
+    private boolean finishesNoLater(Lane thief, Lane owner, long now) {
+        Order head = owner.queue.peekFirst();
+        return now + estimateDurationMs(head, thief.bartender)
+                <= owner.startAfter(0, now, msPerIngredient) + estimateDurationMs(head, owner.bartender);
+    }
+
+    private Lane busiestOtherLane(Lane self, long now) {
+        Lane busiest = null;
+        for (Lane lane : lanes) {
+            if (lane == self || lane.queue.isEmpty() || !finishesNoLater(self, lane, now)) continue;
+            if (busiest == null || lane.queuedWorkMs(msPerIngredient) > busiest.queuedWorkMs(msPerIngredient)) {
+                busiest = lane;
+            }
+        }
+        return busiest;
+    }
+
+    /** Retire une commande de sa file en O(log n) ; false si elle n'est pas en file. */
+    public synchronized boolean remove(Order order) {
+        Lane lane = laneByOrder.remove(order);
+        return lane != null && lane.queue.remove(order);
+    }
+
+    /** La tournée en cours du bartender a été replanifiée et se terminera à {@code busyUntil}. */
+    public synchronized void replan(Bartender bartender, long busyUntil) {
+        Lane lane = laneByBartender.get(bartender);
+        if (lane != null && lane.busy) lane.busyUntil = busyUntil;
+    }
+
+    /** Le bartender a terminé sa commande en cours. */
+    public synchronized void finished(Bartender bartender) {
+        Lane lane = laneByBartender.get(bartender);
+        if (lane == null) return;
+        lane.busy = false;
+        lane.busyUntil = 0;
+    }
+
+    public synchronized List<Bartender> getIdleBartenders() {
+        List<Bartender> idle = new ArrayList<>();
+        for (Lane lane : lanes) {
+            if (!lane.busy) idle.add(lane.bartender);
+        }
+        return idle;
+    }
+}
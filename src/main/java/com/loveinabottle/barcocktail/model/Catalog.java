@@ -0,0 +1,46 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Catalogue indexé par nom, insensible à la casse.
+ * Garde l'ordre d'ajout pour l'affichage et une table de hachage
+ * (clé normalisée) pour les recherches en O(1).
+ */
+public class Catalog<T> {
+    private final Function<T, String> nameOf;
+    private final List<T> items = new ArrayList<>();
+    private final Map<String, T> index = new ConcurrentHashMap<>();
+
+    public Catalog(Function<T, String> nameOf) {
+        this.nameOf = nameOf;
+    }
+
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ajoute un élément. En cas de doublon de nom, le premier ajouté reste
+     * celui retourné par {@link #find(String)}.
+     */
+    public synchronized void add(T item) {
+        items.add(item);
+        index.putIfAbsent(normalize(nameOf.apply(item)), item);
+    }
+
+    public T find(String name) {
+        if (name == null) return null;
+        return index.get(normalize(name));
+    }
+
+    public synchronized List<T> all() {
+        return new ArrayList<>(items);
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+}
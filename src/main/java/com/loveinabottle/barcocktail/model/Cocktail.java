@@ -18,7 +18,10 @@ public class Cocktail {
     public Map<Ingredient, Integer> getRecipe() { return recipe; }
     public double getBasePrice() { return basePrice; }
 
+    /** Au moins un exemplaire réalisable avec le stock du bar (lecture de l'index du bar si le cocktail est au menu). */
     public boolean isPrepareable(Bar bar) {
+        int makeable = bar.getMakeableCount(this);
+        if (makeable >= 0) return makeable > 0;
         for (Map.Entry<Ingredient, Integer> e : recipe.entrySet()) {
             Ingredient key = bar.findIngredientByName(e.getKey().getName());
             if (key == null || key.getStockUnits() < e.getValue()) return false;
@@ -29,7 +32,9 @@ public class Cocktail {
     public void consumeIngredients(Bar bar) {
         for (Map.Entry<Ingredient, Integer> e : recipe.entrySet()) {
             Ingredient key = bar.findIngredientByName(e.getKey().getName());
-            if (key != null) key.removeUnits(e.getValue());
+            if (key == null) continue;
+            key.removeUnits(e.getValue());
+            bar.getStockForecast().consumed(key, e.getValue());
         }
     }
 
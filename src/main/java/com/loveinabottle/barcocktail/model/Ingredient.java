@@ -1,27 +1,66 @@
 package com.loveinabottle.barcocktail.model;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Ingredient {
     private final String name;
     private final double volumePerUnit;
     private final boolean alcoholic;
-    private int stockUnits;
+    private final AtomicInteger stockUnits;
+    private volatile StockListener stockListener; // posé par le bar qui détient l'ingrédient
 
     public Ingredient(String name, double volumePerUnit, boolean alcoholic, int stockUnits) {
         this.name = name;
         this.volumePerUnit = volumePerUnit;
         this.alcoholic = alcoholic;
-        this.stockUnits = stockUnits;
+        this.stockUnits = new AtomicInteger(stockUnits);
     }
 
     public String getName() { return name; }
     public double getVolumePerUnit() { return volumePerUnit; }
     public boolean isAlcoholic() { return alcoholic; }
-    public int getStockUnits() { return stockUnits; }
+    public int getStockUnits() { return stockUnits.get(); }
 
-    public void removeUnits(int u) { this.stockUnits -= u; }
-    public void addUnits(int u) { this.stockUnits += u; }
+    public void removeUnits(int u) { changed(-u, stockUnits.addAndGet(-u)); }
+    public void addUnits(int u) { changed(u, stockUnits.addAndGet(u)); }
+
+    void setStockListener(StockListener listener) { stockListener = listener; }
+
+    /**
+     * Retire {@code u} unités seulement si le stock le permet (CAS, sans verrou).
+     * @return false si le stock est insuffisant, rien n'est alors retiré
+     */
+    public boolean tryRemoveUnits(int u) {
+        int after = take(u);
+        if (after < 0) return false;
+        changed(-u, after);
+        return true;
+    }
+
+    /**
+     * Comme {@link #tryRemoveUnits}, sans prévenir l'écouteur : le bar notifie
+     * la réservation entière d'un coup.
+     * @return le stock restant, -1 si le stock est insuffisant
+     */
+    int take(int u) {
+        int current;
+        do {
+            current = stockUnits.get();
+            if (current < u) return -1;
+        } while (!stockUnits.compareAndSet(current, current - u));
+        return current - u;
+    }
+
+    /** Remise en stock sans prévenir l'écouteur (voir {@link #take}). */
+    int giveBack(int u) {
+        return stockUnits.addAndGet(u);
+    }
+
+    private void changed(int delta, int unitsAfter) {
+        StockListener listener = stockListener;
+        if (listener != null && delta != 0) listener.onStockChanged(this, delta, unitsAfter);
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -38,6 +77,6 @@ public class Ingredient {
 
     @Override
     public String toString() {
-        return name + " (stock=" + stockUnits + ")";
+        return name + " (stock=" + stockUnits.get() + ")";
     }
 }
@@ -0,0 +1,133 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nombre d'exemplaires encore réalisables de chaque cocktail du menu, tenu à
+ * jour au fil des variations de stock.
+ *
+ * <p>Un index inverse associe chaque ingrédient du stock aux cocktails qui
+ * l'utilisent : une variation ne recalcule que ces cocktails. La lecture d'un
+ * compte est une simple lecture volatile, sans verrou.</p>
+ *
+ * <p>Un cocktail ajouté au menu n'est indexé qu'à la première lecture de son
+ * propre compte : les recettes d'un instantané ne sont décodées que pour les
+ * cocktails effectivement consultés.</p>
+ */
+final class MenuAvailability {
+
+    private static final class Slot {
+        final String[] keys;            // noms normalisés
+        final Ingredient[] ingredients; // instance du stock, null si absente
+        final int[] quantities;
+        volatile int makeable;
+
+        Slot(int size) {
+            this.keys = new String[size];
+            this.ingredients = new Ingredient[size];
+            this.quantities = new int[size];
+        }
+
+        void recompute() {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < ingredients.length && min > 0; i++) {
+                int quantity = quantities[i];
+                if (quantity <= 0) continue;
+                min = ingredients[i] == null ? 0 : Math.min(min, ingredients[i].getStockUnits() / quantity);
+            }
+            makeable = min;
+        }
+    }
+
+    private final Bar bar;
+    private final Map<Cocktail, Slot> slots = new ConcurrentHashMap<>();
+
+    // Protégés par le verrou de l'index
+    private final Map<Ingredient, List<Slot>> usedBy = new IdentityHashMap<>();
+    private final Map<String, List<Slot>> missing = new HashMap<>(); // nom normalisé -> cocktails en attente
+    private final Set<Cocktail> pending = new HashSet<>();
+    private volatile boolean hasPending;
+
+    MenuAvailability(Bar bar) {
+        this.bar = bar;
+    }
+
+    /**
+     * Nombre d'exemplaires réalisables avec le stock actuel ({@code Integer.MAX_VALUE}
+     * pour une recette vide) ; -1 si le cocktail n'est pas au menu.
+     */
+    int getMakeableCount(Cocktail cocktail) {
+        Slot slot = slots.get(cocktail);
+        if (slot == null && hasPending) slot = indexPending(cocktail);
+        return slot == null ? -1 : slot.makeable;
+    }
+
+    synchronized void addCocktail(Cocktail cocktail) {
+        pending.add(cocktail);
+        hasPending = true;
+    }
+
+    private synchronized Slot indexPending(Cocktail cocktail) {
+        if (pending.remove(cocktail)) {
+            index(cocktail);
+            hasPending = !pending.isEmpty();
+        }
+        return slots.get(cocktail);
+    }
+
+    private void index(Cocktail cocktail) {
+        if (slots.containsKey(cocktail)) return;
+        Map<Ingredient, Integer> recipe = cocktail.getRecipe();
+        Slot slot = new Slot(recipe.size());
+        int i = 0;
+        for (Map.Entry<Ingredient, Integer> e : recipe.entrySet()) {
+            Ingredient inStock = bar.findIngredientByName(e.getKey().getName());
+            slot.keys[i] = Catalog.normalize(e.getKey().getName());
+            slot.quantities[i] = e.getValue();
+            slot.ingredients[i] = inStock;
+            if (inStock != null) {
+                usedBy.computeIfAbsent(inStock, k -> new ArrayList<>()).add(slot);
+            } else {
+                missing.computeIfAbsent(slot.keys[i], k -> new ArrayList<>()).add(slot);
+            }
+            i++;
+        }
+        slot.recompute();
+        slots.put(cocktail, slot);
+    }
+
+    /** Un ingrédient arrive au stock : les cocktails qui l'attendaient le référencent désormais. */
+    synchronized void addIngredient(Ingredient ingredient) {
+        String key = Catalog.normalize(ingredient.getName());
+        List<Slot> waiting = missing.remove(key);
+        if (waiting == null) return;
+        List<Slot> users = usedBy.computeIfAbsent(ingredient, k -> new ArrayList<>());
+        for (Slot slot : waiting) {
+            for (int i = 0; i < slot.keys.length; i++) {
+                if (slot.ingredients[i] == null && slot.keys[i].equals(key)) slot.ingredients[i] = ingredient;
+            }
+            users.add(slot);
+            slot.recompute();
+        }
+    }
+
+    /**
+     * Recalcule les cocktails qui utilisent l'ingrédient. Sous verrou : le
+     * dernier recalcul, qui suit la dernière variation, lit le stock final.
+     */
+    synchronized void stockChanged(Ingredient ingredient) {
+        List<Slot> users = usedBy.get(ingredient);
+        if (users == null) return;
+        for (Slot slot : users) {
+            slot.recompute();
+        }
+    }
+
+    /** Plusieurs ingrédients d'un coup (une réservation), sous un seul verrou. */
+    synchronized void stockChanged(Collection<Ingredient> ingredients) {
+        for (Ingredient ingredient : ingredients) {
+            stockChanged(ingredient);
+        }
+    }
+}
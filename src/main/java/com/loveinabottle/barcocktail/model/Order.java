@@ -1,35 +1,67 @@
 package com.loveinabottle.barcocktail.model;
 
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleObjectProperty;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public class Order {
     public enum OrderStatus {
-        QUEUED("En attente"), IN_PROGRESS("En préparation"), COMPLETED("Terminée"), FAILED("Échouée");
+        QUEUED("En attente"), IN_PROGRESS("En préparation"), COMPLETED("Terminée"), FAILED("Échouée"),
+        CANCELLED("Annulée");
 
         private final String displayName;
         OrderStatus(String displayName) { this.displayName = displayName; }
         public String getDisplayName() { return displayName; }
     }
 
+    /** Classe de service, de la plus prioritaire à la moins prioritaire. */
+    public enum Priority {
+        VIP("VIP", 2 * 60_000, 1.0), TABLE("Service à table", 5 * 60_000, 0.8),
+        TAKEAWAY("À emporter", 10 * 60_000, 0.6);
+
+        private final String displayName;
+        private final long targetWaitMs;
+        private final double admissionShare;
+        Priority(String displayName, long targetWaitMs, double admissionShare) {
+            this.displayName = displayName;
+            this.targetWaitMs = targetWaitMs;
+            this.admissionShare = admissionShare;
+        }
+        public String getDisplayName() { return displayName; }
+        /** Attente visée par défaut quand la commande n'a pas d'heure de service cible. */
+        public long getTargetWaitMs() { return targetWaitMs; }
+        /** Part des limites d'admission du bar ouverte à cette classe : les plus basses sont refusées les premières. */
+        public double getAdmissionShare() { return admissionShare; }
+    }
+
     private final String id;
     private final Client client;
     private final List<Cocktail> cocktails;
-    private final ObjectProperty<OrderStatus> status = new SimpleObjectProperty<>(OrderStatus.QUEUED);
-    private final IntegerProperty progress = new SimpleIntegerProperty(0);
-    private LocalDateTime timeStarted;
-    private LocalDateTime timeCompleted;
-    private Employee assignedBartender;
+    private final int totalIngredients;
+    private final double total;
+    private volatile OrderStatus status = OrderStatus.QUEUED;
+    private volatile int progress;
+    private volatile LocalDateTime timeStarted;
+    private volatile LocalDateTime timeCompleted;
+    private volatile Employee assignedBartender;
+    private volatile StockReservation reservation;
+    private volatile Priority priority = Priority.TABLE;
+    private volatile long targetServeAtMs;   // horloge du bar, 0 si aucune
+    private volatile long queuedAtMs;        // horloge du bar
+    private volatile long startedAtMs;       // horloge du bar
+    private volatile long plannedDurationMs; // 0 tant que la préparation n'a pas commencé
 
     public Order(Client client, List<Cocktail> cocktails) {
-        this.id = UUID.randomUUID().toString().substring(0, 8);
+        this(UUID.randomUUID().toString().substring(0, 8), client, cocktails);
+    }
+
+    /** Recrée une commande dont l'identifiant est déjà connu (reprise depuis le journal). */
+    public Order(String id, Client client, List<Cocktail> cocktails) {
+        this.id = id;
         this.client = client;
         this.cocktails = cocktails;
+        this.totalIngredients = cocktails.stream().mapToInt(c -> c.getRecipe().size()).sum();
+        this.total = cocktails.stream().mapToDouble(Cocktail::getBasePrice).sum();
     }
 
     // Getters
@@ -37,25 +69,62 @@ public class Order {
     public Client getClient() { return client; }
     public List<Cocktail> getCocktails() { return cocktails; }
 
-    public OrderStatus getStatus() { return status.get(); }
-    public ObjectProperty<OrderStatus> statusProperty() { return status; }
-
-    public int getProgress() { return progress.get(); }
-    public IntegerProperty progressProperty() { return progress; }
+    public OrderStatus getStatus() { return status; }
+    public int getProgress() { return progress; }
 
     public LocalDateTime getTimeStarted() { return timeStarted; }
     public LocalDateTime getTimeCompleted() { return timeCompleted; }
     public Employee getAssignedBartender() { return assignedBartender; }
+    public StockReservation getReservation() { return reservation; }
+    public Priority getPriority() { return priority; }
+    public long getTargetServeAtMs() { return targetServeAtMs; }
+    public long getQueuedAtMs() { return queuedAtMs; }
+    public long getStartedAtMs() { return startedAtMs; }
+    public long getPlannedDurationMs() { return plannedDurationMs; }
 
     // Setters
-    public void setStatus(OrderStatus newStatus) { status.set(newStatus); }
-    public void setProgress(int value) { progress.set(Math.min(100, Math.max(0, value))); }
+    public void setStatus(OrderStatus newStatus) { status = newStatus; }
+    public void setProgress(int value) { progress = Math.min(100, Math.max(0, value)); }
     public void setTimeStarted(LocalDateTime time) { timeStarted = time; }
     public void setTimeCompleted(LocalDateTime time) { timeCompleted = time; }
     public void setAssignedBartender(Employee bartender) { assignedBartender = bartender; }
+    public void setPriority(Priority priority) { this.priority = priority; }
+    /** Heure (horloge du bar) à laquelle la commande devrait être servie ; à fixer avant la soumission. */
+    public void setTargetServeAtMs(long timeMs) { targetServeAtMs = timeMs; }
+    void setReservation(StockReservation reservation) { this.reservation = reservation; }
+    void setQueuedAtMs(long timeMs) { queuedAtMs = timeMs; }
+
+    void setPreparationWindow(long startMs, long durationMs) {
+        startedAtMs = startMs;
+        plannedDurationMs = durationMs;
+    }
+
+    /** Échéance de service : l'heure cible, sinon l'admission plus l'attente visée de sa classe. */
+    public long getDeadlineMs() {
+        long target = targetServeAtMs;
+        return target > 0 ? target : queuedAtMs + priority.getTargetWaitMs();
+    }
+
+    /**
+     * Progression estimée à l'instant donné (horloge du bar), d'après le début
+     * et la durée prévue ; plafonnée à 99 tant que la commande n'est pas terminée.
+     */
+    public int progressAt(long nowMs) {
+        if (status == OrderStatus.COMPLETED) return 100;
+        long duration = plannedDurationMs;
+        if (duration <= 0) return progress;
+        long elapsed = Math.max(0, nowMs - startedAtMs);
+        return (int) Math.min(99, elapsed * 100 / duration);
+    }
+
+    /** Nombre total d'ingrédients à doser (base du temps de préparation). */
+    public int getTotalIngredients() {
+        return totalIngredients;
+    }
 
+    /** Prix total, calculé une fois à la création (les prix des cocktails ne changent pas). */
     public double calculateTotal() {
-        return cocktails.stream().mapToDouble(Cocktail::getBasePrice).sum();
+        return total;
     }
 
     @Override
@@ -0,0 +1,35 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Estimation, à un instant donné, du début et de la fin de préparation d'une
+ * commande (horloge du bar), et du nombre de commandes servies avant elle par
+ * le même bartender.
+ */
+public class OrderEta {
+    private final Order order;
+    private final int ordersAhead;
+    private final long startMs;
+    private final long finishMs;
+
+    OrderEta(Order order, int ordersAhead, long startMs, long finishMs) {
+        this.order = order;
+        this.ordersAhead = ordersAhead;
+        this.startMs = startMs;
+        this.finishMs = finishMs;
+    }
+
+    public Order getOrder() { return order; }
+    public int getOrdersAhead() { return ordersAhead; }
+    public long getStartMs() { return startMs; }
+    public long getFinishMs() { return finishMs; }
+
+    /** Attente restante avant le début de la préparation (0 si déjà commencée). */
+    public long getWaitMs(long nowMs) {
+        return Math.max(0, startMs - nowMs);
+    }
+
+    /** Temps restant avant que la commande soit prête. */
+    public long getRemainingMs(long nowMs) {
+        return Math.max(0, finishMs - nowMs);
+    }
+}
@@ -0,0 +1,161 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+
+/**
+ * Historique des commandes terminées : les {@code capacity} dernières sont
+ * gardées dans un tampon circulaire, les plus anciennes sont oubliées.
+ * Les totaux (chiffre d'affaires, nombre de commandes, par cocktail et par
+ * bartender) couvrent tout le service et sont tenus à jour à chaque ajout,
+ * sans jamais reparcourir l'historique. Les bartenders sont désignés par leur
+ * identifiant, stable, et non par leur nom, qui peut être partagé ou changer.
+ */
+public class OrderHistory {
+    public static final int DEFAULT_CAPACITY = 1_000;
+
+    /** Cumul de ventes pour un cocktail ou un bartender. */
+    public static final class Totals {
+        private long count;
+        private double revenue;
+
+        Totals() {
+        }
+
+        public Totals(long count, double revenue) {
+            this.count = count;
+            this.revenue = revenue;
+        }
+
+        public long getCount() { return count; }
+        public double getRevenue() { return revenue; }
+
+        @Override
+        public String toString() {
+            return count + " (" + String.format("%.2f €", revenue) + ")";
+        }
+    }
+
+    private Order[] ring;
+    private int head;  // prochaine case à écrire
+    private int size;
+    private long completedCount;
+    private double totalRevenue;
+    private final Map<String, Totals> byCocktail = new HashMap<>();
+    private final Map<String, Totals> byBartender = new HashMap<>(); // par identifiant d'employé
+
+    public OrderHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OrderHistory(int capacity) {
+        ring = new Order[requirePositive(capacity)];
+    }
+
+    private static int requirePositive(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacité invalide: " + capacity);
+        return capacity;
+    }
+
+    /** Enregistre une commande terminée. */
+    public synchronized void add(Order order) {
+        ring[head] = order;
+        head = (head + 1) % ring.length;
+        if (size < ring.length) size++;
+
+        double total = order.calculateTotal();
+        completedCount++;
+        totalRevenue += total;
+        for (Cocktail cocktail : order.getCocktails()) {
+            Totals t = byCocktail.computeIfAbsent(cocktail.getName(), k -> new Totals());
+            t.count++;
+            t.revenue += cocktail.getBasePrice();
+        }
+        Employee bartender = order.getAssignedBartender();
+        if (bartender != null) {
+            Totals t = byBartender.computeIfAbsent(bartender.getId(), k -> new Totals());
+            t.count++;
+            t.revenue += total;
+        }
+    }
+
+    /** Change la rétention ; les commandes les plus anciennes sont oubliées si elle diminue. */
+    public synchronized void setCapacity(int capacity) {
+        List<Order> kept = recent();
+        ring = new Order[requirePositive(capacity)];
+        head = 0;
+        size = 0;
+        for (Order order : kept.subList(Math.max(0, kept.size() - capacity), kept.size())) {
+            ring[size++] = order;
+        }
+        head = size % ring.length;
+    }
+
+    public synchronized int getCapacity() {
+        return ring.length;
+    }
+
+    /** Commandes gardées en mémoire, de la plus ancienne à la plus récente. */
+    public synchronized List<Order> recent() {
+        List<Order> orders = new ArrayList<>(size);
+        int start = (head - size + ring.length) % ring.length;
+        for (int i = 0; i < size; i++) {
+            orders.add(ring[(start + i) % ring.length]);
+        }
+        return orders;
+    }
+
+    /** Nombre de commandes gardées en mémoire (au plus la capacité). */
+    public synchronized int size() {
+        return size;
+    }
+
+    // ===== Totaux du service =====
+    public synchronized long getCompletedCount() { return completedCount; }
+    public synchronized double getTotalRevenue() { return totalRevenue; }
+
+    public synchronized Map<String, Totals> getTotalsByCocktail() {
+        return copy(byCocktail);
+    }
+
+    /** Totaux par identifiant d'employé ({@link Employee#getId()}) ; le nom se résout à l'affichage. */
+    public synchronized Map<String, Totals> getTotalsByBartender() {
+        return copy(byBartender);
+    }
+
+    private static Map<String, Totals> copy(Map<String, Totals> totals) {
+        Map<String, Totals> copy = new TreeMap<>();
+        totals.forEach((name, t) -> copy.put(name, new Totals(t.count, t.revenue)));
+        return copy;
+    }
+
+    /** Ajoute des totaux reconstitués (reprise après incident) à ceux du service en cours. */
+    public synchronized void restoreTotals(long count, double revenue,
+                                           Map<String, Totals> cocktails, Map<String, Totals> bartenders) {
+        completedCount += count;
+        totalRevenue += revenue;
+        merge(byCocktail, cocktails);
+        merge(byBartender, bartenders);
+    }
+
+    private static void merge(Map<String, Totals> into, Map<String, Totals> from) {
+        from.forEach((name, t) -> {
+            Totals current = into.computeIfAbsent(name, k -> new Totals());
+            current.count += t.count;
+            current.revenue += t.revenue;
+        });
+    }
+
+    /**
+     * Clôture de caisse : vide l'historique et remet les totaux à zéro.
+     * Non journalisée : passer par {@link Bar#clearCompletedOrders()}.
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        completedCount = 0;
+        totalRevenue = 0;
+        byCocktail.clear();
+        byBartender.clear();
+    }
+}
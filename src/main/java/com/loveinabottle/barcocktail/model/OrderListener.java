@@ -0,0 +1,36 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Cycle de vie des commandes d'un {@link Bar}.
+ * Les notifications arrivent sur le thread qui fait avancer la commande
+ * (soumission, horloge, exécuteur du bar) : une implémentation doit être
+ * rapide et thread-safe, et ne jamais bloquer.
+ */
+public interface OrderListener {
+
+    /** Commande admise et mise en file. */
+    default void onQueued(Order order) {
+    }
+
+    /** Un bartender commence la préparation ({@link Order#getAssignedBartender()}). */
+    default void onStarted(Order order) {
+    }
+
+    default void onProgress(Order order, int progress) {
+    }
+
+    default void onCompleted(Order order) {
+    }
+
+    /** Commande admise qui n'a pas pu être préparée. */
+    default void onFailed(Order order) {
+    }
+
+    /** Commande annulée en file ou en préparation ({@link Bar#cancelOrder}) ; ses ingrédients sont rendus. */
+    default void onCancelled(Order order) {
+    }
+
+    /** Historique vidé et totaux remis à zéro ({@link Bar#clearCompletedOrders}, clôture de caisse). */
+    default void onHistoryCleared() {
+    }
+}
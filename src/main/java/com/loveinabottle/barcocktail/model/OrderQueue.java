@@ -0,0 +1,252 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * File d'attente d'un bartender, triée par clé de service (selon la politique
+ * du bar) puis par ordre d'arrivée.
+ *
+ * <p>Arbre binaire de recherche équilibré aléatoirement (treap) dont chaque
+ * nœud connaît le nombre de commandes et d'ingrédients de son sous-arbre,
+ * plus un index par commande : ajout, retrait de la tête ou d'une commande
+ * quelconque, et travail en file devant une commande, en O(log n).</p>
+ */
+final class OrderQueue implements Iterable<Order> {
+
+    private static final class Entry {
+        final Order order;
+        final long seq;
+        final int heapPriority;
+        long key;
+        Entry left;
+        Entry right;
+        int count;          // commandes du sous-arbre
+        long ingredients;   // ingrédients du sous-arbre
+
+        Entry(Order order, long key, long seq, int heapPriority) {
+            this.order = order;
+            this.key = key;
+            this.seq = seq;
+            this.heapPriority = heapPriority;
+        }
+
+        void update() {
+            count = 1 + count(left) + count(right);
+            ingredients = order.getTotalIngredients() + ingredients(left) + ingredients(right);
+        }
+    }
+
+    private final Map<Order, Entry> index = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Entry root;
+
+    private static int count(Entry e) {
+        return e == null ? 0 : e.count;
+    }
+
+    private static long ingredients(Entry e) {
+        return e == null ? 0 : e.ingredients;
+    }
+
+    private static int compare(long key, long seq, Entry e) {
+        int c = Long.compare(key, e.key);
+        return c != 0 ? c : Long.compare(seq, e.seq);
+    }
+
+    /** @param seq numéro d'arrivée, départage les commandes de même clé */
+    void add(Order order, long key, long seq) {
+        if (index.containsKey(order)) return;
+        Entry entry = new Entry(order, key, seq, random.nextInt());
+        entry.update();
+        index.put(order, entry);
+        insert(entry);
+    }
+
+    private void insert(Entry entry) {
+        Entry[] parts = split(root, entry.key, entry.seq);
+        root = merge(merge(parts[0], entry), parts[1]);
+    }
+
+    Order peekFirst() {
+        Entry e = first();
+        return e == null ? null : e.order;
+    }
+
+    Order pollFirst() {
+        Entry e = first();
+        if (e == null) return null;
+        remove(e.order);
+        return e.order;
+    }
+
+    boolean remove(Order order) {
+        Entry entry = index.remove(order);
+        if (entry == null) return false;
+        root = delete(root, entry);
+        return true;
+    }
+
+    private Entry first() {
+        Entry e = root;
+        if (e == null) return null;
+        while (e.left != null) e = e.left;
+        return e;
+    }
+
+    /** Vrai si la tête de cette file passe avant celle de l'autre (une file vide passe en dernier). */
+    boolean headBefore(OrderQueue other) {
+        Entry mine = first();
+        if (mine == null) return false;
+        Entry theirs = other.first();
+        return theirs == null || compare(mine.key, mine.seq, theirs) < 0;
+    }
+
+    // ===== Travail en file =====
+
+    /** Ingrédients de toutes les commandes en file. */
+    long totalIngredients() {
+        return ingredients(root);
+    }
+
+    /** Ingrédients des commandes servies avant celle-ci ; -1 si elle n'est pas dans la file. */
+    long ingredientsBefore(Order order) {
+        Entry entry = index.get(order);
+        if (entry == null) return -1;
+        return ingredientsBefore(entry.key, entry.seq);
+    }
+
+    /** Ingrédients des commandes qui passeraient avant une nouvelle commande de clé {@code key}. */
+    long ingredientsAhead(long key) {
+        return ingredientsBefore(key, Long.MAX_VALUE);
+    }
+
+    private long ingredientsBefore(long key, long seq) {
+        long sum = 0;
+        Entry e = root;
+        while (e != null) {
+            int c = compare(key, seq, e);
+            if (c <= 0) {
+                if (c == 0) return sum + ingredients(e.left);
+                e = e.left;
+            } else {
+                sum += ingredients(e.left) + e.order.getTotalIngredients();
+                e = e.right;
+            }
+        }
+        return sum;
+    }
+
+    /** Nombre de commandes servies avant celle-ci ; -1 si elle n'est pas dans la file. */
+    int countBefore(Order order) {
+        Entry entry = index.get(order);
+        if (entry == null) return -1;
+        int n = 0;
+        Entry e = root;
+        while (e != null) {
+            int c = compare(entry.key, entry.seq, e);
+            if (c == 0) return n + count(e.left);
+            if (c < 0) {
+                e = e.left;
+            } else {
+                n += count(e.left) + 1;
+                e = e.right;
+            }
+        }
+        return n;
+    }
+
+    // ===== Treap =====
+
+    /** Sépare en (avant (key, seq), à partir de (key, seq)). */
+    private static Entry[] split(Entry e, long key, long seq) {
+        if (e == null) return new Entry[2];
+        if (compare(key, seq, e) <= 0) {
+            Entry[] parts = split(e.left, key, seq);
+            e.left = parts[1];
+            e.update();
+            parts[1] = e;
+            return parts;
+        }
+        Entry[] parts = split(e.right, key, seq);
+        e.right = parts[0];
+        e.update();
+        parts[0] = e;
+        return parts;
+    }
+
+    private static Entry merge(Entry a, Entry b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.heapPriority > b.heapPriority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Entry delete(Entry e, Entry target) {
+        if (e == null) return null;
+        if (e == target) return merge(e.left, e.right);
+        if (compare(target.key, target.seq, e) < 0) {
+            e.left = delete(e.left, target);
+        } else {
+            e.right = delete(e.right, target);
+        }
+        e.update();
+        return e;
+    }
+
+    /** Recalcule les clés (changement de politique) en gardant l'ordre d'arrivée. */
+    void rekey(ToLongFunction<Order> key) {
+        List<Entry> all = new ArrayList<>(index.size());
+        collect(root, all);
+        root = null;
+        for (Entry entry : all) {
+            entry.key = key.applyAsLong(entry.order);
+            entry.left = null;
+            entry.right = null;
+            entry.update();
+            insert(entry);
+        }
+    }
+
+    private static void collect(Entry e, List<Entry> into) {
+        if (e == null) return;
+        collect(e.left, into);
+        into.add(e);
+        collect(e.right, into);
+    }
+
+    int size() {
+        return count(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    /** Commandes dans l'ordre de service (lecture seule, file non modifiée pendant le parcours). */
+    @Override
+    public Iterator<Order> iterator() {
+        Deque<Entry> path = new ArrayDeque<>();
+        for (Entry e = root; e != null; e = e.left) path.push(e);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Order next() {
+                if (path.isEmpty()) throw new NoSuchElementException();
+                Entry e = path.pop();
+                for (Entry child = e.right; child != null; child = child.left) path.push(child);
+                return e.order;
+            }
+        };
+    }
+}
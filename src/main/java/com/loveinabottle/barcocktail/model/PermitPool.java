@@ -0,0 +1,51 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Jetons de préparation dont le nombre total peut changer en plein service.
+ * Réduire la capacité sous le nombre de jetons pris n'interrompt rien :
+ * les nouvelles acquisitions attendent simplement les restitutions.
+ */
+public class PermitPool {
+
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+
+    private final ResizableSemaphore semaphore;
+    private int capacity;
+
+    public PermitPool(int capacity) {
+        this.semaphore = new ResizableSemaphore(capacity);
+        this.capacity = capacity;
+    }
+
+    public synchronized void resize(int newCapacity) {
+        int delta = Math.max(0, newCapacity) - capacity;
+        if (delta > 0) {
+            semaphore.release(delta);
+        } else if (delta < 0) {
+            semaphore.reduce(-delta);
+        }
+        capacity += delta;
+    }
+
+    public boolean tryAcquire() {
+        return semaphore.tryAcquire();
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+}
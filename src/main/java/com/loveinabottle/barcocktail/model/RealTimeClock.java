@@ -0,0 +1,46 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Horloge temps réel : les événements sont planifiés sur un
+ * {@link ScheduledExecutorService} à un seul thread, personne ne dort en attendant.
+ */
+public class RealTimeClock implements BarClock {
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bar-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    /** Convertit un délai simulé en délai réel (en nanosecondes). */
+    protected long toRealNanos(long simulatedMs) {
+        return TimeUnit.MILLISECONDS.toNanos(simulatedMs);
+    }
+
+    @Override
+    public Scheduled schedule(Runnable task, long delayMs) {
+        ScheduledFuture<?> future = timer.schedule(task, toRealNanos(Math.max(0, delayMs)), TimeUnit.NANOSECONDS);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public Scheduled scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs) {
+        ScheduledFuture<?> future = timer.scheduleAtFixedRate(task,
+                toRealNanos(Math.max(0, initialDelayMs)), Math.max(1, toRealNanos(periodMs)), TimeUnit.NANOSECONDS);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
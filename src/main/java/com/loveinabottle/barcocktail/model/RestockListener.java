@@ -0,0 +1,15 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Alertes de la prévision de stock d'un {@link Bar} ({@link StockForecast}).
+ * Appelé sur le thread qui a modifié le stock ; doit être rapide et thread-safe.
+ */
+public interface RestockListener {
+
+    /** La rupture de l'ingrédient est prévue avant l'horizon d'alerte. */
+    void onLowStock(StockForecast.Forecast forecast);
+
+    /** Réapprovisionnement automatique effectué. */
+    default void onAutoRestock(Ingredient ingredient, int units) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Horloge accélérée (x10, x1000...) pour rejouer un service plus vite.
+ * Le temps simulé part de l'heure réelle au moment de la création.
+ */
+public class ScaledClock extends RealTimeClock {
+    private final double speed;
+    private final long originMillis = System.currentTimeMillis();
+    private final long originNanos = System.nanoTime();
+
+    public ScaledClock(double speed) {
+        if (speed <= 0) throw new IllegalArgumentException("speed must be > 0: " + speed);
+        this.speed = speed;
+    }
+
+    @Override
+    public long millis() {
+        double elapsedMs = (System.nanoTime() - originNanos) / 1_000_000.0;
+        return originMillis + Math.round(elapsedMs * speed);
+    }
+
+    @Override
+    protected long toRealNanos(long simulatedMs) {
+        return Math.round(simulatedMs * 1_000_000.0 / speed);
+    }
+
+    @Override
+    public double speed() {
+        return speed;
+    }
+}
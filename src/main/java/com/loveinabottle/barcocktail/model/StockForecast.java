@@ -0,0 +1,235 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Prévision des ruptures de stock d'un {@link Bar}.
+ *
+ * <p>Chaque consommation (réservation consommée à la fin d'une préparation,
+ * {@link Cocktail#consumeIngredients}) alimente, par ingrédient, un débit à
+ * décroissance exponentielle : une somme des unités consommées pondérées par
+ * {@code 2^(-âge/demi-vie)}, mise à jour en O(1) par événement. Une réservation
+ * rendue (annulation, échec, refus à l'admission) ou une correction de niveau
+ * ne compte pas. Le temps avant rupture est le stock libre (hors unités déjà
+ * réservées par les commandes en cours, comptées à part) divisé par ce débit.</p>
+ *
+ * <p>Quand une rupture est prévue avant l'horizon d'alerte, les
+ * {@link RestockListener} sont prévenus une fois (jusqu'à ce que le stock
+ * remonte) et, si le réapprovisionnement automatique est actif, l'ingrédient
+ * est complété pour couvrir la durée configurée.</p>
+ */
+public class StockForecast {
+    public static final long DEFAULT_HALF_LIFE_MS = 15 * 60_000;
+    public static final long DEFAULT_ALERT_HORIZON_MS = 20 * 60_000;
+
+    /** État prévu d'un ingrédient à un instant donné. */
+    public static class Forecast {
+        private final Ingredient ingredient;
+        private final int freeUnits;
+        private final int reservedUnits;
+        private final double unitsPerMinute;
+        private final long timeToStockOutMs;
+
+        Forecast(Ingredient ingredient, int freeUnits, int reservedUnits, double unitsPerMinute,
+                 long timeToStockOutMs) {
+            this.ingredient = ingredient;
+            this.freeUnits = freeUnits;
+            this.reservedUnits = reservedUnits;
+            this.unitsPerMinute = unitsPerMinute;
+            this.timeToStockOutMs = timeToStockOutMs;
+        }
+
+        public Ingredient getIngredient() { return ingredient; }
+        /** Unités en stock non réservées. */
+        public int getFreeUnits() { return freeUnits; }
+        /** Unités mises de côté pour les commandes en file ou en préparation. */
+        public int getReservedUnits() { return reservedUnits; }
+        public double getUnitsPerMinute() { return unitsPerMinute; }
+        /** Temps avant rupture au débit actuel ; -1 si l'ingrédient n'est pas consommé. */
+        public long getTimeToStockOutMs() { return timeToStockOutMs; }
+
+        @Override
+        public String toString() {
+            String eta = timeToStockOutMs < 0 ? "pas de consommation" : "rupture dans " + timeToStockOutMs / 60_000 + " min";
+            return String.format("%s : %d libres, %d réservées, %.1f/min, %s",
+                    ingredient.getName(), freeUnits, reservedUnits, unitsPerMinute, eta);
+        }
+    }
+
+    private static final class Usage {
+        double decayedUnits; // somme pondérée des consommations à lastMs
+        long lastMs;
+        int reserved;
+        boolean alerted;
+    }
+
+    private final Bar bar;
+    private final Map<Ingredient, Usage> usage = new IdentityHashMap<>();
+    private final List<RestockListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile double decayPerMs = Math.log(2) / DEFAULT_HALF_LIFE_MS;
+    private volatile long alertHorizonMs = DEFAULT_ALERT_HORIZON_MS;
+    private volatile long autoRestockCoverMs; // 0 : désactivé
+
+    StockForecast(Bar bar) {
+        this.bar = bar;
+    }
+
+    public void addRestockListener(RestockListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeRestockListener(RestockListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Demi-vie de la mémoire du débit (horloge du bar) : plus courte, la prévision suit plus vite un coup de feu. */
+    public void setHalfLifeMs(long halfLifeMs) {
+        decayPerMs = Math.log(2) / Math.max(1, halfLifeMs);
+    }
+
+    /** Alerte quand la rupture est prévue dans moins de {@code horizonMs} ; 0 pour aucune alerte. */
+    public void setAlertHorizonMs(long horizonMs) {
+        alertHorizonMs = Math.max(0, horizonMs);
+    }
+
+    public long getAlertHorizonMs() {
+        return alertHorizonMs;
+    }
+
+    /**
+     * Réapprovisionnement automatique à l'alerte : l'ingrédient est complété
+     * pour couvrir, au débit actuel, l'horizon d'alerte plus {@code coverMs}
+     * (la prochaine alerte vient donc environ {@code coverMs} plus tard) ;
+     * 0 pour désactiver.
+     */
+    public void setAutoRestockCoverMs(long coverMs) {
+        autoRestockCoverMs = Math.max(0, coverMs);
+    }
+
+    // ===== Alimentation (appelée par le bar) =====
+
+    /** Niveau modifié (réapprovisionnement, correction...) : seule la prévision est revue. */
+    void stockChanged(Ingredient ingredient, int unitsAfter) {
+        Forecast alert;
+        synchronized (this) {
+            alert = update(ingredient, 0, unitsAfter, bar.getClock().millis());
+        }
+        // Hors verrou : les écouteurs et le réapprovisionnement modifient le stock à leur tour
+        if (alert != null) raise(alert);
+    }
+
+    /** Réservation prise ou rendue : le stock libre change, pas le débit. */
+    void reservationChanged(StockReservation reservation) {
+        update(reservation.getUnits(), false);
+    }
+
+    /** Réservation consommée par une préparation terminée : alimente le débit. */
+    void committed(StockReservation reservation) {
+        update(reservation.getUnits(), true);
+    }
+
+    /** Consommation directe, hors réservation ({@link Cocktail#consumeIngredients}). */
+    void consumed(Ingredient ingredient, int units) {
+        update(Map.of(ingredient, units), true);
+    }
+
+    /** Tous les ingrédients sous un seul verrou, alertes levées ensuite. */
+    private void update(Map<Ingredient, Integer> units, boolean consumption) {
+        List<Forecast> alerts = null;
+        synchronized (this) {
+            long now = bar.getClock().millis();
+            for (Map.Entry<Ingredient, Integer> e : units.entrySet()) {
+                Ingredient ingredient = e.getKey();
+                Forecast alert = update(ingredient, consumption ? e.getValue() : 0, ingredient.getStockUnits(), now);
+                if (alert == null) continue;
+                if (alerts == null) alerts = new ArrayList<>();
+                alerts.add(alert);
+            }
+        }
+        if (alerts != null) alerts.forEach(this::raise);
+    }
+
+    /** Sous verrou : alimente le débit ; renvoie la prévision si elle déclenche une alerte. */
+    private Forecast update(Ingredient ingredient, int consumedUnits, int unitsAfter, long now) {
+        Usage u = usage.computeIfAbsent(ingredient, k -> new Usage());
+        decay(u, now);
+        u.decayedUnits += consumedUnits;
+        Forecast forecast = forecast(ingredient, u, unitsAfter);
+        long horizon = alertHorizonMs;
+        boolean low = horizon > 0 && forecast.timeToStockOutMs >= 0 && forecast.timeToStockOutMs < horizon;
+        if (low && !u.alerted) {
+            u.alerted = true;
+            return forecast;
+        }
+        if (!low) u.alerted = false;
+        return null;
+    }
+
+    synchronized void reserved(StockReservation reservation) {
+        reservation.getUnits().forEach((ingredient, units) ->
+                usage.computeIfAbsent(ingredient, k -> new Usage()).reserved += units);
+    }
+
+    /** Réservation consommée ou rendue : les unités ne sont plus en attente. */
+    synchronized void settled(StockReservation reservation) {
+        reservation.getUnits().forEach((ingredient, units) -> {
+            Usage u = usage.get(ingredient);
+            if (u != null) u.reserved = Math.max(0, u.reserved - units);
+        });
+    }
+
+    private void raise(Forecast alert) {
+        for (RestockListener listener : listeners) {
+            listener.onLowStock(alert);
+        }
+        long cover = autoRestockCoverMs;
+        if (cover <= 0) return;
+        // Au-delà de l'horizon : sinon une couverture plus courte que l'horizon ne
+        // commanderait rien et l'alerte, déjà levée, ne se redéclencherait pas
+        int units = suggestRestockUnits(alert.ingredient, alertHorizonMs + cover);
+        if (units <= 0) return;
+        alert.ingredient.addUnits(units);
+        for (RestockListener listener : listeners) {
+            listener.onAutoRestock(alert.ingredient, units);
+        }
+    }
+
+    private void decay(Usage u, long now) {
+        if (now > u.lastMs) {
+            u.decayedUnits *= Math.exp(-decayPerMs * (now - u.lastMs));
+            u.lastMs = now;
+        }
+    }
+
+    private Forecast forecast(Ingredient ingredient, Usage u, int freeUnits) {
+        double perMs = u.decayedUnits * decayPerMs;
+        long timeToStockOut = perMs <= 1e-12 ? -1 : (long) (Math.max(0, freeUnits) / perMs);
+        return new Forecast(ingredient, freeUnits, u.reserved, perMs * 60_000, timeToStockOut);
+    }
+
+    // ===== Lecture =====
+
+    public synchronized Forecast getForecast(Ingredient ingredient) {
+        Usage u = usage.computeIfAbsent(ingredient, k -> new Usage());
+        decay(u, bar.getClock().millis());
+        return forecast(ingredient, u, ingredient.getStockUnits());
+    }
+
+    /** Prévision de tout le stock, les ruptures les plus proches d'abord. */
+    public List<Forecast> getForecasts() {
+        List<Forecast> forecasts = new ArrayList<>();
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            forecasts.add(getForecast(ingredient));
+        }
+        forecasts.sort(Comparator.comparingLong(f -> f.timeToStockOutMs < 0 ? Long.MAX_VALUE : f.timeToStockOutMs));
+        return forecasts;
+    }
+
+    /** Unités à ajouter pour couvrir {@code coverMs} de consommation au débit actuel. */
+    public int suggestRestockUnits(Ingredient ingredient, long coverMs) {
+        Forecast forecast = getForecast(ingredient);
+        double needed = forecast.unitsPerMinute / 60_000 * coverMs;
+        return (int) Math.max(0, Math.ceil(needed) - forecast.freeUnits);
+    }
+}
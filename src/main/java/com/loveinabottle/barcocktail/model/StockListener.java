@@ -0,0 +1,25 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Variations du stock d'un {@link Bar} : réservation, remise en stock,
+ * réapprovisionnement. Appelé sur le thread qui modifie le stock, juste après
+ * la modification ; une implémentation doit être rapide et thread-safe.
+ */
+public interface StockListener {
+
+    /**
+     * @param delta       unités ajoutées (positif) ou retirées (négatif)
+     * @param unitsAfter  stock juste après cette modification
+     */
+    void onStockChanged(Ingredient ingredient, int delta, int unitsAfter);
+
+    /**
+     * Ingrédients d'une commande réservés ({@code taken}) ou rendus au stock,
+     * en un seul appel par commande. Par défaut, un appel à
+     * {@link #onStockChanged} par ingrédient.
+     */
+    default void onReservationChanged(StockReservation reservation, boolean taken) {
+        reservation.getUnits().forEach((ingredient, units) ->
+                onStockChanged(ingredient, taken ? -units : units, ingredient.getStockUnits()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.loveinabottle.barcocktail.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ingrédients mis de côté pour une commande, en tout-ou-rien.
+ * Les unités sont retirées du stock dès la réservation : {@link #commit()}
+ * les considère consommées, {@link #release()} les remet en stock.
+ */
+public class StockReservation {
+    public enum State { HELD, COMMITTED, RELEASED }
+
+    private final Bar bar;
+    private final Map<Ingredient, Integer> units;
+    private State state = State.HELD;
+
+    StockReservation(Bar bar, Map<Ingredient, Integer> units) {
+        this.bar = bar;
+        this.units = Collections.unmodifiableMap(new LinkedHashMap<>(units));
+    }
+
+    public Map<Ingredient, Integer> getUnits() { return units; }
+
+    public synchronized State getState() { return state; }
+
+    /** Les ingrédients ont été utilisés : la réservation devient définitive. */
+    public synchronized boolean commit() {
+        if (state != State.HELD) return false;
+        state = State.COMMITTED;
+        return true;
+    }
+
+    /** Rend les ingrédients au stock (sans effet si déjà consommés ou rendus). */
+    public boolean release() {
+        synchronized (this) {
+            if (state != State.HELD) return false;
+            state = State.RELEASED;
+            units.forEach(Ingredient::giveBack);
+        }
+        // Un seul avis pour tous les ingrédients de la commande
+        bar.fireReservationChanged(this, false);
+        return true;
+    }
+}
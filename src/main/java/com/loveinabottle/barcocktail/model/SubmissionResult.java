@@ -0,0 +1,42 @@
+package com.loveinabottle.barcocktail.model;
+
+/**
+ * Réponse du bar à une soumission de commande : admise ou non, pourquoi, et
+ * l'attente estimée avant le début de sa préparation au moment de la demande.
+ */
+public class SubmissionResult {
+    public enum Status {
+        ACCEPTED("Acceptée"),
+        QUEUE_FULL("File d'attente pleine"),
+        WAIT_TOO_LONG("Attente trop longue"),
+        OUT_OF_STOCK("Stock insuffisant"),
+        NO_BARTENDER("Aucun bartender");
+
+        private final String displayName;
+        Status(String displayName) { this.displayName = displayName; }
+        public String getDisplayName() { return displayName; }
+    }
+
+    private final Order order;
+    private final Status status;
+    private final long estimatedWaitMs;
+
+    SubmissionResult(Order order, Status status, long estimatedWaitMs) {
+        this.order = order;
+        this.status = status;
+        this.estimatedWaitMs = estimatedWaitMs;
+    }
+
+    public Order getOrder() { return order; }
+    public Status getStatus() { return status; }
+    public boolean isAccepted() { return status == Status.ACCEPTED; }
+
+    /** Attente estimée (horloge du bar) ; -1 si elle n'a pas pu être estimée (aucun bartender). */
+    public long getEstimatedWaitMs() { return estimatedWaitMs; }
+
+    @Override
+    public String toString() {
+        String wait = estimatedWaitMs < 0 ? "inconnue" : (estimatedWaitMs + 999) / 1000 + " s";
+        return status.getDisplayName() + " (attente estimée : " + wait + ")";
+    }
+}
@@ -0,0 +1,130 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import com.loveinabottle.barcocktail.model.BarClock;
+
+import java.util.PriorityQueue;
+
+/**
+ * Horloge à événements discrets : une file de priorité d'événements datés,
+ * dépilés dans l'ordre chronologique par {@link #runUntilIdle()}.
+ * Le temps saute d'un événement au suivant, sans thread ni attente.
+ * Non thread-safe : tout se passe sur le thread qui fait avancer l'horloge.
+ */
+public class DiscreteEventClock implements BarClock {
+
+    private final class Event implements Comparable<Event>, Scheduled {
+        long time;
+        final long sequence = nextSequence++;
+        final Runnable task;
+        final long periodMs;
+        boolean cancelled;
+
+        Event(long time, Runnable task, long periodMs) {
+            this.time = time;
+            this.task = task;
+            this.periodMs = periodMs;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled) return false;
+            cancelled = true;
+            cancelledCount++;
+            return true;
+        }
+    }
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long now;
+    private long nextSequence;
+    private long cancelledCount;
+    private long processedCount;
+
+    public DiscreteEventClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    @Override
+    public Scheduled schedule(Runnable task, long delayMs) {
+        return push(new Event(now + Math.max(0, delayMs), task, 0));
+    }
+
+    @Override
+    public Scheduled scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs) {
+        return push(new Event(now + Math.max(0, initialDelayMs), task, Math.max(1, periodMs)));
+    }
+
+    private Event push(Event event) {
+        events.add(event);
+        return event;
+    }
+
+    /** Exécute le prochain événement ; false s'il n'y en a plus. */
+    public boolean step() {
+        Event event = peekLive();
+        if (event == null) return false;
+        events.poll();
+
+        now = event.time;
+        processedCount++;
+        if (event.periodMs > 0) {
+            event.time += event.periodMs;
+            events.add(event);
+        }
+        event.task.run();
+        return true;
+    }
+
+    private Event peekLive() {
+        Event head = events.peek();
+        while (head != null && head.cancelled) {
+            events.poll();
+            cancelledCount--;
+            head = events.peek();
+        }
+        return head;
+    }
+
+    /** Dépile les événements jusqu'à ce qu'il n'en reste plus. */
+    public void runUntilIdle() {
+        while (step()) {
+            purgeIfMostlyCancelled();
+        }
+    }
+
+    /** Dépile les événements datés au plus tard de {@code time}, puis avance l'horloge à {@code time}. */
+    public void runUntil(long time) {
+        Event head;
+        while ((head = peekLive()) != null && head.time <= time) {
+            step();
+            purgeIfMostlyCancelled();
+        }
+        now = Math.max(now, time);
+    }
+
+    private void purgeIfMostlyCancelled() {
+        if (cancelledCount > 1024 && cancelledCount * 2 > events.size()) {
+            events.removeIf(e -> e.cancelled);
+            cancelledCount = 0;
+        }
+    }
+
+    public int getPendingEventCount() {
+        return events.size() - (int) cancelledCount;
+    }
+
+    public long getProcessedEventCount() {
+        return processedCount;
+    }
+}
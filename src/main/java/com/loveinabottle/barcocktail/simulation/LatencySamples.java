@@ -0,0 +1,40 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import java.util.Arrays;
+
+/** Échantillons de durées (ms), percentiles calculés par tri à la fin de la simulation. */
+class LatencySamples {
+    private long[] values = new long[1024];
+    private int size;
+    private long sum;
+    private boolean sorted = true;
+
+    void add(long value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+        sum += value;
+        sorted = false;
+    }
+
+    int count() {
+        return size;
+    }
+
+    double mean() {
+        return size == 0 ? 0 : (double) sum / size;
+    }
+
+    long max() {
+        return percentile(100);
+    }
+
+    long percentile(double p) {
+        if (size == 0) return 0;
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * size) - 1;
+        return values[Math.min(size - 1, Math.max(0, rank))];
+    }
+}
@@ -0,0 +1,163 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import com.loveinabottle.barcocktail.model.Cocktail;
+
+import java.util.*;
+
+/**
+ * Génère des arrivées de commandes synthétiques pour un menu : clients,
+ * cocktails tirés selon un mélange pondéré, et dates d'arrivée selon un
+ * processus de Poisson ou par rafales.
+ *
+ * <p>En mode {@link Pattern#BURSTY}, le service alterne périodes calmes et
+ * coups de feu de durées exponentielles ; pendant un coup de feu le débit est
+ * multiplié par {@code burstFactor}. Le débit demandé reste le débit moyen :
+ * le débit calme est abaissé en conséquence.</p>
+ *
+ * <pre>
+ * LoadGenerator load = new LoadGenerator(bar.getMenu(), 20, 42);
+ * load.setPattern(LoadGenerator.Pattern.BURSTY);
+ * load.setMix(Map.of("Mojito", 3.0, "Gin Tonic", 1.0));
+ * Iterator&lt;SimulationEngine.Arrival&gt; arrivals = load.arrivals(4 * 3_600_000L);
+ * </pre>
+ */
+public class LoadGenerator {
+    public static final double DEFAULT_BURST_FACTOR = 4;
+    public static final double DEFAULT_BURST_SHARE = 0.2;
+    public static final long DEFAULT_MEAN_BURST_MS = 10 * 60_000;
+
+    public enum Pattern { POISSON, BURSTY }
+
+    private final List<String> cocktailNames = new ArrayList<>();
+    private double[] cumulativeWeights;
+    private final double perMinute;
+    private final long seed;
+    private Pattern pattern = Pattern.POISSON;
+    private double burstFactor = DEFAULT_BURST_FACTOR;
+    private double burstShare = DEFAULT_BURST_SHARE;
+    private long meanBurstMs = DEFAULT_MEAN_BURST_MS;
+    private int maxCocktailsPerOrder = 1;
+
+    /** Mélange uniforme sur le menu, {@code perMinute} commandes par minute en moyenne. */
+    public LoadGenerator(List<Cocktail> menu, double perMinute, long seed) {
+        if (menu.isEmpty()) throw new IllegalArgumentException("Menu vide");
+        if (perMinute <= 0) throw new IllegalArgumentException("Débit invalide: " + perMinute);
+        this.perMinute = perMinute;
+        this.seed = seed;
+        Map<String, Double> uniform = new LinkedHashMap<>();
+        for (Cocktail cocktail : menu) {
+            uniform.put(cocktail.getName(), 1.0);
+        }
+        setMix(uniform);
+    }
+
+    /** Poids relatif de chaque cocktail (noms du menu) ; les poids nuls ou négatifs sont ignorés. */
+    public void setMix(Map<String, Double> weights) {
+        List<String> names = new ArrayList<>();
+        List<Double> cumulative = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<String, Double> e : weights.entrySet()) {
+            if (e.getValue() <= 0) continue;
+            total += e.getValue();
+            names.add(e.getKey());
+            cumulative.add(total);
+        }
+        if (names.isEmpty()) throw new IllegalArgumentException("Mélange vide");
+        cocktailNames.clear();
+        cocktailNames.addAll(names);
+        cumulativeWeights = new double[cumulative.size()];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            cumulativeWeights[i] = cumulative.get(i) / total;
+        }
+    }
+
+    public void setPattern(Pattern pattern) {
+        this.pattern = Objects.requireNonNull(pattern);
+    }
+
+    /**
+     * @param factor   débit pendant un coup de feu / débit calme (&gt; 1)
+     * @param share    part du temps passée en coup de feu (0 à 1 exclus)
+     * @param meanMs   durée moyenne d'un coup de feu
+     */
+    public void setBursts(double factor, double share, long meanMs) {
+        if (factor < 1 || share <= 0 || share >= 1 || meanMs <= 0) {
+            throw new IllegalArgumentException("Rafales invalides");
+        }
+        this.burstFactor = factor;
+        this.burstShare = share;
+        this.meanBurstMs = meanMs;
+    }
+
+    /** Chaque commande contient de 1 à {@code max} cocktails (uniforme). */
+    public void setMaxCocktailsPerOrder(int max) {
+        this.maxCocktailsPerOrder = Math.max(1, max);
+    }
+
+    /**
+     * Arrivées triées par date, de 0 à {@code durationMs} (exclu), générées au
+     * fil de la lecture : rien n'est tenu en mémoire.
+     */
+    public Iterator<SimulationEngine.Arrival> arrivals(long durationMs) {
+        Random random = new Random(seed);
+        boolean bursty = pattern == Pattern.BURSTY;
+        double calmPerMs = bursty
+                ? perMinute / 60_000.0 / (1 - burstShare + burstShare * burstFactor)
+                : perMinute / 60_000.0;
+        double meanCalmMs = meanBurstMs * (1 - burstShare) / burstShare;
+
+        return new Iterator<>() {
+            private long produced;
+            private double time;
+            private boolean inBurst;
+            private double phaseEndMs = bursty ? exponential(meanCalmMs) : Double.MAX_VALUE;
+            private SimulationEngine.Arrival next = advance();
+
+            private double exponential(double mean) {
+                return -Math.log(1 - random.nextDouble()) * mean;
+            }
+
+            private SimulationEngine.Arrival advance() {
+                // Processus de Poisson par morceaux : un tirage qui dépasse la fin
+                // de la phase est abandonné (sans mémoire) et repris au débit suivant
+                while (true) {
+                    double rate = inBurst ? calmPerMs * burstFactor : calmPerMs;
+                    double candidate = time + exponential(1 / rate);
+                    if (candidate < phaseEndMs) {
+                        time = candidate;
+                        break;
+                    }
+                    time = phaseEndMs;
+                    inBurst = !inBurst;
+                    phaseEndMs = time + exponential(inBurst ? meanBurstMs : meanCalmMs);
+                }
+                if (time >= durationMs) return null;
+                int size = 1 + random.nextInt(maxCocktailsPerOrder);
+                List<String> cocktails = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    cocktails.add(pick(random.nextDouble()));
+                }
+                return new SimulationEngine.Arrival((long) time, "Client " + produced++, cocktails);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public SimulationEngine.Arrival next() {
+                if (next == null) throw new NoSuchElementException();
+                SimulationEngine.Arrival current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    private String pick(double u) {
+        int i = Arrays.binarySearch(cumulativeWeights, u);
+        if (i < 0) i = -i - 1;
+        return cocktailNames.get(Math.min(i, cocktailNames.size() - 1));
+    }
+}
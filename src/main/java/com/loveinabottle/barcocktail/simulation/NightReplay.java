@@ -0,0 +1,191 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Rejoue une soirée complète en ligne de commande, sans JavaFX.
+ *
+ * <pre>
+ * NightReplay &lt;commandes.csv&gt; [--stock N] [--restock min] [--bartenders N] [--batch N] [--max-queue N] [--max-wait s]
+ * NightReplay --synthetic &lt;nombre&gt; [--rate commandes/min] [--seed S] [options]
+ * </pre>
+ *
+ * Format CSV : {@code tempsMs,client,Cocktail A|Cocktail B}, trié par temps.
+ * Une ligne mal formée (temps absent ou non numérique, champ manquant) est
+ * ignorée et signalée avec son numéro ; seule la première peut être un en-tête.
+ * Le bar est le bar de démonstration ; {@code --stock} remet chaque ingrédient
+ * à N unités, {@code --restock} active le réassort automatique (couverture en
+ * minutes, {@link StockForecast#setAutoRestockCoverMs}), {@code --bartenders}
+ * ajoute N bartenders (vitesse 5) et
+ * {@code --batch} fixe la fenêtre des tournées ({@link Bar#setBatchWindow}) ;
+ * {@code --max-queue} et {@code --max-wait} sont les limites d'admission
+ * ({@link Bar#setAdmissionLimits}).
+ */
+public final class NightReplay {
+    private static final System.Logger LOG = System.getLogger(NightReplay.class.getName());
+
+    private NightReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: NightReplay <commandes.csv> | --synthetic <nombre> [options]");
+            System.exit(2);
+        }
+        Map<String, String> options = parseOptions(args);
+
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+        DemoCatalog.populate(bar);
+        configure(bar, options);
+
+        SimulationEngine engine = new SimulationEngine(bar, clock);
+        SimulationReport report;
+        if (options.containsKey("--synthetic")) {
+            long count = Long.parseLong(options.get("--synthetic"));
+            double perMinute = options.containsKey("--rate")
+                    ? Double.parseDouble(options.get("--rate"))
+                    : 0.9 * capacityPerMinute(bar);
+            long seed = Long.parseLong(options.getOrDefault("--seed", "1"));
+            report = engine.run(syntheticArrivals(bar.getMenu(), count, perMinute, seed));
+        } else {
+            try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+                report = engine.run(csvArrivals(reader));
+            }
+        }
+        System.out.println(report);
+        bar.shutdown();
+    }
+
+    /** Options communes du bar de démonstration (voir l'en-tête de la classe). */
+    static void configure(Bar bar, Map<String, String> options) {
+        if (options.containsKey("--batch")) {
+            bar.setBatchWindow(Integer.parseInt(options.get("--batch")));
+        }
+        bar.setAdmissionLimits(Integer.parseInt(options.getOrDefault("--max-queue", "0")),
+                Long.parseLong(options.getOrDefault("--max-wait", "0")) * 1000);
+        if (options.containsKey("--stock")) {
+            int units = Integer.parseInt(options.get("--stock"));
+            for (Ingredient ingredient : bar.getAllIngredients()) {
+                ingredient.addUnits(units - ingredient.getStockUnits());
+            }
+        }
+        if (options.containsKey("--restock")) {
+            bar.getStockForecast().setAutoRestockCoverMs(Long.parseLong(options.get("--restock")) * 60_000);
+        }
+        int extraBartenders = Integer.parseInt(options.getOrDefault("--bartenders", "0"));
+        for (int i = 0; i < extraBartenders; i++) {
+            bar.addEmployee(new Bartender("X" + i, "Extra " + i, 5));
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            }
+        }
+        return options;
+    }
+
+    /** Commandes par minute que les bartenders peuvent absorber, pour un cocktail moyen du menu. */
+    static double capacityPerMinute(Bar bar) {
+        double averageIngredients = bar.getMenu().stream()
+                .mapToInt(c -> c.getRecipe().size()).average().orElse(1);
+        int totalSpeed = bar.getEmployees().stream()
+                .filter(e -> e instanceof Bartender).mapToInt(Employee::getSpeed).sum();
+        return totalSpeed * 60_000.0 / (averageIngredients * Bar.BASE_TIME_PER_INGREDIENT_MS);
+    }
+
+    /** Arrivées de Poisson, un cocktail au hasard du menu par commande. */
+    static Iterator<SimulationEngine.Arrival> syntheticArrivals(List<Cocktail> menu, long count,
+                                                               double perMinute, long seed) {
+        Random random = new Random(seed);
+        double meanGapMs = 60_000.0 / perMinute;
+        return new Iterator<>() {
+            private long produced;
+            private double time;
+
+            @Override
+            public boolean hasNext() {
+                return produced < count;
+            }
+
+            @Override
+            public SimulationEngine.Arrival next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                time += -Math.log(1 - random.nextDouble()) * meanGapMs;
+                String cocktail = menu.get(random.nextInt(menu.size())).getName();
+                return new SimulationEngine.Arrival((long) time, "Client " + produced++, List.of(cocktail));
+            }
+        };
+    }
+
+    static Iterator<SimulationEngine.Arrival> csvArrivals(BufferedReader reader) {
+        return new Iterator<>() {
+            private int lineNumber;
+            private boolean headerAllowed = true;
+            private SimulationEngine.Arrival next = advance();
+
+            private SimulationEngine.Arrival advance() {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#")) continue;
+                        SimulationEngine.Arrival arrival = parseCsvLine(line);
+                        boolean header = headerAllowed;
+                        headerAllowed = false;
+                        if (arrival != null) return arrival;
+                        if (!header) {
+                            LOG.log(System.Logger.Level.WARNING, "Ligne {0} ignorée : {1}", lineNumber, line);
+                        }
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public SimulationEngine.Arrival next() {
+                if (next == null) throw new NoSuchElementException();
+                SimulationEngine.Arrival current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /** Arrivée d'une ligne {@code tempsMs,client,cocktails} ; null si elle est mal formée. */
+    static SimulationEngine.Arrival parseCsvLine(String line) {
+        String[] fields = line.split(",", 3);
+        if (fields.length < 3) return null;
+        String time = fields[0].trim();
+        String client = fields[1].trim();
+        String cocktails = fields[2].trim();
+        if (time.isEmpty() || client.isEmpty() || cocktails.isEmpty()) return null;
+        long timeMs;
+        try {
+            timeMs = Long.parseLong(time);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (timeMs < 0) return null;
+        return new SimulationEngine.Arrival(timeMs, client, Arrays.asList(cocktails.split("\\s*\\|\\s*")));
+    }
+}
@@ -0,0 +1,156 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.util.*;
+
+/**
+ * Rejoue des arrivées de commandes à travers les vraies règles du {@link Bar}
+ * (vitesses des bartenders, réservation du stock, files d'attente), sur une
+ * {@link DiscreteEventClock} : aucun thread, aucune attente, le temps saute
+ * d'un événement au suivant.
+ *
+ * <pre>
+ * DiscreteEventClock clock = new DiscreteEventClock(0);
+ * Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+ * // ... stock, menu, bartenders ...
+ * SimulationReport report = new SimulationEngine(bar, clock).run(arrivals);
+ * </pre>
+ */
+public class SimulationEngine {
+
+    /** Une commande historique : quand elle arrive, pour qui, quels cocktails. */
+    public static final class Arrival {
+        private final long timeMs;
+        private final String clientName;
+        private final List<String> cocktailNames;
+
+        public Arrival(long timeMs, String clientName, List<String> cocktailNames) {
+            this.timeMs = timeMs;
+            this.clientName = clientName;
+            this.cocktailNames = cocktailNames;
+        }
+
+        public long getTimeMs() { return timeMs; }
+        public String getClientName() { return clientName; }
+        public List<String> getCocktailNames() { return cocktailNames; }
+    }
+
+    private final Bar bar;
+    private final DiscreteEventClock clock;
+
+    private final Map<Order, Long> submittedAt = new IdentityHashMap<>();
+    private final LatencySamples waits = new LatencySamples();
+    private final Map<String, Long> stockOuts = new TreeMap<>();
+    private final Map<String, Long> firstStockOutMs = new TreeMap<>();
+    private long arrivals;
+    private long unknownCocktailOrders;
+    private long accepted;
+    private long refusedForStock;
+    private long refusedOther;
+    private long completed;
+    private long failed;
+    private long firstArrivalMs = -1;
+    private long lastCompletionMs = -1;
+
+    public SimulationEngine(Bar bar, DiscreteEventClock clock) {
+        if (bar.getClock() != clock) {
+            throw new IllegalArgumentException("Le bar doit être construit sur l'horloge de la simulation");
+        }
+        this.bar = bar;
+        this.clock = clock;
+        bar.setProgressTickMs(0);
+
+        bar.addOrderListener(new OrderListener() {
+            @Override
+            public void onStarted(Order order) {
+                Long submitted = submittedAt.remove(order);
+                if (submitted != null) waits.add(clock.millis() - submitted);
+            }
+
+            @Override
+            public void onCompleted(Order order) {
+                completed++;
+                lastCompletionMs = clock.millis();
+            }
+
+            @Override
+            public void onFailed(Order order) {
+                failed++;
+            }
+        });
+    }
+
+    /**
+     * Rejoue les arrivées (triées par date) jusqu'à la dernière commande servie.
+     * Les arrivées sont lues au fil de l'eau : une seule est en mémoire à la fois.
+     */
+    public SimulationReport run(Iterator<Arrival> arrivalStream) {
+        long wallStart = System.nanoTime();
+        scheduleNext(arrivalStream);
+        clock.runUntilIdle();
+        long wallTimeMs = (System.nanoTime() - wallStart) / 1_000_000;
+
+        long makespan = firstArrivalMs < 0 || lastCompletionMs < 0 ? 0 : lastCompletionMs - firstArrivalMs;
+        return new SimulationReport(arrivals, unknownCocktailOrders, accepted, refusedForStock, refusedOther,
+                completed, failed, makespan, waits, stockOuts, firstStockOutMs,
+                clock.getProcessedEventCount(), wallTimeMs);
+    }
+
+    private void scheduleNext(Iterator<Arrival> arrivalStream) {
+        if (!arrivalStream.hasNext()) return;
+        Arrival arrival = arrivalStream.next();
+        clock.schedule(() -> {
+            onArrival(arrival);
+            scheduleNext(arrivalStream);
+        }, arrival.getTimeMs() - clock.millis());
+    }
+
+    private void onArrival(Arrival arrival) {
+        arrivals++;
+        if (firstArrivalMs < 0) firstArrivalMs = clock.millis();
+
+        Optional<Order> placed = bar.placeOrder(new Client(arrival.getClientName()), arrival.getCocktailNames());
+        if (placed.isEmpty()) {
+            unknownCocktailOrders++;
+            return;
+        }
+
+        Order order = placed.get();
+        submittedAt.put(order, clock.millis());
+        SubmissionResult result = bar.submit(order);
+        if (result.isAccepted()) {
+            accepted++;
+        } else {
+            submittedAt.remove(order);
+            if (result.getStatus() == SubmissionResult.Status.OUT_OF_STOCK) {
+                recordStockOut(order);
+            } else {
+                refusedOther++;
+            }
+        }
+    }
+
+    private void recordStockOut(Order order) {
+        Map<Ingredient, Integer> needed = new HashMap<>();
+        for (Cocktail cocktail : order.getCocktails()) {
+            cocktail.getRecipe().forEach((ingredient, quantity) -> needed.merge(ingredient, quantity, Integer::sum));
+        }
+
+        boolean shortage = false;
+        for (Map.Entry<Ingredient, Integer> e : needed.entrySet()) {
+            Ingredient inStock = bar.findIngredientByName(e.getKey().getName());
+            if (inStock == null || inStock.getStockUnits() < e.getValue()) {
+                shortage = true;
+                String name = e.getKey().getName();
+                stockOuts.merge(name, 1L, Long::sum);
+                firstStockOutMs.putIfAbsent(name, clock.millis() - firstArrivalMs);
+            }
+        }
+        if (shortage) {
+            refusedForStock++;
+        } else {
+            refusedOther++;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import java.util.Collections;
+import java.util.Map;
+
+/** Résultat d'une simulation : volumes, attente en file, makespan et ruptures de stock. */
+public class SimulationReport {
+    private final long arrivals;
+    private final long unknownCocktailOrders;
+    private final long accepted;
+    private final long refusedForStock;
+    private final long refusedOther;
+    private final long completed;
+    private final long failed;
+    private final long makespanMs;
+    private final double meanWaitMs;
+    private final long p50WaitMs;
+    private final long p95WaitMs;
+    private final long p99WaitMs;
+    private final long maxWaitMs;
+    private final Map<String, Long> stockOuts;
+    private final Map<String, Long> firstStockOutMs;
+    private final long eventsProcessed;
+    private final long wallTimeMs;
+
+    SimulationReport(long arrivals, long unknownCocktailOrders, long accepted, long refusedForStock,
+                     long refusedOther, long completed, long failed, long makespanMs, LatencySamples waits,
+                     Map<String, Long> stockOuts, Map<String, Long> firstStockOutMs,
+                     long eventsProcessed, long wallTimeMs) {
+        this.arrivals = arrivals;
+        this.unknownCocktailOrders = unknownCocktailOrders;
+        this.accepted = accepted;
+        this.refusedForStock = refusedForStock;
+        this.refusedOther = refusedOther;
+        this.completed = completed;
+        this.failed = failed;
+        this.makespanMs = makespanMs;
+        this.meanWaitMs = waits.mean();
+        this.p50WaitMs = waits.percentile(50);
+        this.p95WaitMs = waits.percentile(95);
+        this.p99WaitMs = waits.percentile(99);
+        this.maxWaitMs = waits.max();
+        this.stockOuts = Collections.unmodifiableMap(stockOuts);
+        this.firstStockOutMs = Collections.unmodifiableMap(firstStockOutMs);
+        this.eventsProcessed = eventsProcessed;
+        this.wallTimeMs = wallTimeMs;
+    }
+
+    public long getArrivals() { return arrivals; }
+    public long getUnknownCocktailOrders() { return unknownCocktailOrders; }
+    public long getAccepted() { return accepted; }
+    public long getRefusedForStock() { return refusedForStock; }
+    public long getRefusedOther() { return refusedOther; }
+    public long getCompleted() { return completed; }
+    public long getFailed() { return failed; }
+    public long getMakespanMs() { return makespanMs; }
+    public double getMeanWaitMs() { return meanWaitMs; }
+    public long getP50WaitMs() { return p50WaitMs; }
+    public long getP95WaitMs() { return p95WaitMs; }
+    public long getP99WaitMs() { return p99WaitMs; }
+    public long getMaxWaitMs() { return maxWaitMs; }
+    /** Nombre de commandes refusées faute de chaque ingrédient. */
+    public Map<String, Long> getStockOuts() { return stockOuts; }
+    /** Première rupture de chaque ingrédient, en ms depuis la première arrivée. */
+    public Map<String, Long> getFirstStockOutMs() { return firstStockOutMs; }
+    public long getEventsProcessed() { return eventsProcessed; }
+    public long getWallTimeMs() { return wallTimeMs; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Simulation ===\n");
+        sb.append("Arrivées: ").append(arrivals)
+          .append(" | acceptées: ").append(accepted)
+          .append(" | cocktail inconnu: ").append(unknownCocktailOrders)
+          .append(" | refusées (stock): ").append(refusedForStock)
+          .append(" | refusées (autre): ").append(refusedOther).append('\n');
+        sb.append("Terminées: ").append(completed).append(" | échouées: ").append(failed).append('\n');
+        sb.append(String.format("Makespan: %.1f min%n", makespanMs / 60000.0));
+        sb.append(String.format("Attente en file (s): moy %.1f | p50 %.1f | p95 %.1f | p99 %.1f | max %.1f%n",
+                meanWaitMs / 1000.0, p50WaitMs / 1000.0, p95WaitMs / 1000.0, p99WaitMs / 1000.0, maxWaitMs / 1000.0));
+        if (stockOuts.isEmpty()) {
+            sb.append("Aucune rupture de stock\n");
+        } else {
+            sb.append("Ruptures de stock:\n");
+            stockOuts.forEach((name, count) -> sb.append(String.format("  - %s: %d commandes refusées (dès %.1f min)%n",
+                    name, count, firstStockOutMs.get(name) / 60000.0)));
+        }
+        sb.append("Événements traités: ").append(eventsProcessed)
+          .append(" en ").append(wallTimeMs).append(" ms réelles");
+        return sb.toString();
+    }
+}
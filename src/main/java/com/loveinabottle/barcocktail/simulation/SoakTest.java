@@ -0,0 +1,378 @@
+package com.loveinabottle.barcocktail.simulation;
+
+import com.loveinabottle.barcocktail.metrics.LatencyHistogram;
+import com.loveinabottle.barcocktail.model.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Test d'endurance : des heures de service synthétique ({@link LoadGenerator})
+ * passées par {@link Bar#placeOrder} et {@link Bar#submitOrderForPreparation},
+ * avec un relevé à intervalle régulier (débit, profondeur de file, échecs,
+ * tas après GC) pour repérer une dégradation ou une fuite mémoire.
+ *
+ * <pre>
+ * SoakTest [--hours H] [--rate commandes/min] [--pattern poisson|bursty]
+ *          [--burst-factor F] [--burst-share S] [--burst-minutes M]
+ *          [--mix "Mojito=3,Gin Tonic=1"] [--items N] [--seed S] [--interval min]
+ *          [--speed X] [--stock N] [--restock min] [--bartenders N]
+ *          [--batch N] [--max-queue N] [--max-wait s] [--max-retained octets]
+ * </pre>
+ *
+ * Sans {@code --speed}, le bar tourne sur une {@link DiscreteEventClock} : des
+ * heures de service en quelques secondes, sans thread. Avec {@code --speed X},
+ * le bar tourne en threads virtuels sur une horloge accélérée X fois, ce qui
+ * exerce aussi l'exécuteur et la minuterie. Les options du bar sont celles de
+ * {@link NightReplay} ; {@code --restock} évite que les ruptures de stock
+ * masquent le reste sur un long service.
+ *
+ * <p>La profondeur de file est relevée à chaque arrivée (ce que voit le client
+ * qui arrive). Le tas après GC est rapporté au nombre de commandes arrivées
+ * sur la seconde moitié du test ({@link #getRetainedBytesPerOrder()}) ;
+ * au-delà de {@code --max-retained}
+ * octets par commande (200 par défaut) le programme se termine en erreur.</p>
+ */
+public final class SoakTest {
+    public static final long DEFAULT_MAX_RETAINED_BYTES_PER_ORDER = 200;
+
+    /** Relevé d'un intervalle ; les compteurs portent sur l'intervalle seul. */
+    public static final class Sample {
+        private final long elapsedMs;
+        private final long intervalMs;
+        private final long totalArrivals;
+        private final long arrivals;
+        private final long completed;
+        private final long refused;
+        private final long failed;
+        private final long queueP50;
+        private final long queueP99;
+        private final long queueMax;
+        private final int waiting;
+        private final int inProgress;
+        private final int historySize;
+        private final long heapUsedBytes;
+
+        Sample(long elapsedMs, long intervalMs, long totalArrivals, long arrivals, long completed, long refused,
+               long failed, LatencyHistogram queueDepth, int waiting, int inProgress, int historySize,
+               long heapUsedBytes) {
+            this.elapsedMs = elapsedMs;
+            this.intervalMs = intervalMs;
+            this.totalArrivals = totalArrivals;
+            this.arrivals = arrivals;
+            this.completed = completed;
+            this.refused = refused;
+            this.failed = failed;
+            this.queueP50 = queueDepth.getPercentile(50);
+            this.queueP99 = queueDepth.getPercentile(99);
+            this.queueMax = queueDepth.getMax();
+            this.waiting = waiting;
+            this.inProgress = inProgress;
+            this.historySize = historySize;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        public long getElapsedMs() { return elapsedMs; }
+        public long getArrivals() { return arrivals; }
+        public long getCompleted() { return completed; }
+        public long getRefused() { return refused; }
+        public long getFailed() { return failed; }
+        public long getQueueP50() { return queueP50; }
+        public long getQueueP99() { return queueP99; }
+        public long getQueueMax() { return queueMax; }
+        public int getWaiting() { return waiting; }
+        public int getInProgress() { return inProgress; }
+        public int getHistorySize() { return historySize; }
+        public long getHeapUsedBytes() { return heapUsedBytes; }
+
+        public double getThroughputPerMinute() {
+            return intervalMs == 0 ? 0 : completed * 60_000.0 / intervalMs;
+        }
+
+        static String header() {
+            return String.format("%7s %9s %8s %9s %6s %7s %16s %6s %8s %10s %8s",
+                    "temps", "arrivées", "servies", "débit/min", "refus", "échecs",
+                    "file p50/p99/max", "file", "en cours", "historique", "tas Mo");
+        }
+
+        @Override
+        public String toString() {
+            long minutes = elapsedMs / 60_000;
+            return String.format("%4d:%02d %9d %8d %9.1f %6d %7d %16s %6d %8d %10d %8.1f",
+                    minutes / 60, minutes % 60, arrivals, completed, getThroughputPerMinute(), refused, failed,
+                    queueP50 + "/" + queueP99 + "/" + queueMax, waiting, inProgress, historySize,
+                    heapUsedBytes / 1_048_576.0);
+        }
+    }
+
+    private final Bar bar;
+    private final BarClock clock;
+    private final long intervalMs;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    // Compteurs cumulés (arrivées sur la minuterie, fins sur l'exécuteur du bar)
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder unknownCocktail = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram queueDepth = new LatencyHistogram();
+    private final LatencyHistogram intervalQueueDepth = new LatencyHistogram();
+    private final List<Sample> samples = new ArrayList<>();
+    private final AtomicBoolean arrivalsDone = new AtomicBoolean();
+    private long startMs;
+    private long wallTimeMs;
+    private long lastArrivals, lastCompleted, lastRefused, lastFailed;
+
+    public SoakTest(Bar bar, long intervalMs) {
+        if (intervalMs <= 0) throw new IllegalArgumentException("Intervalle invalide: " + intervalMs);
+        this.bar = bar;
+        this.clock = bar.getClock();
+        this.intervalMs = intervalMs;
+        bar.setProgressTickMs(0);
+        bar.addOrderListener(new OrderListener() {
+            @Override
+            public void onCompleted(Order order) {
+                completed.increment();
+            }
+
+            @Override
+            public void onFailed(Order order) {
+                failed.increment();
+            }
+        });
+    }
+
+    /**
+     * Joue les arrivées (dates relatives au début du test) pendant
+     * {@code durationMs} de temps du bar, puis laisse le bar se vider (au plus
+     * autant de temps encore). Un relevé par intervalle, transmis au fil de l'eau.
+     */
+    public List<Sample> run(Iterator<SimulationEngine.Arrival> arrivalStream, long durationMs,
+                            Consumer<Sample> onSample) throws InterruptedException {
+        long wallStart = System.nanoTime();
+        startMs = clock.millis();
+        scheduleNext(arrivalStream);
+
+        long end = startMs + durationMs;
+        long drainLimit = end + durationMs;
+        for (long t = startMs + intervalMs; ; t += intervalMs) {
+            advanceTo(t);
+            Sample sample = sample(t - startMs);
+            samples.add(sample);
+            if (onSample != null) onSample.accept(sample);
+            boolean idle = bar.getWaitingOrderCount() + bar.getInProgressOrderCount() == 0;
+            if ((t >= end && arrivalsDone.get() && idle) || t >= drainLimit) break;
+        }
+        wallTimeMs = (System.nanoTime() - wallStart) / 1_000_000;
+        return samples;
+    }
+
+    private void advanceTo(long time) throws InterruptedException {
+        if (clock instanceof DiscreteEventClock discrete) {
+            discrete.runUntil(time);
+            return;
+        }
+        long remaining;
+        while ((remaining = time - clock.millis()) > 0) {
+            Thread.sleep(Math.max(1, Math.round(remaining / clock.speed())));
+        }
+    }
+
+    private void scheduleNext(Iterator<SimulationEngine.Arrival> arrivalStream) {
+        if (!arrivalStream.hasNext()) {
+            arrivalsDone.set(true);
+            return;
+        }
+        SimulationEngine.Arrival arrival = arrivalStream.next();
+        clock.schedule(() -> {
+            onArrival(arrival);
+            scheduleNext(arrivalStream);
+        }, startMs + arrival.getTimeMs() - clock.millis());
+    }
+
+    private void onArrival(SimulationEngine.Arrival arrival) {
+        arrivals.increment();
+        int depth = bar.getWaitingOrderCount();
+        queueDepth.record(depth);
+        intervalQueueDepth.record(depth);
+
+        Optional<Order> placed = bar.placeOrder(new Client(arrival.getClientName()), arrival.getCocktailNames());
+        if (placed.isEmpty()) {
+            unknownCocktail.increment();
+            refused.increment();
+        } else if (!bar.submitOrderForPreparation(placed.get())) {
+            refused.increment();
+        }
+    }
+
+    private Sample sample(long elapsedMs) {
+        long heap = heapAfterGc();
+        long a = arrivals.sum(), c = completed.sum(), r = refused.sum(), f = failed.sum();
+        Sample sample = new Sample(elapsedMs, intervalMs, a, a - lastArrivals, c - lastCompleted, r - lastRefused,
+                f - lastFailed, intervalQueueDepth, bar.getWaitingOrderCount(), bar.getInProgressOrderCount(),
+                bar.getCompletedOrders().size(), heap);
+        intervalQueueDepth.reset();
+        lastArrivals = a;
+        lastCompleted = c;
+        lastRefused = r;
+        lastFailed = f;
+        return sample;
+    }
+
+    /**
+     * Tas occupé après GC. Sur l'horloge discrète, aucun thread ne tourne entre
+     * deux relevés : un GC forcé ne fausse rien. En temps accéléré il fausserait
+     * débit et latences ; on lit alors le tas laissé par le dernier GC du
+     * programme, sans en provoquer.
+     */
+    private long heapAfterGc() {
+        if (clock instanceof DiscreteEventClock) {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) used += afterGc.getUsed();
+        }
+        return used;
+    }
+
+    /** Pente du tas après GC en Mo par heure de service (seconde moitié des relevés). */
+    public double getHeapGrowthMbPerHour() {
+        return heapSlope(s -> s.elapsedMs) * 3_600_000 / 1_048_576;
+    }
+
+    /**
+     * Octets de tas gardés par commande arrivée : pente du tas après GC en
+     * fonction du nombre d'arrivées. Indépendante du débit ; une structure qui
+     * garde chaque commande (historique non borné...) y ajoute la taille d'une
+     * commande, quelques centaines d'octets.
+     */
+    public double getRetainedBytesPerOrder() {
+        return heapSlope(s -> s.totalArrivals);
+    }
+
+    /**
+     * Pente par moindres carrés du tas après GC sur la seconde moitié des
+     * relevés : pendant la première, les structures bornées (historique des
+     * commandes, histogrammes...) se remplissent normalement.
+     */
+    private double heapSlope(ToLongFunction<Sample> x) {
+        if (samples.size() < 6) return 0;
+        List<Sample> steady = samples.subList(samples.size() / 2, samples.size());
+        double meanX = 0, meanY = 0;
+        for (Sample s : steady) {
+            meanX += x.applyAsLong(s);
+            meanY += s.heapUsedBytes;
+        }
+        meanX /= steady.size();
+        meanY /= steady.size();
+        double covariance = 0, variance = 0;
+        for (Sample s : steady) {
+            double dx = x.applyAsLong(s) - meanX;
+            covariance += dx * (s.heapUsedBytes - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    public String summary() {
+        long a = arrivals.sum(), c = completed.sum(), r = refused.sum(), f = failed.sum();
+        long elapsed = samples.isEmpty() ? 0 : samples.get(samples.size() - 1).elapsedMs;
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Test d'endurance ===\n");
+        sb.append(String.format("Service: %.1f h de temps du bar en %.1f s réelles%n",
+                elapsed / 3_600_000.0, wallTimeMs / 1000.0));
+        sb.append("Arrivées: ").append(a)
+          .append(" | servies: ").append(c)
+          .append(" | refusées: ").append(r)
+          .append(" (dont cocktail inconnu: ").append(unknownCocktail.sum()).append(')')
+          .append(" | échouées: ").append(f).append('\n');
+        sb.append(String.format("Taux d'échec: %.2f %% | débit moyen: %.1f commandes/min%n",
+                a == 0 ? 0 : 100.0 * (r + f) / a, elapsed == 0 ? 0 : c * 60_000.0 / elapsed));
+        sb.append("Refus par raison: ").append(bar.getMetrics().getRejectionsByReason()).append('\n');
+        sb.append("File à l'arrivée: p50 ").append(queueDepth.getPercentile(50))
+          .append(" | p99 ").append(queueDepth.getPercentile(99))
+          .append(" | max ").append(queueDepth.getMax()).append('\n');
+        sb.append("Bout en bout (ms): ").append(bar.getMetrics().getEndToEndMs()).append('\n');
+        if (!samples.isEmpty()) {
+            sb.append(String.format("Tas après GC: %.1f Mo -> %.1f Mo, pente %.2f Mo/h (%.0f octets par commande)",
+                    samples.get(0).heapUsedBytes / 1_048_576.0,
+                    samples.get(samples.size() - 1).heapUsedBytes / 1_048_576.0,
+                    getHeapGrowthMbPerHour(), getRetainedBytesPerOrder()));
+        }
+        return sb.toString();
+    }
+
+    // ===== Ligne de commande =====
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = NightReplay.parseOptions(args);
+
+        BarClock clock = options.containsKey("--speed")
+                ? BarClock.scaled(Double.parseDouble(options.get("--speed")))
+                : new DiscreteEventClock(0);
+        Bar bar = clock instanceof DiscreteEventClock
+                ? new Bar(Bar.ExecutionMode.DIRECT, clock)
+                : new Bar(Bar.ExecutionMode.VIRTUAL, clock);
+        DemoCatalog.populate(bar);
+        NightReplay.configure(bar, options);
+
+        double perMinute = options.containsKey("--rate")
+                ? Double.parseDouble(options.get("--rate"))
+                : 0.9 * NightReplay.capacityPerMinute(bar);
+        LoadGenerator load = new LoadGenerator(bar.getMenu(), perMinute,
+                Long.parseLong(options.getOrDefault("--seed", "1")));
+        load.setPattern(LoadGenerator.Pattern.valueOf(
+                options.getOrDefault("--pattern", "poisson").toUpperCase(Locale.ROOT)));
+        load.setBursts(Double.parseDouble(options.getOrDefault("--burst-factor", "" + LoadGenerator.DEFAULT_BURST_FACTOR)),
+                Double.parseDouble(options.getOrDefault("--burst-share", "" + LoadGenerator.DEFAULT_BURST_SHARE)),
+                Math.round(Double.parseDouble(options.getOrDefault("--burst-minutes",
+                        "" + LoadGenerator.DEFAULT_MEAN_BURST_MS / 60_000.0)) * 60_000));
+        if (options.containsKey("--mix")) load.setMix(parseMix(options.get("--mix")));
+        load.setMaxCocktailsPerOrder(Integer.parseInt(options.getOrDefault("--items", "1")));
+
+        long durationMs = Math.round(Double.parseDouble(options.getOrDefault("--hours", "4")) * 3_600_000);
+        long intervalMs = Math.round(Double.parseDouble(options.getOrDefault("--interval", "15")) * 60_000);
+        long maxRetained = Long.parseLong(options.getOrDefault("--max-retained",
+                "" + DEFAULT_MAX_RETAINED_BYTES_PER_ORDER));
+
+        System.out.printf("Débit moyen visé: %.1f commandes/min (%s)%n", perMinute,
+                options.getOrDefault("--pattern", "poisson"));
+        System.out.println(Sample.header());
+        SoakTest test = new SoakTest(bar, intervalMs);
+        test.run(load.arrivals(durationMs), durationMs, System.out::println);
+        System.out.println(test.summary());
+        bar.shutdown();
+
+        if (test.getRetainedBytesPerOrder() > maxRetained) {
+            System.out.printf("ALERTE: le tas garde plus de %d octets par commande%n", maxRetained);
+            System.exit(1);
+        }
+    }
+
+    /** {@code "Mojito=3,Gin Tonic=1"} : poids par cocktail. */
+    private static Map<String, Double> parseMix(String mix) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            int equals = part.lastIndexOf('=');
+            if (equals < 0) {
+                weights.merge(part.trim(), 1.0, Double::sum);
+            } else {
+                weights.merge(part.substring(0, equals).trim(), Double.parseDouble(part.substring(equals + 1).trim()),
+                        Double::sum);
+            }
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,243 @@
+package com.loveinabottle.barcocktail.snapshot;
+
+import com.loveinabottle.barcocktail.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantané binaire du catalogue d'un bar : ingrédients (avec leur stock),
+ * cocktails et recettes, employés.
+ *
+ * <pre>
+ * en-tête     : int MAGIC, int VERSION, int nbIngrédients, int nbCocktails,
+ *               int nbEmployés, int débutRecettes
+ * ingrédient  : texte nom, double volumeParUnité, byte alcool, int stock
+ * cocktail    : texte nom, double prix, int premièreEntrée, short nbEntrées
+ * employé     : byte type (0 bartender, 1 serveur), texte id, texte nom, int vitesse
+ * recettes    : (int indexIngrédient, int quantité) à la suite
+ * texte       : short longueur, octets UTF-8
+ * </pre>
+ *
+ * Le chargement projette le fichier en mémoire et ne décode les recettes
+ * qu'au premier accès ({@link LazyRecipe}). Un fichier projeté ne pouvant pas
+ * être remplacé partout (Windows refuse), chaque sauvegarde écrit une nouvelle
+ * génération {@code <fichier>.<n>} ; le chargement prend la plus récente.
+ */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x42415253; // "BARS"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final byte BARTENDER = 0;
+    private static final byte WAITER = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Remplit le bar (supposé vide) avec la dernière génération du catalogue.
+     *
+     * @return {@code false} si aucun catalogue n'a encore été enregistré
+     */
+    public static boolean load(Path file, Bar bar) throws IOException {
+        Path latest = latestGeneration(file);
+        if (latest == null) return false;
+        file = latest;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Fichier de catalogue non reconnu: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Version de catalogue non supportée: " + version);
+        }
+        int ingredientCount = buffer.getInt();
+        int cocktailCount = buffer.getInt();
+        int employeeCount = buffer.getInt();
+        int recipesStart = buffer.getInt();
+
+        Ingredient[] ingredients = new Ingredient[ingredientCount];
+        for (int i = 0; i < ingredientCount; i++) {
+            String name = getString(buffer);
+            double volume = buffer.getDouble();
+            boolean alcoholic = buffer.get() != 0;
+            ingredients[i] = new Ingredient(name, volume, alcoholic, buffer.getInt());
+            bar.addIngredient(ingredients[i]);
+        }
+
+        for (int i = 0; i < cocktailCount; i++) {
+            String name = getString(buffer);
+            double price = buffer.getDouble();
+            int firstEntry = buffer.getInt();
+            int entryCount = Short.toUnsignedInt(buffer.getShort());
+            ByteBuffer entries = buffer.slice(recipesStart + firstEntry * 8, entryCount * 8);
+            bar.addCocktailToMenu(new Cocktail(name, new LazyRecipe(entries, entryCount, ingredients), price));
+        }
+
+        for (int i = 0; i < employeeCount; i++) {
+            byte type = buffer.get();
+            String id = getString(buffer);
+            String name = getString(buffer);
+            int speed = buffer.getInt();
+            bar.addEmployee(type == WAITER ? new Waiter(id, name, speed) : new Bartender(id, name, speed));
+        }
+        return true;
+    }
+
+    /**
+     * Écrit le catalogue du bar dans une nouvelle génération (fichier temporaire
+     * puis renommage) : un lecteur n'en voit jamais une moitié, et l'ancienne
+     * génération, peut-être encore projetée par des {@link LazyRecipe}, n'est
+     * jamais réécrite. Elle est ensuite supprimée si le système l'accepte.
+     */
+    public static void write(Bar bar, Path file) throws IOException {
+        List<Ingredient> ingredients = bar.getAllIngredients();
+        List<Cocktail> menu = bar.getMenu();
+        List<Employee> employees = bar.getEmployees();
+        Map<String, Integer> ingredientIndex = new HashMap<>();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteArrayOutputStream recipes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        DataOutputStream recipeOut = new DataOutputStream(recipes);
+
+        for (Ingredient ingredient : ingredients) {
+            ingredientIndex.put(ingredient.getName(), ingredientIndex.size());
+            putString(out, ingredient.getName());
+            out.writeDouble(ingredient.getVolumePerUnit());
+            out.writeByte(ingredient.isAlcoholic() ? 1 : 0);
+            out.writeInt(ingredient.getStockUnits());
+        }
+
+        int entryCount = 0;
+        for (Cocktail cocktail : menu) {
+            int firstEntry = entryCount;
+            for (Map.Entry<Ingredient, Integer> e : cocktail.getRecipe().entrySet()) {
+                Integer index = ingredientIndex.get(e.getKey().getName());
+                if (index == null) continue; // ingrédient absent du stock : le cocktail ne sera jamais préparable
+                recipeOut.writeInt(index);
+                recipeOut.writeInt(e.getValue());
+                entryCount++;
+            }
+            putString(out, cocktail.getName());
+            out.writeDouble(cocktail.getBasePrice());
+            out.writeInt(firstEntry);
+            out.writeShort(entryCount - firstEntry);
+        }
+
+        for (Employee employee : employees) {
+            out.writeByte(employee instanceof Waiter ? WAITER : BARTENDER);
+            putString(out, employee.getId());
+            putString(out, employee.getName());
+            out.writeInt(employee.getSpeed());
+        }
+        out.flush();
+        recipeOut.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putInt(ingredients.size()).putInt(menu.size()).putInt(employees.size())
+                .putInt(HEADER_SIZE + body.size());
+        header.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer[] parts = {header, ByteBuffer.wrap(body.toByteArray()), ByteBuffer.wrap(recipes.toByteArray())};
+            long remaining = HEADER_SIZE + body.size() + recipes.size();
+            while (remaining > 0) {
+                remaining -= channel.write(parts);
+            }
+            channel.force(true);
+        }
+        Path previous = latestGeneration(file);
+        long generation = previous == null ? 1 : generationOf(file, previous) + 1;
+        Files.move(temp, generationFile(file, generation), StandardCopyOption.ATOMIC_MOVE);
+        deleteGenerationsBefore(file, generation);
+    }
+
+    /** Génération la plus récente ({@code file} seul compte pour la génération 0), ou {@code null}. */
+    static Path latestGeneration(Path file) throws IOException {
+        Path latest = Files.exists(file) ? file : null;
+        long latestGeneration = 0;
+        for (Path candidate : generations(file)) {
+            long generation = generationOf(file, candidate);
+            if (generation > latestGeneration) {
+                latest = candidate;
+                latestGeneration = generation;
+            }
+        }
+        return latest;
+    }
+
+    static Path generationFile(Path file, long generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    private static long generationOf(Path file, Path candidate) {
+        if (candidate.equals(file)) return 0;
+        String suffix = candidate.getFileName().toString().substring(file.getFileName().toString().length() + 1);
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static List<Path> generations(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(parent)) return result;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, file.getFileName() + ".*")) {
+            for (Path candidate : stream) {
+                Path sibling = file.resolveSibling(candidate.getFileName());
+                if (generationOf(file, sibling) > 0) result.add(sibling);
+            }
+        }
+        return result;
+    }
+
+    private static void deleteGenerationsBefore(Path file, long generation) throws IOException {
+        List<Path> old = generations(file);
+        old.add(file);
+        for (Path candidate : old) {
+            if (generationOf(file, candidate) >= generation) continue;
+            try {
+                Files.deleteIfExists(candidate);
+            } catch (IOException e) {
+                // Encore projetée (Windows) : la prochaine sauvegarde réessaiera
+            }
+        }
+    }
+
+    private static void putString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IOException("Texte trop long pour le catalogue: " + s.substring(0, 40));
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.loveinabottle.barcocktail.snapshot;
+
+import com.loveinabottle.barcocktail.model.Ingredient;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recette lue dans un catalogue projeté en mémoire : les entrées ne sont
+ * décodées qu'au premier accès, la plupart des cocktails d'une grande carte
+ * n'étant jamais commandés.
+ */
+final class LazyRecipe extends AbstractMap<Ingredient, Integer> {
+    private final ByteBuffer entries; // (int indexIngrédient, int quantité) * size
+    private final int size;
+    private final Ingredient[] ingredients;
+    private volatile Map<Ingredient, Integer> decoded;
+
+    LazyRecipe(ByteBuffer entries, int size, Ingredient[] ingredients) {
+        this.entries = entries;
+        this.size = size;
+        this.ingredients = ingredients;
+    }
+
+    private Map<Ingredient, Integer> decoded() {
+        Map<Ingredient, Integer> map = decoded;
+        if (map == null) {
+            // Décodage idempotent : deux threads peuvent le faire en même temps sans dommage
+            map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.merge(ingredients[entries.getInt(i * 8)], entries.getInt(i * 8 + 4), Integer::sum);
+            }
+            decoded = map;
+        }
+        return map;
+    }
+
+    @Override
+    public Set<Entry<Ingredient, Integer>> entrySet() {
+        return decoded().entrySet();
+    }
+
+    @Override
+    public Integer get(Object key) {
+        return decoded().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return decoded().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return decoded().size();
+    }
+}
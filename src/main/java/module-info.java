@@ -1,10 +1,20 @@
 module com.loveinabottle.barcocktail {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
+    requires jdk.httpserver;
 
 
     opens com.loveinabottle.barcocktail to javafx.fxml;
     opens com.loveinabottle.barcocktail.model to javafx.fxml;
     exports com.loveinabottle.barcocktail;
     exports com.loveinabottle.barcocktail.model;
+    exports com.loveinabottle.barcocktail.fx;
+    exports com.loveinabottle.barcocktail.host;
+    exports com.loveinabottle.barcocktail.http;
+    exports com.loveinabottle.barcocktail.importer;
+    exports com.loveinabottle.barcocktail.journal;
+    exports com.loveinabottle.barcocktail.metrics;
+    exports com.loveinabottle.barcocktail.simulation;
+    exports com.loveinabottle.barcocktail.snapshot;
 }
\ No newline at end of file
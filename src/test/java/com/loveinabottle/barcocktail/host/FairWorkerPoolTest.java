@@ -0,0 +1,200 @@
+package com.loveinabottle.barcocktail.host;
+
+import com.loveinabottle.barcocktail.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairWorkerPoolTest {
+
+    private final List<FairWorkerPool> pools = new ArrayList<>();
+
+    @AfterEach
+    void shutdownPools() throws InterruptedException {
+        for (FairWorkerPool pool : pools) {
+            pool.shutdown(5000);
+        }
+    }
+
+    // ===== Équité =====
+
+    @Test
+    void tenantsAreServedInTurn() throws Exception {
+        FairWorkerPool pool = pool(1);
+        FairWorkerPool.Tenant a = pool.newTenant("A", 1);
+        FairWorkerPool.Tenant b = pool.newTenant("B", 1);
+        CountDownLatch gate = new CountDownLatch(1);
+        pool.newTenant("Porte", 1).execute(() -> await(gate));
+
+        // Tout A est en file avant B : B passe quand même une fois sur deux
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 5; i++) a.execute(() -> { order.add("A"); done.countDown(); });
+        for (int i = 0; i < 5; i++) b.execute(() -> { order.add("B"); done.countDown(); });
+        gate.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("A", "B", "A", "B", "A", "B", "A", "B", "A", "B"), order);
+        waitUntil(() -> a.getCompletedTasks() == 5 && b.getCompletedTasks() == 5);
+    }
+
+    @Test
+    void aBusyTenantDoesNotStarveTheOthers() throws Exception {
+        FairWorkerPool pool = pool(4);
+        FairWorkerPool.Tenant busy = pool.newTenant("Coup de feu", 2);
+        FairWorkerPool.Tenant quiet = pool.newTenant("Calme", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 50; i++) busy.execute(() -> await(release));
+
+        CountDownLatch served = new CountDownLatch(1);
+        quiet.execute(served::countDown);
+        assertTrue(served.await(5, TimeUnit.SECONDS));
+        assertEquals(48, busy.getQueuedTasks());
+        release.countDown();
+    }
+
+    // ===== Plafond par locataire =====
+
+    @Test
+    void aTenantNeverRunsMoreThanItsCap() throws Exception {
+        FairWorkerPool pool = pool(4);
+        FairWorkerPool.Tenant tenant = pool.newTenant("A", 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            tenant.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                await(release);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        waitUntil(() -> tenant.getRunningTasks() == 2);
+        Thread.sleep(50); // laisser aux threads libres le temps d'en prendre une troisième
+        assertEquals(2, tenant.getRunningTasks());
+        assertEquals(18, tenant.getQueuedTasks());
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        waitUntil(() -> tenant.getCompletedTasks() == 20); // compté après le retour de la tâche
+    }
+
+    @Test
+    void aFailingTaskFreesItsThread() throws Exception {
+        FairWorkerPool pool = pool(1);
+        FairWorkerPool.Tenant tenant = pool.newTenant("A", 1);
+        CountDownLatch after = new CountDownLatch(1);
+        tenant.execute(() -> { throw new IllegalStateException("échec voulu"); });
+        tenant.execute(after::countDown);
+
+        assertTrue(after.await(5, TimeUnit.SECONDS));
+        waitUntil(() -> tenant.getCompletedTasks() == 2);
+        assertEquals(0, tenant.getRunningTasks());
+    }
+
+    @Test
+    void shutdownRunsQueuedTasksThenRejectsNewOnes() throws Exception {
+        FairWorkerPool pool = pool(1);
+        FairWorkerPool.Tenant tenant = pool.newTenant("A", 1);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        tenant.execute(() -> await(gate));
+        for (int i = 0; i < 3; i++) tenant.execute(ran::incrementAndGet);
+
+        Thread closer = new Thread(() -> {
+            try {
+                pool.shutdown(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        closer.start();
+        waitUntil(() -> closer.getState() == Thread.State.TIMED_WAITING);
+        assertThrows(RejectedExecutionException.class, () -> tenant.execute(ran::incrementAndGet));
+        gate.countDown();
+        closer.join(5000);
+        assertEquals(3, ran.get());
+    }
+
+    // ===== Hôte =====
+
+    @Test
+    void hostedBarsShareThePoolAndKeepTheirOwnState() throws Exception {
+        // Horloge accélérée : l'horloge à événements discrets n'est pas thread-safe, or les fins tournent sur le pool
+        BarClock clock = BarClock.scaled(1000);
+        try (BarHost host = new BarHost(2, clock)) {
+            Bar paris = host.openBar("Paris", 1);
+            Bar lyon = host.openBar("Lyon");
+            assertThrows(IllegalArgumentException.class, () -> host.openBar("Paris"));
+            assertSame(lyon, host.getBar("Lyon"));
+            assertEquals(1, host.getTenants().get(1).getMaxConcurrentTasks());
+
+            CountDownLatch completed = new CountDownLatch(4);
+            Map<Bar, Ingredient> rums = new HashMap<>();
+            for (Bar bar : List.of(paris, lyon)) {
+                Ingredient rum = new Ingredient("Rhum", 4, true, 10);
+                Cocktail shot = new Cocktail("Shot", Map.of(rum, 1), 3);
+                bar.addIngredient(rum);
+                bar.addCocktailToMenu(shot);
+                bar.setProgressTickMs(0);
+                bar.addEmployee(new Bartender("B1", "Marie", 1));
+                bar.addOrderListener(new OrderListener() {
+                    @Override
+                    public void onCompleted(Order order) {
+                        completed.countDown();
+                    }
+                });
+                rums.put(bar, rum);
+            }
+            for (int i = 0; i < 2; i++) {
+                assertTrue(paris.submit(paris.placeOrder(new Client("Paris"), List.of("Shot")).orElseThrow()).isAccepted());
+            }
+            for (int i = 0; i < 2; i++) {
+                assertTrue(lyon.submit(lyon.placeOrder(new Client("Lyon"), List.of("Shot")).orElseThrow()).isAccepted());
+            }
+
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+            assertEquals(8, rums.get(paris).getStockUnits());
+            assertEquals(8, rums.get(lyon).getStockUnits());
+            assertEquals(2, paris.getCompletedOrderCount());
+            for (BarHost.Tenant tenant : host.getTenants()) {
+                waitUntil(() -> tenant.getCompletedTasks() >= 2);
+            }
+        } finally {
+            clock.shutdown();
+        }
+    }
+
+    // ===== Outils =====
+
+    private FairWorkerPool pool(int threads) {
+        FairWorkerPool pool = new FairWorkerPool(threads, "test-pool-");
+        pools.add(pool);
+        return pool;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "délai dépassé");
+            Thread.sleep(1);
+        }
+    }
+}
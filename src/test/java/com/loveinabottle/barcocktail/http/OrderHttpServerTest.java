@@ -0,0 +1,194 @@
+package com.loveinabottle.barcocktail.http;
+
+import com.loveinabottle.barcocktail.importer.JsonReader;
+import com.loveinabottle.barcocktail.model.*;
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Les requêtes se suivent une à une : l'horloge à événements discrets n'est
+ * avancée que par le test, entre deux réponses.
+ */
+class OrderHttpServerTest {
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 3);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 100);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private OrderHttpServer server;
+
+    @BeforeEach
+    void open() throws IOException {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addCocktailToMenu(new Cocktail("Daiquiri", Map.of(rum, 1, lime, 1), 8));
+        bar.setProgressTickMs(0);
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        server = OrderHttpServer.start(bar, 0);
+    }
+
+    @AfterEach
+    void close() {
+        server.close();
+    }
+
+    // ===== Menu =====
+
+    @Test
+    void menuAndAvailability() throws Exception {
+        HttpResponse<String> menu = get("/menu");
+        assertEquals(200, menu.statusCode());
+        assertTrue(menu.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        List<?> cocktails = (List<?>) json(menu);
+        assertEquals("Daiquiri", ((Map<?, ?>) cocktails.get(0)).get("name"));
+
+        assertEquals(Map.of("Daiquiri", 3.0), json(get("/menu/availability")));
+        assertEquals(404, get("/menu/inconnu").statusCode());
+    }
+
+    // ===== Prise de commande =====
+
+    @Test
+    void acceptedOrderIs201AndCanBeFollowed() throws Exception {
+        HttpResponse<String> placed = post("/orders", "{\"client\": \"Table 4\", \"cocktails\": [\"daiquiri\"], \"priority\": \"vip\"}");
+        assertEquals(201, placed.statusCode());
+        Map<?, ?> order = (Map<?, ?>) json(placed);
+        assertEquals(true, order.get("accepted"));
+        assertEquals("ACCEPTED", order.get("reason"));
+        assertEquals("VIP", order.get("priority"));
+        assertEquals("IN_PROGRESS", order.get("status"));
+
+        HttpResponse<String> followed = get("/orders/" + order.get("id"));
+        assertEquals(200, followed.statusCode());
+        assertTrue(((Map<?, ?>) json(followed)).containsKey("eta"));
+
+        clock.runUntilIdle();
+        assertEquals("COMPLETED", ((Map<?, ?>) json(get("/orders/" + order.get("id")))).get("status"));
+    }
+
+    @Test
+    void refusedOrderIs409WithTheReason() throws Exception {
+        HttpResponse<String> refused = post("/orders", "{\"client\": \"Table 4\", \"cocktails\": [\"Daiquiri\", \"Daiquiri\", \"Daiquiri\", \"Daiquiri\"]}");
+        assertEquals(409, refused.statusCode());
+        Map<?, ?> order = (Map<?, ?>) json(refused);
+        assertEquals(false, order.get("accepted"));
+        assertEquals("OUT_OF_STOCK", order.get("reason"));
+        assertEquals("FAILED", ((Map<?, ?>) json(get("/orders/" + order.get("id")))).get("status"));
+
+        bar.setAdmissionLimits(1, 0);
+        assertEquals(201, post("/orders", "{\"client\": \"A\", \"cocktails\": [\"Daiquiri\"]}").statusCode());
+        assertEquals(201, post("/orders", "{\"client\": \"B\", \"cocktails\": [\"Daiquiri\"]}").statusCode());
+        HttpResponse<String> full = post("/orders", "{\"client\": \"C\", \"cocktails\": [\"Daiquiri\"], \"priority\": \"VIP\"}");
+        assertEquals(409, full.statusCode());
+        assertEquals("QUEUE_FULL", ((Map<?, ?>) json(full)).get("reason"));
+    }
+
+    @Test
+    void invalidRequestsAre400() throws Exception {
+        for (String body : List.of(
+                "{\"client\": \"A\", \"cocktails\": [\"Mojito\"]}",
+                "{\"cocktails\": [\"Daiquiri\"]}",
+                "{\"client\": \"A\", \"cocktails\": []}",
+                "{\"client\": \"A\", \"cocktails\": [4]}",
+                "{\"client\": \"A\", \"cocktails\": [\"Daiquiri\"], \"priority\": \"URGENT\"}",
+                "{\"client\": \"A\", \"cocktails\": [\"Daiquiri\"]} {}",
+                "[1, 2]",
+                "{\"client\": ")) {
+            HttpResponse<String> response = post("/orders", body);
+            assertEquals(400, response.statusCode(), body);
+            assertTrue(((Map<?, ?>) json(response)).containsKey("error"), body);
+        }
+        assertEquals(3, rum.getStockUnits());
+    }
+
+    @Test
+    void unknownOrdersAndRoutesAre404AndWrongMethodsAre405() throws Exception {
+        assertEquals(404, get("/orders/inconnue").statusCode());
+        assertEquals(404, post("/orders/inconnue/submit", "").statusCode());
+        assertEquals(404, post("/orders/inconnue/cancel", "").statusCode());
+        assertEquals(404, post("/orders/inconnue/rembourser", "").statusCode());
+
+        HttpResponse<String> wrongMethod = get("/orders");
+        assertEquals(405, wrongMethod.statusCode());
+        assertEquals("POST", wrongMethod.headers().firstValue("Allow").orElse(""));
+        assertEquals(405, post("/menu", "{}").statusCode());
+    }
+
+    // ===== Soumission différée et annulation =====
+
+    @Test
+    void placedOrderIsSubmittedOnce() throws Exception {
+        HttpResponse<String> placed = post("/orders", "{\"client\": \"A\", \"cocktails\": [\"Daiquiri\"], \"submit\": false}");
+        assertEquals(201, placed.statusCode());
+        String id = (String) ((Map<?, ?>) json(placed)).get("id");
+        assertEquals("PLACED", ((Map<?, ?>) json(get("/orders/" + id))).get("status"));
+        assertEquals(3, rum.getStockUnits());
+
+        assertEquals(201, post("/orders/" + id + "/submit", "").statusCode());
+        assertEquals(2, rum.getStockUnits());
+        assertEquals(409, post("/orders/" + id + "/submit", "").statusCode());
+    }
+
+    @Test
+    void cancellationIs200ThenConflictOnceFinished() throws Exception {
+        String running = idOf(post("/orders", "{\"client\": \"A\", \"cocktails\": [\"Daiquiri\"]}"));
+        String queued = idOf(post("/orders", "{\"client\": \"B\", \"cocktails\": [\"Daiquiri\"]}"));
+        assertEquals(1, rum.getStockUnits());
+
+        HttpResponse<String> cancelled = post("/orders/" + queued + "/cancel", "");
+        assertEquals(200, cancelled.statusCode());
+        assertEquals("CANCELLED", ((Map<?, ?>) json(cancelled)).get("status"));
+        assertEquals(2, rum.getStockUnits());
+        assertEquals(409, post("/orders/" + queued + "/cancel", "").statusCode());
+
+        clock.runUntilIdle();
+        assertEquals(409, post("/orders/" + running + "/cancel", "").statusCode());
+
+        String placed = idOf(post("/orders", "{\"client\": \"C\", \"cocktails\": [\"Daiquiri\"], \"submit\": false}"));
+        assertEquals(200, post("/orders/" + placed + "/cancel", "").statusCode());
+        assertEquals(409, post("/orders/" + placed + "/submit", "").statusCode());
+    }
+
+    // ===== Outils =====
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private static Object json(HttpResponse<String> response) throws IOException {
+        JsonReader json = new JsonReader(new StringReader(response.body()));
+        Object value = json.readValue();
+        json.endDocument();
+        return value;
+    }
+
+    private static String idOf(HttpResponse<String> response) throws IOException {
+        assertEquals(201, response.statusCode(), response.body());
+        return (String) ((Map<?, ?>) json(response)).get("id");
+    }
+}
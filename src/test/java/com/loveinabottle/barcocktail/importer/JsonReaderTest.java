@@ -0,0 +1,119 @@
+package com.loveinabottle.barcocktail.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    // ===== Valeurs =====
+
+    @Test
+    void readsNestedValues() throws IOException {
+        Object value = read(" {\"nom\": \"Mojito\", \"prix\": 8.5, \"alcool\": true, \"note\": null,"
+                + " \"recette\": [{\"Rhum\": 2}, []], \"vide\": {}} ");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("nom", "Mojito");
+        expected.put("prix", 8.5);
+        expected.put("alcool", true);
+        expected.put("note", null);
+        expected.put("recette", List.of(Map.of("Rhum", 2.0), List.of()));
+        expected.put("vide", Map.of());
+        assertEquals(expected, value);
+        // Ordre des champs conservé
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(((Map<?, ?>) value).keySet()));
+    }
+
+    @Test
+    void readsNumbers() throws IOException {
+        assertEquals(-12.0, read("-12"));
+        assertEquals(0.25, read("2.5e-1"));
+        assertEquals(1500.0, read("1.5E+3"));
+        assertThrows(IOException.class, () -> read("1.2.3"));
+        assertThrows(IOException.class, () -> read("-"));
+    }
+
+    @Test
+    void readsEscapes() throws IOException {
+        assertEquals("a\"b\\c/d\ne\tf", read("\"a\\\"b\\\\c\\/d\\ne\\tf\""));
+        assertEquals("Caïpirinha €", read("\"Ca\\u00efpirinha \\u20AC\""));
+        assertThrows(IOException.class, () -> read("\"\\u12zz\""));
+    }
+
+    @Test
+    void skipsByteOrderMark() throws IOException {
+        assertEquals(List.of(1.0), read("\uFEFF[1]"));
+    }
+
+    // ===== Erreurs =====
+
+    @Test
+    void rejectsTruncatedInput() {
+        for (String json : List.of("", "   ", "{", "{\"a\"", "{\"a\":", "{\"a\":1", "[1,", "\"texte", "tru", "nul")) {
+            assertThrows(IOException.class, () -> read(json), json);
+        }
+    }
+
+    @Test
+    void rejectsMalformedObjects() {
+        for (String json : List.of("{a:1}", "{\"a\" 1}", "{\"a\":1;}", "{\"a\":1,}", "[1 2]", "[1,]", "[,1]", "truth", "@")) {
+            assertThrows(IOException.class, () -> read(json), json);
+        }
+    }
+
+    @Test
+    void rejectsTrailingContent() {
+        for (String json : List.of("{\"a\":1}garbage", "{\"a\":1} {}", "[1]]", "1 2", "\"a\"\"b\"")) {
+            IOException error = assertThrows(IOException.class, () -> read(json), json);
+            assertTrue(error.getMessage().contains("après la valeur"), error.getMessage());
+        }
+    }
+
+    @Test
+    void acceptsTrailingWhitespace() throws IOException {
+        assertEquals(Map.of("a", 1.0), read("{\"a\":1} \r\n\t"));
+    }
+
+    @Test
+    void errorsGiveTheOffset() {
+        IOException error = assertThrows(IOException.class, () -> read("{\"a\": x}"));
+        assertTrue(error.getMessage().contains("caractère 6"), error.getMessage());
+    }
+
+    // ===== Lecture élément par élément =====
+
+    @Test
+    void streamsArrayElements() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[ {\"n\":1} , {\"n\":2},{\"n\":3} ]\n"));
+        json.beginArray();
+        List<Object> elements = new ArrayList<>();
+        while (json.hasNextElement()) {
+            elements.add(json.readValue());
+        }
+        json.endDocument();
+        assertEquals(List.of(Map.of("n", 1.0), Map.of("n", 2.0), Map.of("n", 3.0)), elements);
+    }
+
+    @Test
+    void unterminatedStreamedArrayFails() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[1, 2"));
+        json.beginArray();
+        assertTrue(json.hasNextElement());
+        json.readValue();
+        assertTrue(json.hasNextElement());
+        json.readValue();
+        assertThrows(IOException.class, json::hasNextElement);
+    }
+
+    private static Object read(String text) throws IOException {
+        JsonReader json = new JsonReader(new StringReader(text));
+        Object value = json.readValue();
+        json.endDocument();
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.loveinabottle.barcocktail.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineChunksTest {
+
+    @TempDir
+    Path directory;
+
+    // ===== Appartenance des lignes =====
+
+    @Test
+    void everyLineBelongsToExactlyOneChunkWhateverTheChunkSize() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lines.add("ligne-" + i + "-" + "x".repeat(i % 7));
+        }
+        Path file = write(String.join("\n", lines) + "\n");
+        long size = Files.size(file);
+
+        // Toutes les tailles de tranche jusqu'à la taille du fichier : chaque frontière
+        // tombe tour à tour sur un début de ligne, un milieu et une fin de ligne
+        for (long chunkSize = 1; chunkSize <= size + 1; chunkSize++) {
+            assertEquals(sorted(lines), sorted(read(file, 4, chunkSize).keySet()), "tranches de " + chunkSize);
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewlineIsRead() throws IOException {
+        Path file = write("un\ndeux\ntrois");
+        for (long chunkSize = 1; chunkSize <= 14; chunkSize++) {
+            assertEquals(sorted(List.of("un", "deux", "trois")), sorted(read(file, 2, chunkSize).keySet()));
+        }
+    }
+
+    @Test
+    void stripsCarriageReturnsAndSkipsBlankLines() throws IOException {
+        Path file = write("a\r\n\r\n\nb\r\nc\r\n");
+        for (long chunkSize = 1; chunkSize <= 12; chunkSize++) {
+            assertEquals(sorted(List.of("a", "b", "c")), sorted(read(file, 3, chunkSize).keySet()));
+        }
+    }
+
+    @Test
+    void countsEveryLineIncludingBlankOnes() throws IOException {
+        Path file = write("a\n\nb\nc");
+        assertEquals(4, LineChunks.forEachLine(file, 1, LineChunks.DEFAULT_CHUNK_SIZE, (text, first) -> { }));
+        assertEquals(4, LineChunks.forEachLine(file, 2, 2, (text, first) -> { }));
+    }
+
+    // ===== Première ligne =====
+
+    @Test
+    void onlyTheFirstLineOfTheFileIsMarkedFirst() throws IOException {
+        Path file = write("nom;prix\nMojito;8\nSpritz;7\n");
+        for (long chunkSize = 1; chunkSize <= 30; chunkSize++) {
+            Map<String, Boolean> lines = read(file, 4, chunkSize);
+            assertEquals(Map.of("nom;prix", true, "Mojito;8", false, "Spritz;7", false), lines);
+        }
+    }
+
+    @Test
+    void dropsTheByteOrderMarkOfTheFirstLine() throws IOException {
+        Path file = directory.resolve("bom.csv");
+        Files.write(file, ("\uFEFFnom\nMojito\n").getBytes(StandardCharsets.UTF_8));
+        for (long chunkSize = 1; chunkSize <= 12; chunkSize++) {
+            assertEquals(Map.of("nom", true, "Mojito", false), read(file, 2, chunkSize));
+        }
+    }
+
+    @Test
+    void emptyFileHasNoLines() throws IOException {
+        assertEquals(0, LineChunks.forEachLine(write(""), 4, 8, (text, first) -> fail(text)));
+    }
+
+    // ===== Outils =====
+
+    private Path write(String text) throws IOException {
+        Path file = Files.createTempFile(directory, "lignes", ".txt");
+        Files.writeString(file, text);
+        return file;
+    }
+
+    /** Lignes lues et leur marque de première ligne ; échoue si une ligne est vue deux fois. */
+    private static Map<String, Boolean> read(Path file, int parallelism, long chunkSize) throws IOException {
+        Queue<Map.Entry<String, Boolean>> seen = new ConcurrentLinkedQueue<>();
+        LineChunks.forEachLine(file, parallelism, chunkSize, (text, first) -> seen.add(Map.entry(text, first)));
+        Map<String, Boolean> lines = new HashMap<>();
+        for (Map.Entry<String, Boolean> line : seen) {
+            assertNull(lines.put(line.getKey(), line.getValue()), "ligne lue deux fois: " + line.getKey());
+        }
+        return lines;
+    }
+
+    private static List<String> sorted(Collection<String> lines) {
+        List<String> sorted = new ArrayList<>(lines);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,295 @@
+package com.loveinabottle.barcocktail.journal;
+
+import com.loveinabottle.barcocktail.model.*;
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+    private static final long NO_FLUSH_MS = 60_000; // pas de compaction périodique pendant un test
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path crashImage;
+
+    private final List<OrderJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (OrderJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    // ===== Reprise =====
+
+    @Test
+    void recoversStockTotalsAndUnfinishedOrders() throws IOException {
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = newBar(clock);
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        for (int i = 0; i < 12; i++) {
+            submit(bar, "Client " + i, cocktail(bar, i));
+            clock.runUntil(clock.millis() + 5_000);
+        }
+        assertTrue(bar.getWaitingOrderCount() + bar.getInProgressOrderCount() > 0);
+        Set<String> unfinished = unfinishedIds(bar);
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        List<Order> resumed = open(crash(directory), OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(recovered);
+
+        Set<String> resumedIds = new HashSet<>();
+        resumed.forEach(o -> resumedIds.add(o.getId()));
+        assertEquals(unfinished, resumedIds);
+        // Les commandes reprises ont de nouveau réservé leurs unités : même stock
+        assertEquals(stock(bar), stock(recovered));
+        assertEquals(bar.getCompletedOrderCount(), recovered.getCompletedOrderCount());
+        assertEquals(bar.getOrderHistory().getTotalRevenue(), recovered.getOrderHistory().getTotalRevenue(), 1e-9);
+        assertEquals(bar.getOrderHistory().getTotalsByCocktail().keySet(),
+                recovered.getOrderHistory().getTotalsByCocktail().keySet());
+    }
+
+    @Test
+    void cancelledOrderGivesItsUnitsBackOnRecovery() throws IOException {
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = newBar(clock);
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            orders.add(submit(bar, "Client " + i, cocktail(bar, i)));
+        }
+        Order queued = bar.getWaitingOrders().get(0);
+        assertTrue(bar.cancelOrder(queued));
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        List<Order> resumed = open(crash(directory), OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(recovered);
+
+        assertEquals(orders.size() - 1, resumed.size());
+        assertTrue(resumed.stream().noneMatch(o -> o.getId().equals(queued.getId())));
+        assertEquals(stock(bar), stock(recovered));
+    }
+
+    @Test
+    void clearedHistoryStaysClearedAfterRecovery() throws IOException {
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = newBar(clock);
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        submit(bar, "Avant", cocktail(bar, 0));
+        clock.runUntilIdle();
+        bar.clearCompletedOrders();
+        submit(bar, "Après", cocktail(bar, 1));
+        clock.runUntilIdle();
+        assertEquals(1, bar.getCompletedOrderCount());
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        open(crash(directory), OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(recovered);
+
+        assertEquals(1, recovered.getCompletedOrderCount());
+        assertEquals(cocktail(bar, 1).getBasePrice(), recovered.getOrderHistory().getTotalRevenue(), 1e-9);
+    }
+
+    // ===== Fin de segment abîmée =====
+
+    @Test
+    void corruptedLastRecordIsIgnored() throws IOException {
+        Bar bar = newBar(new DiscreteEventClock(0));
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        Ingredient rhum = bar.findIngredientByName("Rhum");
+        rhum.addUnits(3);
+        int before = rhum.getStockUnits();
+        rhum.addUnits(7); // dernier enregistrement : STOCK, 4 + 1 + 8 + 4 octets
+
+        Path segment = onlySegment(crash(directory));
+        int end = validEnd(segment);
+        flipByte(segment, end - 2); // CRC du dernier enregistrement
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        open(segment.getParent(), OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(recovered);
+        assertEquals(before, recovered.findIngredientByName("Rhum").getStockUnits());
+    }
+
+    @Test
+    void tornRecordAfterTheEndIsIgnored() throws IOException {
+        Bar bar = newBar(new DiscreteEventClock(0));
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        bar.findIngredientByName("Gin").addUnits(4);
+        Map<String, Integer> expected = stock(bar);
+
+        Path segment = onlySegment(crash(directory));
+        int end = validEnd(segment);
+        // Écriture interrompue : longueur posée, contenu et CRC incomplets
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(6).putInt(9).put(JournalWriter.STOCK).put((byte) 1).flip(), end);
+        }
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        open(segment.getParent(), OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(recovered);
+        assertEquals(expected, stock(recovered));
+    }
+
+    // ===== Compaction et choix du segment =====
+
+    @Test
+    void compactionKeepsStateAndRemovesOldSegments() throws IOException {
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = newBar(clock);
+        // Compaction périodique rapide sur un petit segment
+        OrderJournal journal = OrderJournal.open(directory, 4096, 5);
+        opened.add(journal);
+        journal.recover(bar);
+        for (int i = 0; i < 300; i++) {
+            submit(bar, "Client " + i, cocktail(bar, i));
+            clock.runUntil(clock.millis() + 10_000);
+        }
+        clock.runUntilIdle();
+        journal.close();
+        opened.remove(journal);
+
+        assertEquals(1, segments(directory).size());
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        open(directory, 4096).recover(recovered);
+        assertEquals(stock(bar), stock(recovered));
+        assertEquals(bar.getCompletedOrderCount(), recovered.getCompletedOrderCount());
+        assertEquals(bar.getOrderHistory().getTotalRevenue(), recovered.getOrderHistory().getTotalRevenue(), 1e-9);
+    }
+
+    @Test
+    void fullSegmentQueuesRecordsUntilBackgroundCompaction() throws IOException {
+        DiscreteEventClock clock = new DiscreteEventClock(0);
+        Bar bar = newBar(clock);
+        // Pas de passage périodique : seul un segment plein déclenche la compaction
+        OrderJournal journal = open(directory, 4096);
+        journal.recover(bar);
+        Ingredient soda = bar.findIngredientByName("Soda");
+        for (int i = 0; i < 2_000; i++) {
+            soda.addUnits(1);
+        }
+        // Les enregistrements arrivés pendant une bascule sont en mémoire jusqu'à leur recopie
+        journal.sync();
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        open(crash(directory), 4096).recover(recovered);
+        assertEquals(soda.getStockUnits(), recovered.findIngredientByName("Soda").getStockUnits());
+    }
+
+    @Test
+    void openSkipsNewerSegmentsWithoutCompleteCheckpoint() throws IOException {
+        Bar bar = newBar(new DiscreteEventClock(0));
+        open(directory, OrderJournal.DEFAULT_SEGMENT_CAPACITY).recover(bar);
+        bar.findIngredientByName("Vodka").addUnits(9);
+        Path image = crash(directory);
+
+        // Compaction interrompue avant la fin du point de reprise
+        try (JournalSegment torn = JournalSegment.create(image.resolve("segment-000100.journal"), 4096)) {
+            JournalWriter writer = new JournalWriter(torn);
+            writer.checkpointBegin(0);
+            writer.stockLevel("Vodka", 0);
+        }
+        // Fichier étranger portant un nom de segment
+        Files.write(image.resolve("segment-000200.journal"), new byte[64]);
+
+        Bar recovered = newBar(new DiscreteEventClock(0));
+        OrderJournal journal = open(image, OrderJournal.DEFAULT_SEGMENT_CAPACITY);
+        journal.recover(recovered);
+        assertEquals(stock(bar), stock(recovered));
+        // Le segment suivant passe après les invalides, qui sont alors supprimés
+        assertEquals(List.of("segment-000201.journal"), segments(image));
+    }
+
+    // ===== Outils =====
+
+    private OrderJournal open(Path dir, int capacity) throws IOException {
+        OrderJournal journal = OrderJournal.open(dir, capacity, NO_FLUSH_MS);
+        opened.add(journal);
+        return journal;
+    }
+
+    private static Bar newBar(DiscreteEventClock clock) {
+        Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+        DemoCatalog.populate(bar);
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            ingredient.addUnits(1_000);
+        }
+        bar.setProgressTickMs(0);
+        return bar;
+    }
+
+    private static Cocktail cocktail(Bar bar, int i) {
+        List<Cocktail> menu = bar.getMenu();
+        return menu.get(i % menu.size());
+    }
+
+    private static Order submit(Bar bar, String client, Cocktail cocktail) {
+        Order order = bar.placeOrder(new Client(client), List.of(cocktail.getName())).orElseThrow();
+        assertTrue(bar.submitOrderForPreparation(order));
+        return order;
+    }
+
+    private static Set<String> unfinishedIds(Bar bar) {
+        Set<String> ids = new HashSet<>();
+        bar.getWaitingOrders().forEach(o -> ids.add(o.getId()));
+        bar.getInProgressOrders().forEach(o -> ids.add(o.getId()));
+        return ids;
+    }
+
+    private static Map<String, Integer> stock(Bar bar) {
+        Map<String, Integer> levels = new TreeMap<>();
+        bar.getAllIngredients().forEach(i -> levels.put(i.getName(), i.getStockUnits()));
+        return levels;
+    }
+
+    /** Image disque au moment de l'arrêt brutal : copie des segments d'un journal encore ouvert. */
+    private Path crash(Path dir) throws IOException {
+        for (String name : segments(dir)) {
+            try {
+                Files.copy(dir.resolve(name), crashImage.resolve(name));
+            } catch (NoSuchFileException ignored) {
+                // supprimé par une compaction pendant la copie
+            }
+        }
+        return crashImage;
+    }
+
+    private static List<String> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString()).filter(n -> n.endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static Path onlySegment(Path dir) throws IOException {
+        List<String> names = segments(dir);
+        assertEquals(1, names.size());
+        return dir.resolve(names.get(0));
+    }
+
+    private static int validEnd(Path segment) throws IOException {
+        try (JournalSegment reader = JournalSegment.open(segment)) {
+            return reader.getPosition();
+        }
+    }
+
+    private static void flipByte(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, position);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static final long MOJITO_MS = 3L * Bar.BASE_TIME_PER_INGREDIENT_MS;
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 100);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 100);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 100);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 1, lime, 1, mint, 1), 9);
+
+    AdmissionControlTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addIngredient(mint);
+        bar.setBatchWindow(0);
+        bar.setProgressTickMs(0);
+    }
+
+    // ===== Raisons de refus =====
+
+    @Test
+    void noBartenderRejectsWithoutTouchingTheStock() {
+        Order order = order(Order.Priority.VIP);
+        SubmissionResult result = bar.submit(order);
+
+        assertEquals(SubmissionResult.Status.NO_BARTENDER, result.getStatus());
+        assertEquals(-1, result.getEstimatedWaitMs());
+        assertEquals(Order.OrderStatus.FAILED, order.getStatus());
+        assertEquals(100, rum.getStockUnits());
+        assertEquals(0, bar.getWaitingOrderCount());
+    }
+
+    @Test
+    void outOfStockRejectsTheWholeOrder() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        mint.removeUnits(99);
+        assertTrue(bar.submit(order(Order.Priority.TABLE)).isAccepted());
+
+        Order order = new Order(new Client("Client"), List.of(mojito));
+        SubmissionResult result = bar.submit(order);
+        assertEquals(SubmissionResult.Status.OUT_OF_STOCK, result.getStatus());
+        assertEquals(Order.OrderStatus.FAILED, order.getStatus());
+        // Rien n'est pris sur les autres ingrédients de la recette
+        assertEquals(99, rum.getStockUnits());
+        assertEquals(99, lime.getStockUnits());
+        assertNull(order.getReservation());
+    }
+
+    @Test
+    void queueFullRejectsLowerClassesFirst() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        bar.setAdmissionLimits(5, 0);
+        submitAccepted(Order.Priority.TABLE); // en préparation, hors file
+        for (int i = 0; i < 3; i++) submitAccepted(Order.Priority.TABLE);
+
+        // Parts de la file : à emporter 3, à table 4, VIP 5
+        assertRejected(SubmissionResult.Status.QUEUE_FULL, Order.Priority.TAKEAWAY);
+        submitAccepted(Order.Priority.TABLE);
+        assertRejected(SubmissionResult.Status.QUEUE_FULL, Order.Priority.TABLE);
+        submitAccepted(Order.Priority.VIP);
+        assertRejected(SubmissionResult.Status.QUEUE_FULL, Order.Priority.VIP);
+        assertEquals(5, bar.getWaitingOrderCount());
+        assertEquals(100 - 6, rum.getStockUnits());
+    }
+
+    @Test
+    void waitTooLongReportsThePredictedWait() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        bar.setQueuePolicy(Bar.QueuePolicy.PRIORITY);
+        bar.setAdmissionLimits(0, 100_000);
+        submitAccepted(Order.Priority.TABLE);
+        SubmissionResult second = submitAccepted(Order.Priority.TABLE);
+        assertEquals(MOJITO_MS, second.getEstimatedWaitMs());
+
+        // À table : 2 mojitos devant, 120 s prévues pour 80 s permises
+        SubmissionResult refused = assertRejected(SubmissionResult.Status.WAIT_TOO_LONG, Order.Priority.TABLE);
+        assertEquals(2 * MOJITO_MS, refused.getEstimatedWaitMs());
+        // Un VIP double la commande en file : il n'attend que la fin de celle en cours
+        assertEquals(MOJITO_MS, submitAccepted(Order.Priority.VIP).getEstimatedWaitMs());
+    }
+
+    // ===== Réouverture =====
+
+    @Test
+    void admissionReopensAsTheQueueDrains() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        bar.setAdmissionLimits(1, 0);
+        submitAccepted(Order.Priority.VIP);
+        submitAccepted(Order.Priority.VIP);
+        assertRejected(SubmissionResult.Status.QUEUE_FULL, Order.Priority.VIP);
+
+        clock.runUntil(MOJITO_MS);
+        assertEquals(0, bar.getWaitingOrderCount());
+        submitAccepted(Order.Priority.VIP);
+
+        bar.setAdmissionLimits(0, 0);
+        for (int i = 0; i < 10; i++) submitAccepted(Order.Priority.TAKEAWAY);
+    }
+
+    @Test
+    void submitOrderForPreparationFollowsTheSameRules() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        bar.setAdmissionLimits(1, 0);
+        assertTrue(bar.submitOrderForPreparation(order(Order.Priority.TABLE)));
+        assertTrue(bar.submitOrderForPreparation(order(Order.Priority.TABLE)));
+        Order refused = order(Order.Priority.TABLE);
+        assertFalse(bar.submitOrderForPreparation(refused));
+        assertEquals(Order.OrderStatus.FAILED, refused.getStatus());
+    }
+
+    // ===== Outils =====
+
+    private Order order(Order.Priority priority) {
+        Order order = new Order(new Client("Client"), List.of(mojito));
+        order.setPriority(priority);
+        return order;
+    }
+
+    private SubmissionResult submitAccepted(Order.Priority priority) {
+        Order order = order(priority);
+        SubmissionResult result = bar.submit(order);
+        assertTrue(result.isAccepted(), result::toString);
+        assertNotNull(order.getReservation());
+        return result;
+    }
+
+    private SubmissionResult assertRejected(SubmissionResult.Status status, Order.Priority priority) {
+        Order order = order(priority);
+        int stockBefore = rum.getStockUnits();
+        SubmissionResult result = bar.submit(order);
+        assertEquals(status, result.getStatus(), priority.name());
+        assertEquals(Order.OrderStatus.FAILED, order.getStatus());
+        assertEquals(stockBefore, rum.getStockUnits());
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarEstimateTest {
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 1_000);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 1_000);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 1_000);
+    private final Cocktail daiquiri = new Cocktail("Daiquiri", Map.of(rum, 1, lime, 1), 8);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 1, lime, 1, mint, 1), 9);
+    private final Map<Order, Long> finishedAt = new HashMap<>();
+
+    BarEstimateTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addIngredient(mint);
+        bar.setBatchWindow(0);
+        bar.setProgressTickMs(0);
+        bar.addOrderListener(new OrderListener() {
+            @Override
+            public void onCompleted(Order order) {
+                finishedAt.put(order, clock.millis());
+            }
+        });
+    }
+
+    // ===== Estimation contre fin réelle =====
+
+    @Test
+    void estimatesMatchActualFinishTimesWithOneBartender() {
+        bar.addEmployee(new Bartender("B1", "Marie", 2));
+        List<Order> orders = submitAll(mojito, daiquiri, mojito, daiquiri, daiquiri);
+        Map<Order, OrderEta> etas = estimates(orders);
+
+        // Les commandes se suivent chez le même bartender : chacune commence à la fin de la précédente
+        assertEquals(0, etas.get(orders.get(0)).getStartMs());
+        for (int i = 1; i < orders.size(); i++) {
+            assertEquals(etas.get(orders.get(i - 1)).getFinishMs(), etas.get(orders.get(i)).getStartMs());
+            // La première est déjà en préparation : seules comptent les commandes encore en file
+            assertEquals(i - 1, etas.get(orders.get(i)).getOrdersAhead());
+        }
+
+        clock.runUntilIdle();
+        for (Order order : orders) {
+            assertEquals(etas.get(order).getFinishMs(), finishedAt.get(order), order.getId());
+        }
+    }
+
+    @Test
+    void estimatesMatchActualFinishTimesAcrossBartenders() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        bar.addEmployee(new Bartender("B2", "Paul", 3));
+        List<Order> orders = submitAll(mojito, mojito, daiquiri, mojito, daiquiri, daiquiri, mojito);
+        Map<Order, OrderEta> etas = estimates(orders);
+
+        clock.runUntilIdle();
+        assertEquals(orders.size(), finishedAt.size());
+        Set<Employee> bartenders = new HashSet<>();
+        for (Order order : orders) {
+            assertEquals(etas.get(order).getFinishMs(), finishedAt.get(order), order.getId());
+            bartenders.add(order.getAssignedBartender());
+        }
+        assertEquals(2, bartenders.size());
+    }
+
+    @Test
+    void estimateOfAnOrderInProgressUsesItsPreparationWindow() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        Order order = submitAll(mojito).get(0);
+        long duration = 3L * Bar.BASE_TIME_PER_INGREDIENT_MS;
+
+        clock.runUntil(duration / 3);
+        OrderEta eta = bar.estimate(order).orElseThrow();
+        assertEquals(Order.OrderStatus.IN_PROGRESS, order.getStatus());
+        assertEquals(0, eta.getStartMs());
+        assertEquals(duration, eta.getFinishMs());
+        assertEquals(duration - duration / 3, eta.getRemainingMs(clock.millis()));
+
+        clock.runUntilIdle();
+        assertTrue(bar.estimate(order).isEmpty());
+    }
+
+    // ===== Mises à jour =====
+
+    @Test
+    void cancellingAnOrderAheadBringsTheEstimateForward() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        List<Order> orders = submitAll(mojito, mojito, daiquiri);
+        long before = bar.estimate(orders.get(2)).orElseThrow().getFinishMs();
+
+        assertTrue(bar.cancelOrder(orders.get(1)));
+        OrderEta after = bar.estimate(orders.get(2)).orElseThrow();
+        assertEquals(before - 3L * Bar.BASE_TIME_PER_INGREDIENT_MS, after.getFinishMs());
+        assertEquals(0, after.getOrdersAhead());
+
+        clock.runUntilIdle();
+        assertEquals(after.getFinishMs(), finishedAt.get(orders.get(2)));
+    }
+
+    @Test
+    void priorityOrderIsEstimatedAheadOfEarlierOnes() {
+        bar.setQueuePolicy(Bar.QueuePolicy.PRIORITY);
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        List<Order> orders = submitAll(mojito, daiquiri, daiquiri);
+        Order vip = new Order(new Client("VIP"), List.of(daiquiri));
+        vip.setPriority(Order.Priority.VIP);
+        assertTrue(bar.submit(vip).isAccepted());
+
+        OrderEta vipEta = bar.estimate(vip).orElseThrow();
+        assertEquals(0, vipEta.getOrdersAhead()); // seule la commande déjà en préparation la précède
+        assertEquals(vipEta.getFinishMs(), bar.estimate(orders.get(1)).orElseThrow().getStartMs());
+
+        clock.runUntilIdle();
+        assertEquals(vipEta.getFinishMs(), finishedAt.get(vip));
+    }
+
+    // ===== Outils =====
+
+    private List<Order> submitAll(Cocktail... cocktails) {
+        List<Order> orders = new ArrayList<>();
+        for (Cocktail cocktail : cocktails) {
+            Order order = new Order(new Client("Client"), List.of(cocktail));
+            assertTrue(bar.submit(order).isAccepted());
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private Map<Order, OrderEta> estimates(List<Order> orders) {
+        Map<Order, OrderEta> etas = new HashMap<>();
+        for (Order order : orders) {
+            etas.put(order, bar.estimate(order).orElseThrow());
+        }
+        return etas;
+    }
+}
@@ -0,0 +1,140 @@
+package com.loveinabottle.barcocktail.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BartenderSchedulerTest {
+
+    private static final long MS_PER_INGREDIENT = 1_000;
+
+    private final BartenderScheduler scheduler = new BartenderScheduler(MS_PER_INGREDIENT);
+    private final Bartender slow = new Bartender("B1", "Marie", 1);
+    private final Bartender fast = new Bartender("B2", "Paul", 2);
+
+    // ===== Affectation =====
+
+    @Test
+    void assignsEachOrderToTheBartenderWhoWouldFinishItFirst() {
+        scheduler.addBartender(slow);
+        scheduler.addBartender(fast);
+
+        // Rapide : fins à 1 s, 2 s, 3 s... ; lent : fins à 2 s, 4 s... ; à égalité, le premier embauché
+        List<Bartender> assigned = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            assigned.add(scheduler.assign(order(2), 0));
+        }
+        assertEquals(List.of(fast, slow, fast, fast, slow, fast), assigned);
+    }
+
+    @Test
+    void waitEstimateFollowsTheLeastLoadedBartender() {
+        scheduler.addBartender(slow);
+        scheduler.addBartender(fast);
+        assertEquals(0, scheduler.estimateWaitMs(order(2), 0));
+
+        assertSame(fast, scheduler.assign(order(4), 0));
+        // Le lent, libre, la finirait à 2 s ; le rapide, pris jusqu'à 2 s, à 3 s
+        assertEquals(0, scheduler.estimateWaitMs(order(2), 0));
+        assertSame(slow, scheduler.assign(order(2), 0));
+        // Cette fois le rapide la finit à 3 s, le lent à 4 s
+        assertEquals(2_000, scheduler.estimateWaitMs(order(2), 0));
+    }
+
+    @Test
+    void noBartenderMeansNoAssignment() {
+        Order order = order(1);
+        assertEquals(-1, scheduler.estimateWaitMs(order, 0));
+        assertNull(scheduler.assign(order, 0));
+        assertFalse(scheduler.hasQueuedOrders());
+        assertTrue(scheduler.nextBatch(slow, 0, 1).isEmpty());
+    }
+
+    // ===== Vol de travail =====
+
+    @Test
+    void idleBartenderTakesTheMoreUrgentHeadOfABusyBartender() {
+        Bartender other = new Bartender("B3", "Léa", 2);
+        scheduler.addBartender(fast);
+        List<Order> orders = List.of(order(2), order(2), order(2));
+        orders.forEach(o -> scheduler.assign(o, 0));
+        scheduler.addBartender(other);
+
+        assertEquals(List.of(orders.get(0)), scheduler.nextBatch(fast, 0, 1));
+        // Sa file est vide, celle du rapide attendrait la fin de la commande en cours
+        assertEquals(List.of(orders.get(1)), scheduler.nextBatch(other, 0, 1));
+        assertTrue(scheduler.nextBatch(other, 0, 1).isEmpty()); // déjà occupé
+    }
+
+    @Test
+    void idleBartenderStealsFromTheBusiestQueue() {
+        Bartender idle = new Bartender("B3", "Léa", 2);
+        Bartender light = new Bartender("B4", "Hugo", 2);
+        scheduler.addBartender(fast);
+        List<Order> heavy = List.of(order(3), order(3), order(3));
+        heavy.forEach(o -> scheduler.assign(o, 0));
+        scheduler.addBartender(light);
+        Order single = order(1);
+        assertSame(light, scheduler.assign(single, 0));
+        scheduler.addBartender(idle);
+
+        // Personne n'est occupé : le bartender sans commande vole la tête de la file la plus chargée
+        assertEquals(List.of(heavy.get(0)), scheduler.nextBatch(idle, 0, 1));
+        assertEquals(List.of(heavy.get(1)), scheduler.nextBatch(fast, 0, 1));
+        // Arrivée avant sa propre commande, la dernière du rapide occupé passe d'abord
+        assertEquals(List.of(heavy.get(2)), scheduler.nextBatch(light, 0, 1));
+        scheduler.finished(light);
+        assertEquals(List.of(single), scheduler.nextBatch(light, 1_500, 1));
+        assertFalse(scheduler.hasQueuedOrders());
+    }
+
+    @Test
+    void slowBartenderDoesNotStealWhatTheOwnerFinishesSooner() {
+        Bartender quick = new Bartender("B3", "Léa", 4);
+        scheduler.addBartender(quick);
+        Order first = order(4);
+        Order second = order(4);
+        scheduler.assign(first, 0);
+        scheduler.assign(second, 0);
+        scheduler.addBartender(slow);
+
+        assertEquals(List.of(first), scheduler.nextBatch(quick, 0, 1));
+        // Le rapide finit la seconde à 2 s ; le lent ne la finirait qu'à 4 s
+        assertTrue(scheduler.nextBatch(slow, 0, 1).isEmpty());
+        assertTrue(scheduler.getIdleBartenders().contains(slow));
+        assertEquals(2_000, scheduler.estimate(second, 0).getFinishMs());
+
+        scheduler.finished(quick);
+        assertEquals(List.of(second), scheduler.nextBatch(quick, 1_000, 1));
+    }
+
+    @Test
+    void stealingNeverDelaysTheStolenOrder() {
+        scheduler.addBartender(fast);
+        Order first = order(2);
+        Order second = order(2);
+        scheduler.assign(first, 0);
+        scheduler.assign(second, 0);
+        scheduler.addBartender(slow);
+
+        assertEquals(List.of(first), scheduler.nextBatch(fast, 0, 1));
+        assertEquals(2_000, scheduler.estimate(second, 0).getFinishMs());
+        // Le lent la finit à 2 s, comme le rapide après sa commande en cours : il la prend
+        assertEquals(List.of(second), scheduler.nextBatch(slow, 0, 1));
+        assertEquals(2_000, scheduler.estimateDurationMs(second, slow));
+        assertNull(scheduler.estimate(second, 0));
+    }
+
+    // ===== Outils =====
+
+    /** Commande d'un cocktail (distinct à chaque appel) de {@code ingredients} ingrédients. */
+    private static Order order(int ingredients) {
+        Map<Ingredient, Integer> recipe = new LinkedHashMap<>();
+        for (int i = 0; i < ingredients; i++) {
+            recipe.put(new Ingredient("Ingrédient " + i, 1, false, 0), 1);
+        }
+        return new Order(new Client("Client"), List.of(new Cocktail("Cocktail", recipe, 1)));
+    }
+}
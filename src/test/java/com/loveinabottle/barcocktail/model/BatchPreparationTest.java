@@ -0,0 +1,186 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPreparationTest {
+
+    private static final long MS = Bar.BASE_TIME_PER_INGREDIENT_MS;
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 100);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 100);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 100);
+    private final Cocktail daiquiri = new Cocktail("Daiquiri", Map.of(rum, 1, lime, 1), 8);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 1, lime, 1, mint, 1), 9);
+    private final Bartender marie = new Bartender("B1", "Marie", 1);
+    private final Map<Order, Long> startedAt = new HashMap<>();
+    private final Map<Order, Long> finishedAt = new HashMap<>();
+
+    BatchPreparationTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addIngredient(mint);
+        bar.setProgressTickMs(0);
+        bar.addOrderListener(new OrderListener() {
+            @Override
+            public void onStarted(Order order) {
+                startedAt.put(order, clock.millis());
+            }
+
+            @Override
+            public void onCompleted(Order order) {
+                assertNull(finishedAt.put(order, clock.millis()), "terminée deux fois");
+            }
+        });
+        bar.addEmployee(marie);
+    }
+
+    // ===== Formation des tournées =====
+
+    @Test
+    void queuedOrdersOfTheSameCocktailsArePreparedTogether() {
+        bar.setBatchWindow(6);
+        Order running = submit(mojito);
+        Order first = submit(mojito);
+        Order second = submit(mojito);
+        Order other = submit(daiquiri);
+        Order third = submit(mojito);
+
+        clock.runUntilIdle();
+        long runEnd = 3 * MS;
+        // Trois mojitos de commandes distinctes : le premier en entier, les deux autres à 35 %
+        long batchEnd = runEnd + Math.round(3 * (1 + 2 * BartenderScheduler.BATCH_EXTRA_SHARE) * MS);
+        assertEquals(runEnd, finishedAt.get(running));
+        for (Order order : List.of(first, second, third)) {
+            assertEquals(runEnd, startedAt.get(order));
+            assertEquals(batchEnd, finishedAt.get(order));
+        }
+        // Le daiquiri n'est pas dans la tournée : il passe après, seul
+        assertEquals(batchEnd, startedAt.get(other));
+        assertEquals(batchEnd + 2 * MS, finishedAt.get(other));
+    }
+
+    @Test
+    void aRunOnlyTakesOrdersWhoseCocktailsAreAllInIt() {
+        bar.setBatchWindow(6);
+        submit(mojito);
+        Order head = submit(mojito, daiquiri);
+        Order daiquiriOnly = submit(daiquiri);
+        Order mojitoOnly = submit(mojito);
+        Order withExtra = submit(daiquiri, mojito, mojito);
+
+        clock.runUntilIdle();
+        long runStart = 3 * MS;
+        assertEquals(runStart, startedAt.get(daiquiriOnly));
+        assertEquals(runStart, startedAt.get(mojitoOnly));
+        assertEquals(runStart, startedAt.get(withExtra));
+        // La tête compte en entier ; chaque exemplaire des autres commandes à 35 %
+        double ingredients = 5 + (2 + 3 + 2 + 3 + 3) * BartenderScheduler.BATCH_EXTRA_SHARE;
+        assertEquals(runStart + Math.round(ingredients * MS), finishedAt.get(head));
+    }
+
+    @Test
+    void copiesWithinOneOrderAreNotDiscounted() {
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        Order twice = submit(mojito, mojito);
+
+        clock.runUntilIdle();
+        assertEquals(2 * MS + 6 * MS, finishedAt.get(twice));
+    }
+
+    @Test
+    void windowCapsTheRunSize() {
+        bar.setBatchWindow(2);
+        submit(daiquiri);
+        List<Order> orders = List.of(submit(mojito), submit(mojito), submit(mojito));
+
+        clock.runUntilIdle();
+        assertEquals(startedAt.get(orders.get(0)), startedAt.get(orders.get(1)));
+        assertEquals(finishedAt.get(orders.get(1)), startedAt.get(orders.get(2)));
+    }
+
+    @Test
+    void windowOfOnePreparesOrdersOneByOne() {
+        bar.setBatchWindow(1);
+        submit(daiquiri);
+        Order first = submit(mojito);
+        Order second = submit(mojito);
+
+        clock.runUntilIdle();
+        assertEquals(finishedAt.get(first), startedAt.get(second));
+        assertEquals(startedAt.get(second) + 3 * MS, finishedAt.get(second));
+    }
+
+    @Test
+    void lessUrgentOrdersDoNotJoinTheRun() {
+        bar.setQueuePolicy(Bar.QueuePolicy.PRIORITY);
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        Order vip = submit(Order.Priority.VIP, mojito);
+        Order table = submit(Order.Priority.TABLE, mojito);
+        Order otherVip = submit(Order.Priority.VIP, mojito);
+
+        clock.runUntilIdle();
+        // Les deux VIP partent ensemble ; la commande à table ne les retarde pas
+        assertEquals(startedAt.get(vip), startedAt.get(otherVip));
+        assertEquals(finishedAt.get(vip), finishedAt.get(otherVip));
+        assertEquals(finishedAt.get(vip), startedAt.get(table));
+    }
+
+    // ===== Fin de tournée =====
+
+    @Test
+    void everyOrderOfARunIsCompletedOnceAndConsumesItsOwnStock() {
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        List<Order> batch = List.of(submit(mojito), submit(mojito), submit(mojito));
+
+        clock.runUntilIdle();
+        for (Order order : batch) {
+            assertEquals(Order.OrderStatus.COMPLETED, order.getStatus());
+            assertEquals(100, order.getProgress());
+            assertSame(marie, order.getAssignedBartender());
+        }
+        assertEquals(4, bar.getCompletedOrderCount());
+        assertEquals(100 - 4, rum.getStockUnits());
+        assertEquals(100 - 3, mint.getStockUnits());
+        assertEquals(0, bar.getInProgressOrderCount());
+        assertEquals(List.of(marie), bar.getEmployees());
+        assertTrue(bar.getWaitingOrders().isEmpty());
+    }
+
+    @Test
+    void progressIsSharedByTheWholeRun() {
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        Order first = submit(mojito);
+        Order second = submit(mojito);
+
+        long batchDuration = Math.round(3 * (1 + BartenderScheduler.BATCH_EXTRA_SHARE) * MS);
+        long halfway = 2 * MS + batchDuration / 2;
+        clock.runUntil(halfway);
+        assertEquals(first.progressAt(halfway), second.progressAt(halfway));
+        assertEquals(50, first.progressAt(halfway));
+        assertEquals(Order.OrderStatus.IN_PROGRESS, second.getStatus());
+    }
+
+    // ===== Outils =====
+
+    private Order submit(Cocktail... cocktails) {
+        return submit(Order.Priority.TABLE, cocktails);
+    }
+
+    private Order submit(Order.Priority priority, Cocktail... cocktails) {
+        Order order = new Order(new Client("Client"), List.of(cocktails));
+        order.setPriority(priority);
+        assertTrue(bar.submit(order).isAccepted());
+        return order;
+    }
+}
@@ -0,0 +1,54 @@
+package com.loveinabottle.barcocktail.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogTest {
+
+    private final Catalog<Ingredient> stock = new Catalog<>(Ingredient::getName);
+
+    @Test
+    void findsByNameIgnoringCase() {
+        Ingredient gin = new Ingredient("Gin", 4, true, 10);
+        Ingredient tonic = new Ingredient("Tonic ÉLÉGANT", 20, false, 10);
+        stock.add(gin);
+        stock.add(tonic);
+
+        assertSame(gin, stock.find("gin"));
+        assertSame(gin, stock.find("GIN"));
+        assertSame(tonic, stock.find("tonic élégant"));
+        assertNull(stock.find("Vodka"));
+        assertNull(stock.find(null));
+    }
+
+    @Test
+    void keepsInsertionOrderAndTheFirstOfTwoNamesakes() {
+        Ingredient first = new Ingredient("Rhum", 4, true, 1);
+        Ingredient lime = new Ingredient("Citron vert", 1, false, 1);
+        Ingredient namesake = new Ingredient("RHUM", 4, true, 2);
+        stock.add(first);
+        stock.add(lime);
+        stock.add(namesake);
+
+        assertEquals(List.of(first, lime, namesake), stock.all());
+        assertEquals(3, stock.size());
+        assertSame(first, stock.find("rhum"));
+    }
+
+    @Test
+    void barLookupsGoThroughTheIndex() {
+        Bar bar = new Bar(Bar.ExecutionMode.DIRECT);
+        Ingredient mint = new Ingredient("Menthe", 1, false, 3);
+        bar.addIngredient(mint);
+        Cocktail virgin = new Cocktail("Virgin Mojito", java.util.Map.of(mint, 1), 5);
+        bar.addCocktailToMenu(virgin);
+
+        assertSame(mint, bar.findIngredientByName("MENTHE"));
+        assertSame(virgin, bar.findCocktailByName("virgin mojito"));
+        assertTrue(bar.placeOrder(new Client("Table 1"), List.of("VIRGIN MOJITO")).isPresent());
+        assertTrue(bar.placeOrder(new Client("Table 1"), List.of("Mojito")).isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuAvailabilityTest {
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 10);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 7);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 3);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 2, lime, 1, mint, 1), 9);
+    private final Cocktail daiquiri = new Cocktail("Daiquiri", Map.of(rum, 2, lime, 1), 8);
+
+    MenuAvailabilityTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addIngredient(mint);
+        bar.addCocktailToMenu(mojito);
+        bar.addCocktailToMenu(daiquiri);
+        bar.setProgressTickMs(0);
+    }
+
+    // ===== Comptes =====
+
+    @Test
+    void countIsTheScarcestIngredientOverItsQuantity() {
+        assertEquals(3, bar.getMakeableCount(mojito));   // menthe
+        assertEquals(5, bar.getMakeableCount(daiquiri)); // rhum
+    }
+
+    @Test
+    void followsStockChanges() {
+        assertEquals(3, bar.getMakeableCount(mojito));
+        mint.addUnits(10);
+        assertEquals(5, bar.getMakeableCount(mojito));
+        rum.removeUnits(3);
+        assertEquals(3, bar.getMakeableCount(mojito));
+        assertEquals(3, bar.getMakeableCount(daiquiri));
+        assertTrue(rum.tryRemoveUnits(7));
+        assertEquals(0, bar.getMakeableCount(mojito));
+        assertEquals(0, bar.getMakeableCount(daiquiri));
+        assertEquals(13, mint.getStockUnits());
+    }
+
+    @Test
+    void unknownOrEmptyCocktails() {
+        assertEquals(-1, bar.getMakeableCount(new Cocktail("Spritz", Map.of(), 7)));
+        Cocktail water = new Cocktail("Eau", Map.of(), 0);
+        bar.addCocktailToMenu(water);
+        assertEquals(Integer.MAX_VALUE, bar.getMakeableCount(water));
+    }
+
+    @Test
+    void recipesResolveIngredientsByNameAndWaitForMissingOnes() {
+        Ingredient otherRum = new Ingredient("RHUM", 4, true, 0);
+        Ingredient sugar = new Ingredient("Sucre", 1, false, 0);
+        Cocktail caipi = new Cocktail("Caïpi", Map.of(otherRum, 1, sugar, 1), 8);
+        bar.addCocktailToMenu(caipi);
+        assertEquals(0, bar.getMakeableCount(caipi)); // pas de sucre au stock
+
+        bar.addIngredient(new Ingredient("sucre", 1, false, 4));
+        assertEquals(4, bar.getMakeableCount(caipi));
+        rum.removeUnits(8); // le rhum du stock, pas l'homonyme de la recette
+        assertEquals(2, bar.getMakeableCount(caipi));
+    }
+
+    @Test
+    void aNamesakeCocktailIsNotIndexed() {
+        Cocktail namesake = new Cocktail("MOJITO", Map.of(lime, 1), 9);
+        bar.addCocktailToMenu(namesake);
+        assertEquals(-1, bar.getMakeableCount(namesake));
+        assertEquals(3, bar.getMakeableCount(mojito));
+    }
+
+    // ===== Réservations =====
+
+    @Test
+    void reservationsCountUntilReleased() {
+        StockReservation reservation = bar.reserve(List.of(mojito, mojito)).orElseThrow();
+        assertEquals(1, bar.getMakeableCount(mojito));
+        assertEquals(3, bar.getMakeableCount(daiquiri));
+
+        reservation.release();
+        assertEquals(3, bar.getMakeableCount(mojito));
+        assertEquals(5, bar.getMakeableCount(daiquiri));
+    }
+
+    @Test
+    void servedAndCancelledOrdersLeaveTheRightCounts() {
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        Order served = new Order(new Client("Client"), List.of(mojito));
+        Order cancelled = new Order(new Client("Client"), List.of(mojito, daiquiri));
+        assertTrue(bar.submit(served).isAccepted());
+        assertTrue(bar.submit(cancelled).isAccepted());
+        assertEquals(1, bar.getMakeableCount(mojito));   // menthe : 1 sur 3
+        assertEquals(2, bar.getMakeableCount(daiquiri)); // rhum : 4 sur 10
+
+        assertTrue(bar.cancelOrder(cancelled));
+        assertEquals(2, bar.getMakeableCount(mojito));
+        clock.runUntilIdle();
+        assertEquals(2, bar.getMakeableCount(mojito));
+        assertEquals(4, bar.getMakeableCount(daiquiri));
+    }
+
+    @Test
+    void lazyIndexingSeesStockChangedBeforeTheFirstRead() {
+        Cocktail late = new Cocktail("Daïquiri menthe", Map.of(rum, 1, mint, 1), 9);
+        bar.addCocktailToMenu(late);
+        mint.removeUnits(2);
+        assertEquals(1, bar.getMakeableCount(late));
+        mint.addUnits(5);
+        assertEquals(6, bar.getMakeableCount(late));
+    }
+}
@@ -0,0 +1,175 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCancellationTest {
+
+    private static final long MS = Bar.BASE_TIME_PER_INGREDIENT_MS;
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 20);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 20);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 20);
+    private final Cocktail daiquiri = new Cocktail("Daiquiri", Map.of(rum, 1, lime, 1), 8);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 1, lime, 1, mint, 1), 9);
+    private final List<String> events = new ArrayList<>();
+    private final Map<Order, Long> startedAt = new HashMap<>();
+    private final Map<Order, Long> finishedAt = new HashMap<>();
+
+    OrderCancellationTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.addIngredient(mint);
+        bar.setProgressTickMs(0);
+        bar.addOrderListener(new OrderListener() {
+            @Override
+            public void onStarted(Order order) {
+                startedAt.put(order, clock.millis());
+            }
+
+            @Override
+            public void onCompleted(Order order) {
+                events.add("terminée " + order.getId());
+                finishedAt.put(order, clock.millis());
+            }
+
+            @Override
+            public void onCancelled(Order order) {
+                events.add("annulée " + order.getId());
+            }
+        });
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+    }
+
+    // ===== Commande en file =====
+
+    @Test
+    void cancellingAQueuedOrderReleasesItsReservation() {
+        bar.setBatchWindow(0);
+        Order running = submit(daiquiri);
+        Order queued = submit(mojito);
+        assertEquals(18, rum.getStockUnits());
+        assertEquals(19, mint.getStockUnits());
+
+        assertTrue(bar.cancelOrder(queued));
+        assertEquals(Order.OrderStatus.CANCELLED, queued.getStatus());
+        assertEquals(StockReservation.State.RELEASED, queued.getReservation().getState());
+        assertEquals(19, rum.getStockUnits());
+        assertEquals(20, mint.getStockUnits());
+        assertTrue(bar.getWaitingOrders().isEmpty());
+        assertTrue(bar.estimate(queued).isEmpty());
+        assertFalse(bar.cancelOrder(queued));
+
+        clock.runUntilIdle();
+        assertEquals(List.of("annulée " + queued.getId(), "terminée " + running.getId()), events);
+        assertEquals(1, bar.getCompletedOrderCount());
+        assertEquals(19, rum.getStockUnits());
+    }
+
+    // ===== Commande en préparation =====
+
+    @Test
+    void cancellingTheOnlyOrderInProgressFreesTheBartender() {
+        bar.setBatchWindow(0);
+        Order running = submit(mojito);
+        Order next = submit(daiquiri);
+
+        clock.runUntil(MS);
+        assertTrue(bar.cancelOrder(running));
+        assertEquals(StockReservation.State.RELEASED, running.getReservation().getState());
+        assertEquals(19, rum.getStockUnits()); // seule la suivante garde sa part
+        assertEquals(20, mint.getStockUnits());
+        // Le bartender passe aussitôt à la suite
+        assertEquals(MS, startedAt.get(next));
+        assertEquals(Order.OrderStatus.IN_PROGRESS, next.getStatus());
+
+        clock.runUntilIdle();
+        assertEquals(MS + 2 * MS, finishedAt.get(next));
+        assertNull(finishedAt.get(running));
+        assertEquals(Order.OrderStatus.CANCELLED, running.getStatus());
+    }
+
+    @Test
+    void cancellingAnOrderOfARunReplansTheRest() {
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        Order first = submit(mojito);
+        Order second = submit(mojito);
+        Order third = submit(mojito);
+
+        clock.runUntil(2 * MS + 1_000);
+        assertEquals(2 * MS, startedAt.get(third));
+        assertTrue(bar.cancelOrder(second));
+        assertEquals(StockReservation.State.RELEASED, second.getReservation().getState());
+        assertEquals(Order.OrderStatus.IN_PROGRESS, first.getStatus());
+
+        // La tournée ne compte plus que deux mojitos : elle se termine plus tôt
+        long shorter = Math.round(3 * (1 + BartenderScheduler.BATCH_EXTRA_SHARE) * MS);
+        assertEquals(2 * MS + shorter, bar.estimate(first).orElseThrow().getFinishMs());
+        clock.runUntilIdle();
+        assertEquals(2 * MS + shorter, finishedAt.get(first));
+        assertEquals(2 * MS + shorter, finishedAt.get(third));
+        assertNull(finishedAt.get(second));
+        // 4 commandes réservées, 1 rendue
+        assertEquals(20 - 3, rum.getStockUnits());
+        assertEquals(20 - 2, mint.getStockUnits());
+        assertEquals(3, bar.getCompletedOrderCount());
+    }
+
+    @Test
+    void cancellingEveryOrderOfARunFreesTheBartender() {
+        bar.setBatchWindow(6);
+        submit(daiquiri);
+        Order first = submit(mojito);
+        Order second = submit(mojito);
+
+        clock.runUntil(2 * MS + 1_000);
+        assertTrue(bar.cancelOrder(first));
+        assertEquals(1, bar.getInProgressOrderCount());
+        assertTrue(bar.cancelOrder(second));
+        assertEquals(0, bar.getInProgressOrderCount());
+        assertEquals(20 - 1, rum.getStockUnits());
+        assertEquals(20, mint.getStockUnits());
+
+        // Le bartender est libre : la commande suivante démarre aussitôt
+        Order next = submit(daiquiri);
+        assertEquals(clock.millis(), startedAt.get(next));
+        clock.runUntilIdle();
+        assertEquals(2, bar.getCompletedOrderCount());
+    }
+
+    // ===== Commande terminée =====
+
+    @Test
+    void aFinishedOrderCannotBeCancelled() {
+        Order order = submit(daiquiri);
+        clock.runUntilIdle();
+
+        assertFalse(bar.cancelOrder(order));
+        assertEquals(Order.OrderStatus.COMPLETED, order.getStatus());
+        assertEquals(StockReservation.State.COMMITTED, order.getReservation().getState());
+        assertEquals(19, rum.getStockUnits());
+        assertEquals(List.of("terminée " + order.getId()), events);
+    }
+
+    @Test
+    void anOrderNeverSubmittedCannotBeCancelled() {
+        Order order = new Order(new Client("Client"), List.of(daiquiri));
+        assertFalse(bar.cancelOrder(order));
+        assertTrue(events.isEmpty());
+    }
+
+    // ===== Outils =====
+
+    private Order submit(Cocktail cocktail) {
+        Order order = new Order(new Client("Client"), List.of(cocktail));
+        assertTrue(bar.submit(order).isAccepted());
+        return order;
+    }
+}
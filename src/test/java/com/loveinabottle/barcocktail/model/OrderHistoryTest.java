@@ -0,0 +1,76 @@
+package com.loveinabottle.barcocktail.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderHistoryTest {
+
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(), 8);
+    private final Cocktail spritz = new Cocktail("Spritz", Map.of(), 7);
+
+    // ===== Rétention =====
+
+    @Test
+    void keepsOnlyTheMostRecentOrders() {
+        OrderHistory history = new OrderHistory(3);
+        List<Order> orders = List.of(order(mojito, null), order(mojito, null), order(spritz, null),
+                order(spritz, null), order(mojito, null));
+        orders.forEach(history::add);
+
+        assertEquals(orders.subList(2, 5), history.recent());
+        history.setCapacity(2);
+        assertEquals(orders.subList(3, 5), history.recent());
+    }
+
+    // ===== Totaux =====
+
+    @Test
+    void totalsCoverEveryOrderEvenForgottenOnes() {
+        OrderHistory history = new OrderHistory(1);
+        history.add(order(mojito, null));
+        history.add(order(spritz, null));
+        history.add(order(mojito, null));
+
+        assertEquals(3, history.getCompletedCount());
+        assertEquals(23, history.getTotalRevenue(), 1e-9);
+        assertEquals(2, history.getTotalsByCocktail().get("Mojito").getCount());
+        assertEquals(7, history.getTotalsByCocktail().get("Spritz").getRevenue(), 1e-9);
+    }
+
+    @Test
+    void bartenderTotalsAreKeyedByEmployeeId() {
+        OrderHistory history = new OrderHistory();
+        Bartender marie = new Bartender("B1", "Marie", 2);
+        Bartender namesake = new Bartender("B2", "Marie", 3);
+        history.add(order(mojito, marie));
+        history.add(order(spritz, namesake));
+        history.add(order(mojito, marie));
+
+        Map<String, OrderHistory.Totals> totals = history.getTotalsByBartender();
+        assertEquals(2, totals.size());
+        assertEquals(2, totals.get("B1").getCount());
+        assertEquals(16, totals.get("B1").getRevenue(), 1e-9);
+        assertEquals(1, totals.get("B2").getCount());
+    }
+
+    @Test
+    void clearResetsTotals() {
+        OrderHistory history = new OrderHistory();
+        history.add(order(mojito, new Bartender("B1", "Marie", 2)));
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertEquals(0, history.getCompletedCount());
+        assertTrue(history.getTotalsByBartender().isEmpty());
+    }
+
+    private static Order order(Cocktail cocktail, Employee bartender) {
+        Order order = new Order(new Client("Client"), List.of(cocktail));
+        order.setAssignedBartender(bartender);
+        return order;
+    }
+}
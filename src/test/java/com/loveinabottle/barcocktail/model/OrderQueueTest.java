@@ -0,0 +1,176 @@
+package com.loveinabottle.barcocktail.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderQueueTest {
+
+    // ===== Ordre de service =====
+
+    @Test
+    void servesByKeyThenArrival() {
+        OrderQueue queue = new OrderQueue();
+        Order late = order(1);
+        Order urgent = order(1);
+        Order first = order(1);
+        Order second = order(1);
+        queue.add(late, 5, 0);
+        queue.add(first, 2, 1);
+        queue.add(urgent, 0, 2);
+        queue.add(second, 2, 3);
+
+        assertEquals(List.of(urgent, first, second, late), drain(queue));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.pollFirst());
+    }
+
+    @Test
+    void addingTheSameOrderTwiceKeepsOneEntry() {
+        OrderQueue queue = new OrderQueue();
+        Order order = order(2);
+        queue.add(order, 0, 0);
+        queue.add(order, 9, 1);
+
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.totalIngredients());
+    }
+
+    @Test
+    void removesAnyOrder() {
+        OrderQueue queue = new OrderQueue();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(order(1));
+            queue.add(orders.get(i), 0, i);
+        }
+
+        assertTrue(queue.remove(orders.get(2)));
+        assertFalse(queue.remove(orders.get(2)));
+        assertEquals(List.of(orders.get(0), orders.get(1), orders.get(3), orders.get(4)), list(queue));
+    }
+
+    @Test
+    void rekeyKeepsArrivalOrderBetweenEqualKeys() {
+        OrderQueue queue = new OrderQueue();
+        Order a = order(1);
+        Order b = order(1);
+        Order c = order(1);
+        queue.add(a, 3, 0);
+        queue.add(b, 2, 1);
+        queue.add(c, 1, 2);
+
+        queue.rekey(o -> 0);
+        assertEquals(List.of(a, b, c), list(queue));
+
+        queue.rekey(o -> o == a ? 1 : 0);
+        assertEquals(List.of(b, c, a), list(queue));
+    }
+
+    @Test
+    void headBeforeComparesHeadsAndPutsEmptyQueuesLast() {
+        OrderQueue left = new OrderQueue();
+        OrderQueue right = new OrderQueue();
+        assertFalse(left.headBefore(right));
+
+        left.add(order(1), 4, 10);
+        assertTrue(left.headBefore(right));
+        assertFalse(right.headBefore(left));
+
+        right.add(order(1), 4, 3);
+        assertTrue(right.headBefore(left));
+    }
+
+    // ===== Travail en file =====
+
+    @Test
+    void sumsIngredientsAndCountsAhead() {
+        OrderQueue queue = new OrderQueue();
+        Order a = order(3);
+        Order b = order(1);
+        Order c = order(2);
+        queue.add(a, 0, 0);
+        queue.add(b, 1, 1);
+        queue.add(c, 1, 2);
+
+        assertEquals(6, queue.totalIngredients());
+        assertEquals(0, queue.ingredientsBefore(a));
+        assertEquals(3, queue.ingredientsBefore(b));
+        assertEquals(4, queue.ingredientsBefore(c));
+        assertEquals(2, queue.countBefore(c));
+        // Une nouvelle commande de clé 1 passe après celles de même clé déjà en file
+        assertEquals(6, queue.ingredientsAhead(1));
+        assertEquals(3, queue.ingredientsAhead(0));
+
+        Order absent = order(1);
+        assertEquals(-1, queue.ingredientsBefore(absent));
+        assertEquals(-1, queue.countBefore(absent));
+    }
+
+    @Test
+    void matchesASortedListUnderRandomOperations() {
+        Random random = new Random(42);
+        OrderQueue queue = new OrderQueue();
+        List<long[]> reference = new ArrayList<>(); // {clé, arrivée, index}
+        List<Order> orders = new ArrayList<>();
+        Comparator<long[]> serviceOrder = Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]);
+
+        for (int step = 0; step < 2_000; step++) {
+            int action = random.nextInt(4);
+            if (action < 2 || reference.isEmpty()) {
+                Order order = order(1 + random.nextInt(5));
+                long key = random.nextInt(4);
+                orders.add(order);
+                reference.add(new long[]{key, step, orders.size() - 1});
+                queue.add(order, key, step);
+            } else if (action == 2) {
+                reference.sort(serviceOrder);
+                long[] head = reference.remove(0);
+                assertSame(orders.get((int) head[2]), queue.pollFirst());
+            } else {
+                long[] victim = reference.remove(random.nextInt(reference.size()));
+                assertTrue(queue.remove(orders.get((int) victim[2])));
+            }
+
+            reference.sort(serviceOrder);
+            assertEquals(reference.size(), queue.size());
+            long ahead = 0;
+            for (int i = 0; i < reference.size(); i++) {
+                Order order = orders.get((int) reference.get(i)[2]);
+                if (i % 17 == 0) {
+                    assertEquals(ahead, queue.ingredientsBefore(order));
+                    assertEquals(i, queue.countBefore(order));
+                }
+                ahead += order.getTotalIngredients();
+            }
+            assertEquals(ahead, queue.totalIngredients());
+        }
+    }
+
+    // ===== Outils =====
+
+    /** Commande d'un seul cocktail de {@code ingredients} ingrédients. */
+    private static Order order(int ingredients) {
+        Map<Ingredient, Integer> recipe = new LinkedHashMap<>();
+        for (int i = 0; i < ingredients; i++) {
+            recipe.put(new Ingredient("Ingrédient " + i, 1, false, 0), 1);
+        }
+        return new Order(new Client("Client"), List.of(new Cocktail("Cocktail", recipe, 1)));
+    }
+
+    private static List<Order> list(OrderQueue queue) {
+        List<Order> orders = new ArrayList<>();
+        queue.forEach(orders::add);
+        return orders;
+    }
+
+    private static List<Order> drain(OrderQueue queue) {
+        List<Order> orders = new ArrayList<>();
+        for (Order order = queue.pollFirst(); order != null; order = queue.pollFirst()) {
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,172 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockForecastTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HALF_LIFE_MS = 10 * MINUTE;
+    /** Débit (unités/min) juste après la consommation d'une unité. */
+    private static final double ONE_UNIT_RATE = Math.log(2) / 10;
+
+    private final DiscreteEventClock clock = new DiscreteEventClock(0);
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, clock);
+    private final StockForecast forecast = bar.getStockForecast();
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 5);
+    private final Ingredient lime = new Ingredient("Citron vert", 1, false, 1_000);
+    private final Cocktail daiquiri = new Cocktail("Daiquiri", Map.of(rum, 1, lime, 1), 8);
+    private final List<StockForecast.Forecast> alerts = new ArrayList<>();
+    private final List<Integer> restocks = new ArrayList<>();
+
+    StockForecastTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(lime);
+        bar.setBatchWindow(0);
+        bar.setProgressTickMs(0);
+        bar.addEmployee(new Bartender("B1", "Marie", 1));
+        forecast.setHalfLifeMs(HALF_LIFE_MS);
+        forecast.setAlertHorizonMs(60 * MINUTE);
+        forecast.addRestockListener(new RestockListener() {
+            @Override
+            public void onLowStock(StockForecast.Forecast alert) {
+                alerts.add(alert);
+            }
+
+            @Override
+            public void onAutoRestock(Ingredient ingredient, int units) {
+                assertSame(rum, ingredient);
+                restocks.add(units);
+            }
+        });
+    }
+
+    // ===== Débit =====
+
+    @Test
+    void servedOrdersFeedTheRateWhichDecaysWithTheHalfLife() {
+        serve();
+        StockForecast.Forecast now = forecast.getForecast(rum);
+        assertEquals(ONE_UNIT_RATE, now.getUnitsPerMinute(), 1e-9);
+        assertEquals(4, now.getFreeUnits());
+        assertEquals((long) (4 / (ONE_UNIT_RATE / MINUTE)), now.getTimeToStockOutMs(), 1);
+
+        clock.runUntil(clock.millis() + HALF_LIFE_MS);
+        assertEquals(ONE_UNIT_RATE / 2, forecast.getForecast(rum).getUnitsPerMinute(), 1e-9);
+    }
+
+    @Test
+    void cancelledAndRefusedOrdersDoNotInflateTheRate() {
+        Order running = submit();
+        Order queued = submit();
+        assertTrue(bar.cancelOrder(queued));
+        assertTrue(bar.cancelOrder(running));
+        rum.removeUnits(5);
+        Order refused = new Order(new Client("Client"), List.of(daiquiri));
+        assertEquals(SubmissionResult.Status.OUT_OF_STOCK, bar.submit(refused).getStatus());
+        rum.addUnits(5);
+        clock.runUntilIdle();
+
+        StockForecast.Forecast rest = forecast.getForecast(rum);
+        assertEquals(0, rest.getUnitsPerMinute(), 1e-12);
+        assertEquals(-1, rest.getTimeToStockOutMs());
+        assertTrue(alerts.isEmpty());
+    }
+
+    @Test
+    void reservedUnitsAreCountedApartUntilSettled() {
+        submit();
+        submit();
+        StockForecast.Forecast pending = forecast.getForecast(rum);
+        assertEquals(2, pending.getReservedUnits());
+        assertEquals(3, pending.getFreeUnits());
+        assertEquals(0, pending.getUnitsPerMinute(), 1e-12);
+
+        clock.runUntilIdle();
+        StockForecast.Forecast settled = forecast.getForecast(rum);
+        assertEquals(0, settled.getReservedUnits());
+        assertEquals(3, settled.getFreeUnits());
+        assertTrue(settled.getUnitsPerMinute() > ONE_UNIT_RATE);
+    }
+
+    @Test
+    void directConsumptionFeedsTheRate() {
+        daiquiri.consumeIngredients(bar);
+        assertEquals(4, rum.getStockUnits());
+        assertEquals(ONE_UNIT_RATE, forecast.getForecast(rum).getUnitsPerMinute(), 1e-9);
+    }
+
+    // ===== Alertes =====
+
+    @Test
+    void alertIsRaisedOnceUntilTheStockRecovers() {
+        serve(); // 4 libres à ~0,07/min : rupture dans ~58 min, sous l'horizon d'une heure
+        assertEquals(1, alerts.size());
+        assertSame(rum, alerts.get(0).getIngredient());
+        assertTrue(alerts.get(0).getTimeToStockOutMs() < forecast.getAlertHorizonMs());
+
+        serve();
+        assertEquals(1, alerts.size());
+
+        rum.addUnits(100);
+        assertEquals(1, alerts.size());
+        rum.removeUnits(100);
+        assertEquals(2, alerts.size());
+        // Un ingrédient abondant ne déclenche rien
+        assertTrue(alerts.stream().allMatch(a -> a.getIngredient() == rum));
+    }
+
+    @Test
+    void noAlertWithoutHorizon() {
+        forecast.setAlertHorizonMs(0);
+        serve();
+        serve();
+        assertTrue(alerts.isEmpty());
+    }
+
+    // ===== Réapprovisionnement automatique =====
+
+    @Test
+    void autoRestockTopsUpPastTheAlertHorizon() {
+        long cover = 30 * MINUTE;
+        forecast.setAutoRestockCoverMs(cover);
+        serve();
+
+        assertEquals(1, alerts.size());
+        assertEquals(1, restocks.size());
+        int expected = (int) Math.ceil(ONE_UNIT_RATE * (forecast.getAlertHorizonMs() + cover) / MINUTE) - 4;
+        assertEquals(expected, restocks.get(0));
+        assertEquals(4 + expected, rum.getStockUnits());
+        // Le complément couvre l'horizon plus la durée demandée : l'alerte est réarmée, pas relevée
+        assertTrue(forecast.getForecast(rum).getTimeToStockOutMs() >= forecast.getAlertHorizonMs() + cover);
+        assertEquals(0, forecast.suggestRestockUnits(rum, forecast.getAlertHorizonMs() + cover));
+    }
+
+    @Test
+    void autoRestockFollowsTheNextAlert() {
+        forecast.setAutoRestockCoverMs(5 * MINUTE);
+        for (int i = 0; i < 6; i++) serve();
+        assertEquals(alerts.size(), restocks.size());
+        assertTrue(restocks.size() >= 2, restocks::toString);
+        assertTrue(rum.getStockUnits() > 0);
+    }
+
+    // ===== Outils =====
+
+    private Order submit() {
+        Order order = new Order(new Client("Client"), List.of(daiquiri));
+        assertTrue(bar.submit(order).isAccepted());
+        return order;
+    }
+
+    /** Une commande servie de bout en bout ; l'horloge s'arrête à sa fin. */
+    private void serve() {
+        Order order = submit();
+        clock.runUntilIdle();
+        assertEquals(Order.OrderStatus.COMPLETED, order.getStatus());
+    }
+}
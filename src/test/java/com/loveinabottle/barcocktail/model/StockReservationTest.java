@@ -0,0 +1,158 @@
+package com.loveinabottle.barcocktail.model;
+
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReservationTest {
+    private static final int THREADS = 8;
+
+    private final Bar bar = new Bar(Bar.ExecutionMode.DIRECT, new DiscreteEventClock(0));
+    private final Ingredient rum = new Ingredient("Rhum", 4, true, 0);
+    private final Ingredient mint = new Ingredient("Menthe", 1, false, 0);
+    private final Cocktail mojito = new Cocktail("Mojito", Map.of(rum, 2, mint, 1), 8);
+
+    StockReservationTest() {
+        bar.addIngredient(rum);
+        bar.addIngredient(mint);
+    }
+
+    // ===== Cycle de vie =====
+
+    @Test
+    void commitKeepsUnitsAndReleaseGivesThemBack() {
+        rum.addUnits(10);
+        mint.addUnits(10);
+
+        StockReservation consumed = bar.reserve(List.of(mojito, mojito)).orElseThrow();
+        assertEquals(Map.of(rum, 4, mint, 2), consumed.getUnits());
+        assertEquals(6, rum.getStockUnits());
+        assertTrue(consumed.commit());
+        assertFalse(consumed.release());
+        assertEquals(StockReservation.State.COMMITTED, consumed.getState());
+        assertEquals(6, rum.getStockUnits());
+
+        StockReservation returned = bar.reserve(List.of(mojito)).orElseThrow();
+        assertTrue(returned.release());
+        assertFalse(returned.release());
+        assertFalse(returned.commit());
+        assertEquals(StockReservation.State.RELEASED, returned.getState());
+        assertEquals(6, rum.getStockUnits());
+        assertEquals(8, mint.getStockUnits());
+    }
+
+    @Test
+    void failedReservationTakesNothing() {
+        rum.addUnits(10);
+        mint.addUnits(1);
+
+        assertTrue(bar.reserve(List.of(mojito, mojito)).isEmpty());
+        assertEquals(10, rum.getStockUnits());
+        assertEquals(1, mint.getStockUnits());
+    }
+
+    @Test
+    void listenersHearOnceForEachReservationChange() {
+        rum.addUnits(10);
+        mint.addUnits(10);
+        List<Boolean> changes = new CopyOnWriteArrayList<>();
+        bar.addStockListener(new StockListener() {
+            @Override
+            public void onStockChanged(Ingredient ingredient, int delta, int unitsAfter) {
+                fail("un seul avis par réservation attendu");
+            }
+
+            @Override
+            public void onReservationChanged(StockReservation reservation, boolean taken) {
+                changes.add(taken);
+            }
+        });
+
+        StockReservation reservation = bar.reserve(List.of(mojito)).orElseThrow();
+        reservation.release();
+        reservation.release();
+        bar.reserve(List.of(mojito, mojito, mojito, mojito, mojito, mojito)); // refusée : pas d'avis
+
+        assertEquals(List.of(true, false), changes);
+    }
+
+    // ===== Concurrence =====
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        rum.addUnits(1_000);
+        mint.addUnits(300);
+        AtomicInteger granted = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                if (bar.reserve(List.of(mojito)).isPresent()) granted.incrementAndGet();
+            }
+        });
+
+        // La menthe limite : 300 mojitos, le reste est refusé sans rien prendre
+        assertEquals(300, granted.get());
+        assertEquals(0, mint.getStockUnits());
+        assertEquals(400, rum.getStockUnits());
+    }
+
+    @Test
+    void concurrentCommitAndReleaseSettleEachReservationOnce() throws Exception {
+        rum.addUnits(20_000);
+        mint.addUnits(10_000);
+        List<StockReservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            reservations.add(bar.reserve(List.of(mojito)).orElseThrow());
+        }
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger releases = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (StockReservation reservation : reservations) {
+                if (thread % 2 == 0 ? reservation.commit() : reservation.release()) {
+                    (thread % 2 == 0 ? commits : releases).incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(reservations.size(), commits.get() + releases.get());
+        int released = 0;
+        for (StockReservation reservation : reservations) {
+            assertNotEquals(StockReservation.State.HELD, reservation.getState());
+            if (reservation.getState() == StockReservation.State.RELEASED) released++;
+        }
+        assertEquals(releases.get(), released);
+        assertEquals(20_000 - 2 * (reservations.size() - released), rum.getStockUnits());
+        assertEquals(10_000 - (reservations.size() - released), mint.getStockUnits());
+    }
+
+    private static void runConcurrently(IntConsumerWithException task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                done.add(pool.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface IntConsumerWithException {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,155 @@
+package com.loveinabottle.barcocktail.snapshot;
+
+import com.loveinabottle.barcocktail.model.*;
+import com.loveinabottle.barcocktail.simulation.DiscreteEventClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    // ===== Aller-retour =====
+
+    @Test
+    void roundTripKeepsStockMenuAndEmployees() throws IOException {
+        Bar bar = newBar();
+        DemoCatalog.populate(bar);
+        bar.getAllIngredients().get(0).addUnits(7);
+        Path file = directory.resolve("catalog.bin");
+
+        CatalogSnapshot.write(bar, file);
+        Bar loaded = newBar();
+        assertTrue(CatalogSnapshot.load(file, loaded));
+
+        assertEquals(stock(bar), stock(loaded));
+        List<Cocktail> menu = bar.getMenu();
+        assertEquals(menu.size(), loaded.getMenu().size());
+        for (int i = 0; i < menu.size(); i++) {
+            Cocktail expected = menu.get(i);
+            Cocktail actual = loaded.getMenu().get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getBasePrice(), actual.getBasePrice());
+            assertEquals(recipe(expected), recipe(actual));
+            // Les recettes pointent vers les ingrédients du stock chargé
+            for (Ingredient ingredient : actual.getRecipe().keySet()) {
+                assertSame(loaded.findIngredientByName(ingredient.getName()), ingredient);
+            }
+        }
+        assertEquals(employees(bar), employees(loaded));
+    }
+
+    @Test
+    void recipeWithAnUnknownIngredientLosesOnlyThatEntry() throws IOException {
+        Bar bar = newBar();
+        Ingredient lime = new Ingredient("Citron vert", 1, false, 5);
+        bar.addIngredient(lime);
+        Ingredient absent = new Ingredient("Absent", 1, false, 0);
+        bar.addCocktailToMenu(new Cocktail("Mystère", Map.of(lime, 2, absent, 1), 6));
+        bar.addCocktailToMenu(new Cocktail("Eau", Map.of(), 1));
+        Path file = directory.resolve("catalog.bin");
+
+        CatalogSnapshot.write(bar, file);
+        Bar loaded = newBar();
+        CatalogSnapshot.load(file, loaded);
+
+        assertEquals(Map.of("Citron vert", 2), recipe(loaded.findCocktailByName("Mystère")));
+        assertEquals(Map.of(), recipe(loaded.findCocktailByName("Eau")));
+    }
+
+    // ===== Générations =====
+
+    @Test
+    void loadWithoutSnapshotLeavesTheBarEmpty() throws IOException {
+        Bar bar = newBar();
+        assertFalse(CatalogSnapshot.load(directory.resolve("catalog.bin"), bar));
+        assertTrue(bar.getAllIngredients().isEmpty());
+    }
+
+    @Test
+    void eachSaveIsANewGenerationAndOldOnesAreDeleted() throws IOException {
+        Path file = directory.resolve("catalog.bin");
+        Bar bar = newBar();
+        DemoCatalog.populate(bar);
+        CatalogSnapshot.write(bar, file);
+
+        // Un bar chargé depuis la génération 1 garde ses recettes paresseuses pendant la sauvegarde suivante
+        Bar loaded = newBar();
+        CatalogSnapshot.load(file, loaded);
+        loaded.addIngredient(new Ingredient("Sirop d'orgeat", 1, false, 3));
+        CatalogSnapshot.write(loaded, file);
+
+        assertEquals(List.of("catalog.bin.2"), files());
+        assertEquals(recipe(bar.getMenu().get(0)), recipe(loaded.getMenu().get(0)));
+        Bar reloaded = newBar();
+        CatalogSnapshot.load(file, reloaded);
+        assertNotNull(reloaded.findIngredientByName("Sirop d'orgeat"));
+    }
+
+    @Test
+    void unsuffixedFileLoadsAsGenerationZero() throws IOException {
+        Path file = directory.resolve("catalog.bin");
+        Bar bar = newBar();
+        DemoCatalog.populate(bar);
+        CatalogSnapshot.write(bar, file);
+        Files.move(CatalogSnapshot.generationFile(file, 1), file);
+
+        Bar loaded = newBar();
+        assertTrue(CatalogSnapshot.load(file, loaded));
+        CatalogSnapshot.write(loaded, file);
+
+        assertEquals(List.of("catalog.bin.1"), files());
+    }
+
+    @Test
+    void rejectsAFileThatIsNotACatalog() throws IOException {
+        Path file = directory.resolve("catalog.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> CatalogSnapshot.load(file, newBar()));
+    }
+
+    // ===== Outils =====
+
+    private static Bar newBar() {
+        return new Bar(Bar.ExecutionMode.DIRECT, new DiscreteEventClock(0));
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static Map<String, Integer> stock(Bar bar) {
+        Map<String, Integer> stock = new LinkedHashMap<>();
+        for (Ingredient ingredient : bar.getAllIngredients()) {
+            stock.put(ingredient.getName() + "/" + ingredient.getVolumePerUnit() + "/" + ingredient.isAlcoholic(),
+                    ingredient.getStockUnits());
+        }
+        return stock;
+    }
+
+    private static Map<String, Integer> recipe(Cocktail cocktail) {
+        Map<String, Integer> recipe = new HashMap<>();
+        cocktail.getRecipe().forEach((ingredient, units) -> recipe.put(ingredient.getName(), units));
+        return recipe;
+    }
+
+    private static List<String> employees(Bar bar) {
+        List<String> employees = new ArrayList<>();
+        for (Employee employee : bar.getEmployees()) {
+            employees.add(employee.getClass().getSimpleName() + "/" + employee.getId() + "/"
+                    + employee.getName() + "/" + employee.getSpeed());
+        }
+        return employees;
+    }
+}